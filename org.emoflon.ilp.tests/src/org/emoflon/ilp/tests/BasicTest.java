@@ -1,26 +1,45 @@
 package org.emoflon.ilp.tests;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import org.emoflon.ilp.BinaryVariable;
 import org.emoflon.ilp.Constraint;
+import org.emoflon.ilp.ConstraintMatrix;
+import org.emoflon.ilp.CoreBudget;
+import org.emoflon.ilp.Function;
+import org.emoflon.ilp.IntegerVariable;
 import org.emoflon.ilp.LinearConstraint;
 import org.emoflon.ilp.LinearFunction;
 import org.emoflon.ilp.LinearTerm;
+import org.emoflon.ilp.NormalConstraint;
 import org.emoflon.ilp.ObjectiveType;
 import org.emoflon.ilp.Operator;
 import org.emoflon.ilp.OrConstraint;
+import org.emoflon.ilp.PresolveResult;
+import org.emoflon.ilp.Presolver;
 import org.emoflon.ilp.Problem;
+import org.emoflon.ilp.ProblemChanges;
+import org.emoflon.ilp.ProblemTransformer;
 import org.emoflon.ilp.QuadraticFunction;
 import org.emoflon.ilp.QuadraticTerm;
+import org.emoflon.ilp.RealVariable;
 import org.emoflon.ilp.SOS1Constraint;
+import org.emoflon.ilp.SolverCapabilities;
+import org.emoflon.ilp.SolverConfig;
 import org.emoflon.ilp.Term;
+import org.emoflon.ilp.VarType;
+import org.emoflon.ilp.Variable;
 import org.junit.jupiter.api.Test;
 
 public class BasicTest {
@@ -93,6 +112,47 @@ public class BasicTest {
 		assertEquals(3, expanded.getTerms().size());
 	}
 
+	@Test
+	public void testSharedAndDeepNestedFunctionExpand() {
+		// Create variables
+		BinaryVariable x = new BinaryVariable("x");
+
+		// Function x + 1, nested twice in g
+		LinearFunction f_x = new LinearFunction();
+		f_x.addTerm(x, 1.0);
+		f_x.addConstant(1);
+
+		// Function 2*f(x) + 3*f(x)
+		LinearFunction g_f = new LinearFunction();
+		g_f.addNestedFunction(f_x, 2);
+		g_f.addNestedFunction(f_x, 3);
+
+		LinearFunction expanded = (LinearFunction) g_f.expand();
+		assertEquals(1, expanded.getTerms().size());
+		assertEquals(5, expanded.getTerms().get(0).getWeight(), 0.01);
+		assertEquals(5, expanded.getConstants().get(0).weight(), 0.01);
+		// The nested functions are not changed
+		assertEquals(1, f_x.getTerms().size());
+		assertEquals(2, g_f.getNestedFunctions().size());
+
+		// Deep nesting does not overflow the stack
+		LinearFunction deep = f_x;
+		for (int i = 0; i < 100000; i++) {
+			LinearFunction outer = new LinearFunction();
+			outer.addNestedFunction(deep, 1);
+			deep = outer;
+		}
+		assertEquals(1, deep.expand().getTerms().size());
+
+		// Cycles are rejected
+		LinearFunction cycle = new LinearFunction();
+		cycle.addNestedFunction(g_f, 1);
+		f_x.addNestedFunction(cycle, 1);
+		assertThrows(IllegalArgumentException.class, () -> {
+			cycle.expand();
+		});
+	}
+
 	@Test
 	public void testQuadraticNestedFunctionException() {
 		// Create variables
@@ -173,6 +233,11 @@ public class BasicTest {
 		// <= -> 7 substitution constraints (5 linear, 2 SOS)
 		// 2*7 + 1 substitution constraints total
 		assertEquals(15, substitution.size());
+
+		// x + 2y <= 4 holds anyway, phi_1 only needs to cover the epsilons
+		Term phi = ((LinearConstraint) substitution.get(1)).getLhsTerms().get(2);
+		assertEquals(0.0, phi.getVar1().getLowerBound().doubleValue(), 0.0001);
+		assertEquals(3.0E-4, phi.getVar1().getUpperBound().doubleValue(), 1.0E-9);
 	}
 
 	@Test
@@ -188,9 +253,28 @@ public class BasicTest {
 
 		List<LinearConstraint> substitution = sos.convert();
 
+		// 1 substitution constraint for each binary variable (v_i >= 0 holds anyway)
+		// -> 3 + 1 substitution constraints total
+		assertEquals(4, substitution.size());
+		// the big-M is the upper bound of the binary variable
+		assertEquals(-1.0, substitution.get(0).getLhsTerms().get(1).getWeight(), 0.0001);
+
+		// SOS1(i, j) with i in [-5, 20] and default bounds for j
+		IntegerVariable i = new IntegerVariable("i");
+		i.setLowerBound(-5);
+		i.setUpperBound(20);
+		IntegerVariable j = new IntegerVariable("j");
+		SOS1Constraint sos2 = new SOS1Constraint(Arrays.asList(i, j), 1000);
+
+		substitution = sos2.convert();
+
 		// 2 substitution constraints for each variable
-		// -> 2*3 + 1 substitution constraints total
-		assertEquals(7, substitution.size());
+		assertEquals(5, substitution.size());
+		assertEquals(-20.0, substitution.get(0).getLhsTerms().get(1).getWeight(), 0.0001);
+		assertEquals(5.0, substitution.get(1).getLhsTerms().get(0).getWeight(), 0.0001);
+		// default bounds may be changed by the solver config, the bound is used
+		assertEquals(-1000.0, substitution.get(2).getLhsTerms().get(1).getWeight(), 0.0001);
+		assertEquals(1000.0, substitution.get(3).getLhsTerms().get(0).getWeight(), 0.0001);
 	}
 
 	@Test
@@ -229,4 +313,583 @@ public class BasicTest {
 		assertTrue(sub_neq.get(1) instanceof SOS1Constraint);
 	}
 
+	@Test
+	public void testConstraintMatrix() {
+		// Create variables
+		BinaryVariable x = new BinaryVariable("x");
+		BinaryVariable y = new BinaryVariable("y");
+		BinaryVariable z = new BinaryVariable("z");
+
+		Problem problem = new Problem();
+
+		// x + 2y + 3x <= 4
+		LinearConstraint c1 = new LinearConstraint(Operator.LESS_OR_EQUAL, 4.0);
+		c1.addTerm(x, 1.0);
+		c1.addTerm(y, 2.0);
+		c1.addTerm(x, 3.0);
+
+		// z - y = 0
+		LinearConstraint c2 = new LinearConstraint(Operator.EQUAL, 0.0);
+		c2.addTerm(z, 1.0);
+		c2.addTerm(y, -1.0);
+
+		problem.add(c1);
+		problem.add(c2);
+
+		// Variables are indexed in the order they were added
+		assertEquals(3, problem.getVariableCount());
+		assertEquals(0, problem.getVariableIndex(x));
+		assertEquals(1, problem.getVariableIndex("y"));
+		assertEquals(z, problem.getVariable(2));
+		assertThrows(IllegalArgumentException.class, () -> {
+			problem.getVariableIndex("w");
+		});
+
+		// A variable can have different indices in different problems
+		Problem other = new Problem();
+		other.add(c2);
+		assertEquals(0, other.getVariableIndex(z));
+		assertEquals(2, problem.getVariableIndex(z));
+		assertEquals(0, other.getVariableIndex(z));
+		// Variables with the same name share the index
+		assertEquals(1, problem.getVariableIndex(new BinaryVariable("y")));
+
+		ConstraintMatrix matrix = problem.getConstraintMatrix();
+		assertEquals(2, matrix.getRowCount());
+		assertEquals(3, matrix.getColumnCount());
+		// duplicate x in c1 is merged
+		assertEquals(4, matrix.getNonZeroCount());
+
+		for (int row = 0; row < matrix.getRowCount(); row++) {
+			int start = matrix.getRowStarts()[row];
+			int end = matrix.getRowStarts()[row + 1];
+			if (matrix.getConstraint(row) == c1) {
+				assertEquals(2, end - start);
+				assertEquals(0, matrix.getColumns()[start]);
+				assertEquals(4.0, matrix.getValues()[start]);
+				assertEquals(1, matrix.getColumns()[start + 1]);
+				assertEquals(2.0, matrix.getValues()[start + 1]);
+				assertEquals(Operator.LESS_OR_EQUAL, matrix.getOperator(row));
+				assertEquals(4.0, matrix.getRhs(row));
+			} else {
+				assertEquals(c2, matrix.getConstraint(row));
+				assertEquals(2, end - start);
+				// the entries are sorted by column
+				assertEquals(1, matrix.getColumns()[start]);
+				assertEquals(-1.0, matrix.getValues()[start]);
+				assertEquals(2, matrix.getColumns()[start + 1]);
+				assertEquals(1.0, matrix.getValues()[start + 1]);
+				assertEquals(Operator.EQUAL, matrix.getOperator(row));
+			}
+		}
+	}
+
+	@Test
+	public void testPrimitiveVariableAccess() {
+		// Create variables
+		BinaryVariable b = new BinaryVariable("b");
+		IntegerVariable i = new IntegerVariable("i");
+		RealVariable r = new RealVariable("r");
+
+		i.setLowerBound(-3);
+		r.setUpperBound(2.5);
+		assertEquals(0.0, b.lowerBoundAsDouble());
+		assertEquals(1.0, b.upperBoundAsDouble());
+		assertEquals(-3.0, i.lowerBoundAsDouble());
+		assertEquals(2.5, r.upperBoundAsDouble());
+
+		// Binary and integer variables round the value
+		b.setValueDouble(0.9999);
+		i.setValueDouble(4.0001);
+		r.setValueDouble(1.25);
+		assertEquals(1, b.getValue().intValue());
+		assertEquals(4, i.getValue().intValue());
+		assertEquals(1.25, r.getValue().doubleValue());
+		assertEquals(1.0, b.valueAsDouble());
+		assertEquals(4.0, i.valueAsDouble());
+		assertEquals(1.25, r.valueAsDouble());
+
+		b.setValueDouble(0.0001);
+		assertEquals(0, b.getValue().intValue());
+
+		// Variables implemented outside of the library use the default conversion
+		Variable<Integer> custom = new CustomIntegerVariable();
+		custom.setValueDouble(2.9999);
+		assertEquals(3, custom.getValue().intValue());
+		assertEquals(3.0, custom.valueAsDouble());
+	}
+
+	@Test
+	public void testConstraintOrder() {
+		// Create variables
+		BinaryVariable x = new BinaryVariable("x");
+		BinaryVariable y = new BinaryVariable("y");
+
+		Problem problem = new Problem();
+		List<LinearConstraint> added = new ArrayList<LinearConstraint>();
+		for (int i = 0; i < 20; i++) {
+			// x + i*y <= i
+			LinearConstraint c = new LinearConstraint(Operator.LESS_OR_EQUAL, i);
+			c.addTerm(x, 1.0);
+			c.addTerm(y, i);
+			c.setName("c" + (19 - i));
+			problem.add(c);
+			added.add(c);
+		}
+
+		// Views and visitors iterate in insertion order
+		assertEquals(added, new ArrayList<>(problem.getConstraintsView()));
+		List<Constraint> visited = new ArrayList<Constraint>();
+		problem.forEachConstraint(visited::add);
+		assertEquals(added, visited);
+
+		// Rows of the matrix follow the same order
+		ConstraintMatrix matrix = problem.getConstraintMatrix();
+		for (int row = 0; row < matrix.getRowCount(); row++) {
+			assertEquals(added.get(row), matrix.getConstraint(row));
+		}
+
+		assertThrows(UnsupportedOperationException.class, () -> {
+			problem.getConstraintsView().clear();
+		});
+	}
+
+	@Test
+	public void testGeneratedNames() {
+		// Create variables
+		BinaryVariable x = new BinaryVariable("x");
+		BinaryVariable y = new BinaryVariable("y");
+
+		// x is part of two SOS1 constraints
+		SOS1Constraint sos1 = new SOS1Constraint();
+		sos1.addVariables(Arrays.asList(x, y));
+		SOS1Constraint sos2 = new SOS1Constraint();
+		sos2.addVariables(Arrays.asList(x));
+
+		// The same substitutions result in the same names
+		List<String> names1 = new ArrayList<String>();
+		List<String> names2 = new ArrayList<String>();
+		for (List<String> names : Arrays.asList(names1, names2)) {
+			Problem problem = new Problem();
+			problem.add(sos1);
+			problem.add(sos2);
+			problem.substituteSOS1();
+			problem.getVariables().keySet().forEach(names::add);
+			assertEquals(3, problem.getNameGenerator().getCount());
+		}
+		assertEquals(names1, names2);
+
+		// The auxiliary binary variables of x do not collide
+		// x, y + 3 auxiliary binary variables
+		assertEquals(5, names1.size());
+	}
+
+	@Test
+	public void testProblemTransformer() {
+		// Create variables
+		IntegerVariable x = new IntegerVariable("x");
+		IntegerVariable y = new IntegerVariable("y");
+
+		Problem problem = new Problem();
+		LinearConstraint c = new LinearConstraint(Operator.LESS, 5);
+		c.addTerm(x, 1);
+		c.addTerm(y, 1);
+		problem.add(c);
+
+		ProblemTransformer transformer = new ProblemTransformer(ProblemTransformer.SUBSTITUTE_OR,
+				ProblemTransformer.SUBSTITUTE_OPERATORS, ProblemTransformer.SUBSTITUTE_SOS1);
+		Problem transformed = transformer.transform(problem);
+
+		// The source problem is not changed
+		assertNotSame(problem, transformed);
+		assertEquals(1, problem.getConstraintCount());
+		assertEquals(2, problem.getVariableCount());
+		assertEquals(Operator.LESS, problem.getConstraints().get(0).getOp());
+
+		// The variables keep their indices
+		assertEquals(Operator.LESS_OR_EQUAL, transformed.getConstraints().get(0).getOp());
+		assertSame(x, transformed.getVariable(0));
+		assertSame(y, transformed.getVariable(1));
+
+		// Nothing to transform
+		assertSame(transformed, transformer.transform(transformed));
+	}
+
+	@Test
+	public void testTransformerForCapabilities() {
+		// Create variables
+		IntegerVariable x = new IntegerVariable("x");
+		IntegerVariable y = new IntegerVariable("y");
+
+		Problem problem = new Problem();
+		LinearConstraint neq = new LinearConstraint(Operator.NOT_EQUAL, 2);
+		neq.addTerm(x, 1);
+		neq.setName("neq");
+		problem.add(neq);
+		LinearConstraint disjunct = new LinearConstraint(Operator.GREATER, 3);
+		disjunct.addTerm(y, 1);
+		OrConstraint or = new OrConstraint();
+		or.addConstraint(disjunct);
+		problem.add(or);
+
+		// Native Or: != becomes an Or constraint, no auxiliary variables
+		Problem nativeOr = ProblemTransformer.forCapabilities(new SolverCapabilities(true, true)).transform(problem);
+		assertEquals(0, nativeOr.getConstraintCount());
+		assertEquals(0, nativeOr.getSOSConstraintCount());
+		assertEquals(2, nativeOr.getOrConstraintCount());
+		assertEquals(2, nativeOr.getVariableCount());
+		OrConstraint converted = (OrConstraint) nativeOr.getConstraintByName("neq");
+		assertEquals(Operator.LESS_OR_EQUAL, converted.getConstraints().get(0).getOp());
+		assertEquals(2 - neq.getEpsilon(), converted.getConstraints().get(0).getRhs());
+		assertEquals(Operator.GREATER_OR_EQUAL, converted.getConstraints().get(1).getOp());
+		assertEquals(2 + neq.getEpsilon(), converted.getConstraints().get(1).getRhs());
+
+		// Generic lowering as fallback
+		Problem lowered = ProblemTransformer.forCapabilities(new SolverCapabilities(false, false)).transform(problem);
+		assertEquals(0, lowered.getOrConstraintCount());
+		assertEquals(0, lowered.getSOSConstraintCount());
+		assertTrue(lowered.getVariableCount() > 2);
+
+		// The source problem is not changed
+		assertEquals(1, problem.getConstraintCount());
+		assertEquals(1, problem.getOrConstraintCount());
+	}
+
+	@Test
+	public void testProblemChanges() {
+		// Create variables
+		IntegerVariable x = new IntegerVariable("x");
+		IntegerVariable y = new IntegerVariable("y");
+		IntegerVariable z = new IntegerVariable("z");
+
+		Problem problem = new Problem();
+		LinearFunction obj = new LinearFunction();
+		obj.addTerm(x, 1);
+		problem.setObjective(obj);
+		LinearConstraint c1 = new LinearConstraint(Operator.LESS_OR_EQUAL, 5);
+		c1.addTerm(x, 1);
+		c1.addTerm(y, 1);
+		problem.add(c1);
+
+		// A new problem reports all its content as added
+		assertEquals(1, problem.getChanges().getAddedConstraints().size());
+		assertEquals(2, problem.getChanges().getAddedVariables().size());
+		assertTrue(problem.getChanges().isObjectiveChanged());
+		problem.clearChanges();
+		assertTrue(problem.getChanges().isEmpty());
+
+		// Replace c1 by c2
+		assertTrue(problem.remove(c1));
+		LinearConstraint c2 = new LinearConstraint(Operator.LESS_OR_EQUAL, 4);
+		c2.addTerm(x, 1);
+		c2.addTerm(z, 1);
+		problem.add(c2);
+
+		// Added and removed again is not a change
+		LinearConstraint c3 = new LinearConstraint(Operator.GREATER_OR_EQUAL, 1);
+		c3.addTerm(y, 1);
+		problem.add(c3);
+		problem.remove(c3);
+
+		x.setUpperBound(3);
+
+		ProblemChanges changes = problem.getChanges();
+		assertEquals(1, changes.getRemovedConstraints().size());
+		assertSame(c1, changes.getRemovedConstraints().get(0));
+		assertEquals(1, changes.getAddedConstraints().size());
+		assertSame(c2, changes.getAddedConstraints().get(0));
+		assertEquals(1, changes.getAddedVariables().size());
+		assertSame(z, changes.getAddedVariables().get(0));
+		assertEquals(1, changes.getChangedBounds().size());
+		assertSame(x, changes.getChangedBounds().get(0));
+		assertFalse(changes.isObjectiveChanged());
+		assertFalse(changes.isOtherChanged());
+
+		// Objective and other constraints
+		problem.setType(ObjectiveType.MAX);
+		List<Variable<?>> sosVars = new ArrayList<Variable<?>>();
+		sosVars.add(x);
+		sosVars.add(y);
+		problem.add(new SOS1Constraint(sosVars));
+		assertTrue(problem.getChanges().isObjectiveChanged());
+		assertTrue(problem.getChanges().isOtherChanged());
+	}
+
+	@Test
+	public void testCanonicalize() {
+		// Create variables
+		IntegerVariable x = new IntegerVariable("x");
+		IntegerVariable y = new IntegerVariable("y");
+		IntegerVariable z = new IntegerVariable("z");
+
+		// 2x + 3y*x + 4 + 1*(x - 2x + x*y + z - 1) + 0y
+		QuadraticFunction nested = new QuadraticFunction();
+		nested.addTerm(x, 1);
+		nested.addTerm(x, -2);
+		nested.addTerm(x, y, 1);
+		nested.addTerm(z, 1);
+		nested.addConstant(-1);
+		QuadraticFunction obj = new QuadraticFunction();
+		obj.addTerm(x, 2);
+		obj.addTerm(y, x, 3);
+		obj.addConstant(4);
+		obj.addNestedFunction(nested, 1);
+		obj.addTerm(y, 0);
+
+		// x + y - x <= 5
+		LinearConstraint c = new LinearConstraint(Operator.LESS_OR_EQUAL, 5);
+		c.addTerm(x, 1);
+		c.addTerm(y, 1);
+		c.addTerm(x, -1);
+
+		Problem problem = new Problem();
+		problem.setObjective(obj);
+		problem.add(c);
+		assertFalse(problem.isCanonical());
+
+		Problem transformed = new ProblemTransformer(ProblemTransformer.CANONICALIZE).transform(problem);
+		assertTrue(transformed.isCanonical());
+		// The source problem is not changed
+		assertSame(obj, problem.getObjective());
+		assertEquals(3, c.getLhsTerms().size());
+
+		// x + 4x*y + z + 3
+		Function canonical = transformed.getObjective();
+		assertTrue(canonical instanceof QuadraticFunction);
+		assertEquals(3, canonical.getTerms().size());
+		assertEquals(1, canonical.getTerms().get(0).getWeight());
+		assertSame(x, canonical.getTerms().get(0).getVar1());
+		QuadraticTerm quad = (QuadraticTerm) canonical.getTerms().get(1);
+		assertEquals(4, quad.getWeight());
+		assertSame(x, quad.getVar1());
+		assertSame(y, quad.getVar2());
+		assertSame(z, canonical.getTerms().get(2).getVar1());
+		assertEquals(1, canonical.getConstants().size());
+		assertEquals(3, canonical.getConstants().get(0).weight());
+
+		// y <= 5
+		NormalConstraint constraint = transformed.getConstraints().get(0);
+		assertEquals(c.getName(), constraint.getName());
+		assertEquals(1, constraint.getLhsTerms().size());
+		assertSame(y, constraint.getLhsTerms().get(0).getVar1());
+		assertEquals(5, constraint.getRhs());
+	}
+
+	@Test
+	public void testPresolve() {
+		// Create variables
+		IntegerVariable x = new IntegerVariable("x");
+		x.setLowerBound(0);
+		x.setUpperBound(10);
+		IntegerVariable y = new IntegerVariable("y");
+		y.setLowerBound(0);
+		y.setUpperBound(10);
+		BinaryVariable b = new BinaryVariable("b");
+		RealVariable z = new RealVariable("z");
+		z.setLowerBound(-5.0);
+
+		// Objective
+		// minimize x + y + 3b + z
+		LinearFunction lin = new LinearFunction();
+		lin.addTerm(x, 1.0);
+		lin.addTerm(y, 1.0);
+		lin.addTerm(b, 3.0);
+		lin.addTerm(z, 1.0);
+
+		// 2x <= 7 (singleton: x <= 3)
+		LinearConstraint c1 = new LinearConstraint(Operator.LESS_OR_EQUAL, 7.0);
+		c1.addTerm(x, 2.0);
+		// x + y >= 12 (tightening: 2 <= x, 9 <= y)
+		LinearConstraint c2 = new LinearConstraint(Operator.GREATER_OR_EQUAL, 12.0);
+		c2.addTerm(x, 1.0);
+		c2.addTerm(y, 1.0);
+		// 2x + 2y >= 24 (duplicate of c2)
+		LinearConstraint c3 = new LinearConstraint(Operator.GREATER_OR_EQUAL, 24.0);
+		c3.addTerm(x, 2.0);
+		c3.addTerm(y, 2.0);
+		// b = 1 (fixed variable)
+		LinearConstraint c4 = new LinearConstraint(Operator.EQUAL, 1.0);
+		c4.addTerm(b, 1.0);
+		// x + 100b <= 200 (redundant)
+		LinearConstraint c5 = new LinearConstraint(Operator.LESS_OR_EQUAL, 200.0);
+		c5.addTerm(x, 1.0);
+		c5.addTerm(b, 100.0);
+
+		Problem problem = new Problem();
+		problem.setObjective(lin);
+		problem.add(c1);
+		problem.add(c2);
+		problem.add(c3);
+		problem.add(c4);
+		problem.add(c5);
+
+		PresolveResult result = new Presolver(new SolverConfig()).presolve(problem);
+		assertTrue(result.isReduced());
+		Problem reduced = result.getReduced();
+
+		// z is fixed to its lower bound (empty column), b by c4
+		assertEquals(2, reduced.getVariableCount());
+		assertEquals(2, result.getRemovedVariableCount());
+		assertEquals(-1, result.getReducedIndex(problem.getVariableIndex(b)));
+		assertEquals(-1, result.getReducedIndex(problem.getVariableIndex(z)));
+		// Only c2 is left
+		assertEquals(1, reduced.getConstraintCount());
+		assertEquals(c2.getName(), reduced.getConstraints().get(0).getName());
+		assertEquals(2, reduced.getVariables().get("x").getLowerBound().intValue());
+		assertEquals(3, reduced.getVariables().get("x").getUpperBound().intValue());
+		assertEquals(9, reduced.getVariables().get("y").getLowerBound().intValue());
+		// The original problem is not changed
+		assertEquals(0, y.getLowerBound().intValue());
+		assertEquals(5, problem.getConstraintCount());
+
+		// Postsolve
+		double[] reducedValues = new double[2];
+		reducedValues[result.getReducedIndex(problem.getVariableIndex(x))] = 3;
+		reducedValues[result.getReducedIndex(problem.getVariableIndex(y))] = 9;
+		double[] values = result.postsolve(reducedValues);
+		assertEquals(3, values[problem.getVariableIndex(x)], 0.0001);
+		assertEquals(9, values[problem.getVariableIndex(y)], 0.0001);
+		assertEquals(1, values[problem.getVariableIndex(b)], 0.0001);
+		assertEquals(-5, values[problem.getVariableIndex(z)], 0.0001);
+	}
+
+	@Test
+	public void testPresolveDuplicateRowsInAnyOrder() {
+		// Create variables
+		IntegerVariable x = new IntegerVariable("x");
+		x.setLowerBound(0);
+		x.setUpperBound(10);
+		IntegerVariable y = new IntegerVariable("y");
+		y.setLowerBound(0);
+		y.setUpperBound(10);
+
+		// Objective
+		// maximize x + y
+		LinearFunction lin = new LinearFunction();
+		lin.addTerm(x, 1.0);
+		lin.addTerm(y, 1.0);
+
+		// x + y <= 8
+		LinearConstraint c1 = new LinearConstraint(Operator.LESS_OR_EQUAL, 8.0);
+		c1.addTerm(x, 1.0);
+		c1.addTerm(y, 1.0);
+		// 2y + 2x <= 14 (duplicate of c1 with the terms in a different order)
+		LinearConstraint c2 = new LinearConstraint(Operator.LESS_OR_EQUAL, 14.0);
+		c2.addTerm(y, 2.0);
+		c2.addTerm(x, 2.0);
+
+		Problem problem = new Problem();
+		problem.setObjective(lin, ObjectiveType.MAX);
+		problem.add(c1);
+		problem.add(c2);
+
+		PresolveResult result = new Presolver(new SolverConfig()).presolve(problem);
+		assertTrue(result.isReduced());
+		Problem reduced = result.getReduced();
+
+		// The rows are merged into a single row with the tighter right-hand side
+		assertEquals(1, reduced.getConstraintCount());
+		assertEquals(7.0, reduced.getConstraints().get(0).getRhs(), 0.0001);
+	}
+
+	@Test
+	public void testPresolveFixesAllObjectiveVariables() {
+		IntegerVariable x = new IntegerVariable("x");
+		x.setLowerBound(0);
+		x.setUpperBound(10);
+
+		// minimize 2x with x = 4
+		LinearFunction lin = new LinearFunction();
+		lin.addTerm(x, 2.0);
+		LinearConstraint c1 = new LinearConstraint(Operator.EQUAL, 4.0);
+		c1.addTerm(x, 1.0);
+
+		Problem problem = new Problem();
+		problem.setObjective(lin);
+		problem.add(c1);
+
+		// The reduced objective has no variables, which is not reported
+		PrintStream stdout = System.out;
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		PresolveResult result;
+		try {
+			System.setOut(new PrintStream(output));
+			result = new Presolver(new SolverConfig()).presolve(problem);
+		} finally {
+			System.setOut(stdout);
+		}
+		assertEquals("", output.toString());
+		assertTrue(result.getReduced().getObjective().getTerms().isEmpty());
+		assertEquals(4, result.postsolve(new double[0])[problem.getVariableIndex(x)], 0.0001);
+	}
+
+	@Test
+	public void testParallelismConfig() {
+		SolverConfig config = new SolverConfig();
+		// The solvers decide by default
+		assertEquals(0, config.getThreads());
+		assertEquals(0, config.getConcurrentMIP());
+		assertEquals(SolverConfig.ParallelMode.DEFAULT, config.getParallelMode());
+		assertEquals(0, CoreBudget.getCores());
+
+		config.setThreads(2);
+		config.setParallelMode(SolverConfig.ParallelMode.DETERMINISTIC);
+		assertEquals(2, config.getThreads());
+		assertEquals(SolverConfig.ParallelMode.DETERMINISTIC, config.getParallelMode());
+		assertThrows(IllegalArgumentException.class, () -> config.setThreads(-1));
+		assertThrows(IllegalArgumentException.class, () -> config.setConcurrentMIP(-1));
+		assertThrows(IllegalArgumentException.class, () -> CoreBudget.setCores(-1));
+	}
+
+	/**
+	 * Integer variable that only implements the abstract methods of Variable.
+	 */
+	private static class CustomIntegerVariable implements Variable<Integer> {
+
+		private Integer value = 0;
+		private Integer lowerBound = 0;
+		private Integer upperBound = 10;
+
+		@Override
+		public String getName() {
+			return "custom";
+		}
+
+		@Override
+		public Integer getValue() {
+			return value;
+		}
+
+		@Override
+		public void setValue(Integer value) {
+			this.value = value;
+		}
+
+		@Override
+		public Integer getUpperBound() {
+			return upperBound;
+		}
+
+		@Override
+		public void setUpperBound(Integer bound) {
+			this.upperBound = bound;
+		}
+
+		@Override
+		public Integer getLowerBound() {
+			return lowerBound;
+		}
+
+		@Override
+		public void setLowerBound(Integer bound) {
+			this.lowerBound = bound;
+		}
+
+		@Override
+		public VarType getType() {
+			return VarType.INTEGER;
+		}
+
+	}
+
 }
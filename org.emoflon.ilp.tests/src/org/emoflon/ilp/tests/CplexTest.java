@@ -1,13 +1,18 @@
 package org.emoflon.ilp.tests;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.emoflon.ilp.BinaryVariable;
+import org.emoflon.ilp.CoreBudget;
 import org.emoflon.ilp.IntegerVariable;
 import org.emoflon.ilp.LinearConstraint;
 import org.emoflon.ilp.LinearFunction;
@@ -863,6 +868,140 @@ public class CplexTest {
 		solver.terminate();
 	}
 
+	@Test
+	public void testNativeMultiDisjunctOrConstraint() {
+		// Objective
+		// maximize r1 + i1
+		Problem problem = new Problem();
+		problem.setType(ObjectiveType.MAX);
+
+		LinearFunction lin = new LinearFunction();
+		lin.addTerm(r1, 1.0);
+		lin.addTerm(i1, 1.0);
+
+		r1.setLowerBound(0.0);
+		r1.setUpperBound(10.0);
+		i1.setLowerBound(0);
+		i1.setUpperBound(10);
+
+		// Or
+		// r1 + i1 < 4 (epsilon 0.5)
+		LinearConstraint c1 = new LinearConstraint(Operator.LESS, 4.0, 0.5);
+		c1.addTerm(r1, 1.0);
+		c1.addTerm(i1, 1.0);
+
+		// r1 > 12 (epsilon 0.5, infeasible)
+		LinearConstraint c2 = new LinearConstraint(Operator.GREATER, 12.0, 0.5);
+		c2.addTerm(r1, 1.0);
+
+		// r1 + i1 = 3
+		LinearConstraint c3 = new LinearConstraint(Operator.EQUAL, 3.0);
+		c3.addTerm(r1, 1.0);
+		c3.addTerm(i1, 1.0);
+
+		OrConstraint or1 = new OrConstraint();
+		or1.addConstraint(c1);
+		or1.addConstraint(c2);
+		or1.addConstraint(c3);
+
+		// Model
+		problem.setObjective(lin);
+		problem.add(or1);
+
+		// Optimize
+		SolverConfig config = new SolverConfig(SolverType.CPLEX, false, 0.0, true, 42, false, 0.0, false, 0, 0, false,
+				false, false, null);
+		Solver solver = (new SolverHelper(config)).getSolver();
+		assertTrue(solver.getCapabilities().isNativeOr());
+		solver.buildILPProblem(problem);
+		SolverOutput out = solver.solve();
+
+		// The strict disjunct is shifted by its epsilon: r1 + i1 <= 3.5
+		assertEquals(SolverStatus.OPTIMAL, out.getStatus());
+		assertEquals(3.5, out.getObjVal(), 0.0001);
+
+		// minimize r1
+		Problem problem2 = new Problem();
+		LinearFunction lin2 = new LinearFunction();
+		lin2.addTerm(r1, 1.0);
+
+		// Or
+		// r1 > 6 (epsilon 0.5)
+		LinearConstraint c4 = new LinearConstraint(Operator.GREATER, 6.0, 0.5);
+		c4.addTerm(r1, 1.0);
+
+		// r1 < -2 (epsilon 0.5, infeasible)
+		LinearConstraint c5 = new LinearConstraint(Operator.LESS, -2.0, 0.5);
+		c5.addTerm(r1, 1.0);
+
+		// r1 = 8
+		LinearConstraint c6 = new LinearConstraint(Operator.EQUAL, 8.0);
+		c6.addTerm(r1, 1.0);
+
+		OrConstraint or2 = new OrConstraint();
+		or2.addConstraint(c4);
+		or2.addConstraint(c5);
+		or2.addConstraint(c6);
+
+		problem2.setObjective(lin2, ObjectiveType.MIN);
+		problem2.add(or2);
+
+		solver.buildILPProblem(problem2);
+		out = solver.solve();
+		solver.updateValuesFromSolution();
+
+		// r1 >= 6.5
+		assertEquals(SolverStatus.OPTIMAL, out.getStatus());
+		assertEquals(6.5, out.getObjVal(), 0.0001);
+		assertEquals(6.5, problem2.getVariables().get("r1").getValue().doubleValue(), 0.0001);
+
+		solver.terminate();
+	}
+
+	@Test
+	public void testNativeNotEqualMultiVariableConstraint() {
+		// Objective
+		// maximize i1 + 2*i2
+		Problem problem = new Problem();
+		problem.setType(ObjectiveType.MAX);
+
+		LinearFunction lin = new LinearFunction();
+		lin.addTerm(i1, 1.0);
+		lin.addTerm(i2, 2.0);
+
+		i1.setLowerBound(0);
+		i1.setUpperBound(2);
+		i2.setLowerBound(0);
+		i2.setUpperBound(4);
+
+		// Constraints
+		// i1 + 2*i2 != 10 (the unconstrained optimum)
+		LinearConstraint c1 = new LinearConstraint(Operator.NOT_EQUAL, 10.0);
+		c1.addTerm(i1, 1.0);
+		c1.addTerm(i2, 2.0);
+
+		// Model
+		problem.setObjective(lin);
+		problem.add(c1);
+
+		// Optimize
+		SolverConfig config = new SolverConfig(SolverType.CPLEX, false, 0.0, true, 42, false, 0.0, false, 0, 0, false,
+				false, false, null);
+		Solver solver = (new SolverHelper(config)).getSolver();
+		solver.buildILPProblem(problem);
+		SolverOutput out = solver.solve();
+		solver.updateValuesFromSolution();
+
+		// The problem formulation is not changed by the lowering
+		assertEquals(1, problem.getConstraintCount());
+		assertEquals(SolverStatus.OPTIMAL, out.getStatus());
+		assertEquals(9.0, out.getObjVal(), 0.0001);
+		assertEquals(1, problem.getVariables().get("i1").getValue());
+		assertEquals(4, problem.getVariables().get("i2").getValue());
+
+		solver.terminate();
+	}
+
 	@Test
 	public void testOperatorConversion() {
 		// Objective
@@ -905,7 +1044,8 @@ public class CplexTest {
 		solver.solve();
 		solver.updateValuesFromSolution();
 
-		assertEquals(5, problem.getConstraintCount());
+		// the source problem is not changed by the substitutions
+		assertEquals(3, problem.getConstraintCount());
 
 		assertNotEquals(i1.getUpperBound(), problem.getVariables().get("i1").getValue());
 		assertTrue(problem.getVariables().get("r1").getValue().doubleValue() > 1);
@@ -1056,4 +1196,201 @@ public class CplexTest {
 		solver.terminate();
 	}
 
+
+	@Test
+	public void testIncrementalChanges() {
+		Problem problem = createKnapsackProblem();
+		LinearConstraint c2 = (LinearConstraint) problem.getConstraintByName("c2");
+
+		// Optimize
+		SolverConfig config = createCplexConfig();
+		Solver solver = (new SolverHelper(config)).getSolver();
+		solver.buildILPProblem(problem);
+		assertEquals(6.0, solver.solve().getObjVal(), 0.0001);
+
+		// i1 <= 5
+		solver.setRhs(c2, 5.0);
+		assertEquals(8.0, solver.solve().getObjVal(), 0.0001);
+
+		// b3 <= 0
+		LinearConstraint c3 = new LinearConstraint(Operator.LESS_OR_EQUAL, 0.0);
+		c3.addTerm(b3, 1.0);
+		solver.addConstraint(c3);
+		assertEquals(7.0, solver.solve().getObjVal(), 0.0001);
+
+		assertTrue(solver.removeConstraint(c3));
+		assertFalse(solver.removeConstraint(c3));
+		assertEquals(8.0, solver.solve().getObjVal(), 0.0001);
+
+		// b3 <= 0, i1 <= 1
+		LinearConstraint c4 = new LinearConstraint(Operator.LESS_OR_EQUAL, 1.0);
+		c4.addTerm(i1, 1.0);
+		solver.addConstraint(c3);
+		solver.addConstraint(c4);
+		assertEquals(3.0, solver.solve().getObjVal(), 0.0001);
+
+		// i1 <= 2
+		assertTrue(solver.removeConstraint(c3));
+		solver.setRhs(c4, 2.0);
+		assertEquals(5.0, solver.solve().getObjVal(), 0.0001);
+		assertTrue(solver.removeConstraint(c4));
+		assertEquals(8.0, solver.solve().getObjVal(), 0.0001);
+
+		// max b1 + b2 + 2*b3
+		solver.setObjectiveCoefficient(i1, 0.0);
+		assertEquals(3.0, solver.solve().getObjVal(), 0.0001);
+
+		// b3 = 0
+		solver.setVariableBounds(b3, 0.0, 0.0);
+		assertEquals(2.0, solver.solve().getObjVal(), 0.0001);
+
+		// The problem formulation is not changed
+		assertEquals(2, problem.getConstraintCount());
+		assertEquals(3.0, c2.getRhs(), 0.0001);
+
+		// Building the unchanged problem again discards the direct changes
+		assertTrue(problem.getChanges().isEmpty());
+		solver.buildILPProblem(problem);
+		assertEquals(6.0, solver.solve().getObjVal(), 0.0001);
+
+		solver.terminate();
+	}
+
+	@Test
+	public void testRebuildWithChanges() {
+		Problem problem = createKnapsackProblem();
+		LinearConstraint c2 = (LinearConstraint) problem.getConstraintByName("c2");
+
+		// Optimize
+		SolverConfig config = createCplexConfig();
+		Solver solver = (new SolverHelper(config)).getSolver();
+		solver.buildILPProblem(problem);
+		assertEquals(6.0, solver.solve().getObjVal(), 0.0001);
+		assertTrue(problem.getChanges().isEmpty());
+
+		// Delta: i1 < 2 instead of i1 <= 3, b3 = 0
+		problem.remove(c2);
+		LinearConstraint c3 = new LinearConstraint(Operator.LESS, 2.0);
+		c3.addTerm(i1, 1.0);
+		problem.add(c3);
+		b3.setUpperBound(0);
+		solver.buildILPProblem(problem);
+		assertEquals(3.0, solver.solve().getObjVal(), 0.0001);
+
+		// The objective changed, the model is rebuilt
+		problem.setType(ObjectiveType.MIN);
+		solver.buildILPProblem(problem);
+		solver.solve();
+		solver.updateValuesFromSolution();
+		assertEquals(0, problem.getVariables().get("b1").getValue());
+		assertEquals(0, problem.getVariables().get("b3").getValue());
+
+		solver.terminate();
+	}
+
+	@Test
+	public void testStartSolution() {
+		Problem problem = createKnapsackProblem();
+
+		// A start solution can only be set for a built problem
+		SolverConfig config = createCplexConfig();
+		Solver solver = (new SolverHelper(config)).getSolver();
+		assertThrows(IllegalStateException.class, () -> solver.setStartSolution(new double[0]));
+		solver.buildILPProblem(problem);
+		assertThrows(IllegalArgumentException.class, () -> solver.setStartSolution(new double[1]));
+
+		// Start with the optimal solution
+		Map<Variable<?>, Integer> start = new HashMap<Variable<?>, Integer>();
+		start.put(b1, 1);
+		start.put(b2, 0);
+		start.put(b3, 1);
+		start.put(i1, 3);
+		solver.setStartSolution(start);
+		assertEquals(6.0, solver.solve().getObjVal(), 0.0001);
+
+		// Start with the previous solution
+		solver.updateValuesFromSolution();
+		config.setStartFromValuesEnabled(true);
+		assertEquals(6.0, solver.solve().getObjVal(), 0.0001);
+		assertEquals(3, i1.getValue().intValue());
+
+		solver.terminate();
+	}
+
+	@Test
+	public void testParallelismParameters() {
+		Problem problem = createKnapsackProblem();
+
+		// A single thread in deterministic mode
+		SolverConfig config = createCplexConfig();
+		config.setThreads(1);
+		config.setParallelMode(SolverConfig.ParallelMode.DETERMINISTIC);
+		Solver solver = (new SolverHelper(config)).getSolver();
+		solver.buildILPProblem(problem);
+		assertEquals(6.0, solver.solve().getObjVal(), 0.0001);
+		solver.terminate();
+
+		// All threads of the core budget in opportunistic mode
+		CoreBudget.setCores(2);
+		try {
+			config.setThreads(0);
+			config.setParallelMode(SolverConfig.ParallelMode.OPPORTUNISTIC);
+			Solver budgeted = (new SolverHelper(config)).getSolver();
+			budgeted.buildILPProblem(problem);
+			assertEquals(6.0, budgeted.solve().getObjVal(), 0.0001);
+			budgeted.terminate();
+		} finally {
+			CoreBudget.setCores(0);
+		}
+	}
+
+	/**
+	 * Creates the knapsack problem used by several tests: max b1 + b2 + 2*b3 + i1
+	 * with the constraints c1: b1 + 2*b2 + 3*b3 <= 4 and c2: i1 <= 3. The optimum
+	 * is 6 with b1 = 1, b2 = 0, b3 = 1 and i1 = 3.
+	 * 
+	 * @return Knapsack problem.
+	 */
+	private Problem createKnapsackProblem() {
+		// Objective
+		// max b1 + b2 + 2*b3 + i1
+		Problem problem = new Problem();
+		problem.setType(ObjectiveType.MAX);
+
+		LinearFunction lin = new LinearFunction();
+		lin.addTerm(b1, 1.0);
+		lin.addTerm(b2, 1.0);
+		lin.addTerm(b3, 2.0);
+		lin.addTerm(i1, 1.0);
+
+		// Constraints
+		// b1 + 2*b2 + 3*b3 <= 4
+		LinearConstraint c1 = new LinearConstraint(Operator.LESS_OR_EQUAL, 4.0);
+		c1.setName("c1");
+		c1.addTerm(b1, 1.0);
+		c1.addTerm(b2, 2.0);
+		c1.addTerm(b3, 3.0);
+
+		// i1 <= 3
+		LinearConstraint c2 = new LinearConstraint(Operator.LESS_OR_EQUAL, 3.0);
+		c2.setName("c2");
+		c2.addTerm(i1, 1.0);
+
+		// Model
+		problem.setObjective(lin);
+		problem.add(c1);
+		problem.add(c2);
+		return problem;
+	}
+
+	/**
+	 * Creates the CPLEX configuration used by several tests.
+	 * 
+	 * @return Configuration with a fixed random seed.
+	 */
+	private static SolverConfig createCplexConfig() {
+		return new SolverConfig(SolverType.CPLEX, false, 0.0, true, 42, false, 0.0, false, 0, 0, false, false, false,
+				null);
+	}
+
 }
@@ -1,14 +1,19 @@
 package org.emoflon.ilp.tests;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.emoflon.ilp.BinaryVariable;
+import org.emoflon.ilp.GlpkSolver;
 import org.emoflon.ilp.IntegerVariable;
 import org.emoflon.ilp.LinearConstraint;
 import org.emoflon.ilp.LinearFunction;
@@ -17,6 +22,7 @@ import org.emoflon.ilp.ObjectiveType;
 import org.emoflon.ilp.Operator;
 import org.emoflon.ilp.OrConstraint;
 import org.emoflon.ilp.OrVarsConstraint;
+import org.emoflon.ilp.PortfolioSolver;
 import org.emoflon.ilp.Problem;
 import org.emoflon.ilp.QuadraticConstraint;
 import org.emoflon.ilp.QuadraticFunction;
@@ -664,7 +670,8 @@ public class GlpkTest {
 		System.out.println(out.toString());
 		solver.updateValuesFromSolution();
 
-		assertEquals(10, problem.getConstraintCount());
+		// the source problem is not changed by the substitutions
+		assertEquals(3, problem.getConstraintCount());
 
 		assertNotEquals(5, problem.getVariables().get("i1").getValue());
 		assertTrue(problem.getVariables().get("r1").getValue().doubleValue() > 1);
@@ -826,4 +833,559 @@ public class GlpkTest {
 		solver.terminate();
 	}
 
+	@Test
+	public void testNativeMemoryReleased() {
+		System.out.println("--------- testNativeMemoryReleased() ---------");
+		// Objective
+		Problem problem = new Problem();
+		problem.setType(ObjectiveType.MAX);
+
+		LinearFunction lin = new LinearFunction();
+		lin.addTerm(b1, 1.0);
+		lin.addTerm(i1, 1.0);
+
+		// Constraints
+		// b1 + i1 <= 5
+		LinearConstraint c1 = new LinearConstraint(Operator.LESS_OR_EQUAL, 5.0);
+		c1.addTerm(b1, 1.0);
+		c1.addTerm(i1, 1.0);
+
+		// Model
+		problem.setObjective(lin);
+		problem.add(c1);
+
+		// Optimize
+		SolverConfig config = new SolverConfig(SolverType.GLPK, false, 0.0, true, 42, false, 0.0, false, 0, 0, true,
+				false, false, null);
+		GlpkSolver solver = (GlpkSolver) (new SolverHelper(config)).getSolver();
+		solver.buildILPProblem(problem);
+		SolverOutput out = solver.solve();
+
+		assertEquals(SolverStatus.OPTIMAL, out.getStatus());
+		assertTrue(solver.getOutstandingNativeBytes() > 0);
+
+		solver.terminate();
+
+		assertEquals(0, solver.getOutstandingNativeBytes());
+	}
+
+	@Test
+	public void testSolutionValues() {
+		System.out.println("--------- testSolutionValues() ---------");
+		// Objective
+		// max b1 + i1 + r1
+		Problem problem = new Problem();
+		problem.setType(ObjectiveType.MAX);
+
+		LinearFunction lin = new LinearFunction();
+		lin.addTerm(b1, 1.0);
+		lin.addTerm(i1, 1.0);
+		lin.addTerm(r1, 1.0);
+
+		// Constraints
+		// i1 <= 3
+		LinearConstraint c1 = new LinearConstraint(Operator.LESS_OR_EQUAL, 3.0);
+		c1.addTerm(i1, 1.0);
+
+		// r1 <= 2.5
+		LinearConstraint c2 = new LinearConstraint(Operator.LESS_OR_EQUAL, 2.5);
+		c2.addTerm(r1, 1.0);
+
+		// Model
+		problem.setObjective(lin);
+		problem.add(c1);
+		problem.add(c2);
+
+		// Optimize
+		SolverConfig config = new SolverConfig(SolverType.GLPK, false, 0.0, true, 42, false, 0.0, false, 0, 0, true,
+				false, false, null);
+		Solver solver = (new SolverHelper(config)).getSolver();
+		solver.buildILPProblem(problem);
+		SolverOutput out = solver.solve();
+		System.out.println(out.toString());
+
+		double[] values = solver.getSolutionValues();
+		assertEquals(problem.getVariableCount(), values.length);
+		assertEquals(1.0, values[problem.getVariableIndex(b1)]);
+		assertEquals(3.0, values[problem.getVariableIndex(i1)]);
+		assertEquals(2.5, values[problem.getVariableIndex(r1)]);
+
+		// The variables are only changed by updateValuesFromSolution()
+		assertEquals(0, problem.getVariables().get("i1").getValue());
+		solver.updateValuesFromSolution();
+		assertEquals(3, problem.getVariables().get("i1").getValue());
+
+		solver.terminate();
+	}
+
+	@Test
+	public void testJavaPresolve() {
+		System.out.println("--------- testJavaPresolve() ---------");
+		Problem problem = createKnapsackProblem();
+
+		// b1 + b2 >= 1
+		LinearConstraint c3 = new LinearConstraint(Operator.GREATER_OR_EQUAL, 1.0);
+		c3.addTerm(b1, 1.0);
+		c3.addTerm(b2, 1.0);
+		problem.add(c3);
+
+		// Optimize
+		SolverConfig config = createGlpkConfig();
+		config.setJavaPresolveEnabled(true);
+		Solver solver = (new SolverHelper(config)).getSolver();
+		solver.buildILPProblem(problem);
+		SolverOutput out = solver.solve();
+		System.out.println(out.toString());
+		solver.updateValuesFromSolution();
+
+		// i1 is removed by presolve and restored by postsolve
+		assertEquals(6.0, out.getObjVal(), 0.0001);
+		assertEquals(3, problem.getVariables().get("i1").getValue());
+		assertEquals(1, problem.getVariables().get("b1").getValue());
+		assertEquals(1, problem.getVariables().get("b3").getValue());
+		assertEquals(problem.getVariableCount(), solver.getSolutionValues().length);
+
+		solver.terminate();
+	}
+
+	@Test
+	public void testIncrementalChanges() {
+		System.out.println("--------- testIncrementalChanges() ---------");
+		Problem problem = createKnapsackProblem();
+		LinearConstraint c2 = (LinearConstraint) problem.getConstraintByName("c2");
+
+		// Optimize
+		SolverConfig config = createGlpkConfig();
+		Solver solver = (new SolverHelper(config)).getSolver();
+		solver.buildILPProblem(problem);
+		assertEquals(6.0, solver.solve().getObjVal(), 0.0001);
+
+		// i1 <= 5
+		solver.setRhs(c2, 5.0);
+		assertEquals(8.0, solver.solve().getObjVal(), 0.0001);
+
+		// b3 <= 0
+		LinearConstraint c3 = new LinearConstraint(Operator.LESS_OR_EQUAL, 0.0);
+		c3.addTerm(b3, 1.0);
+		solver.addConstraint(c3);
+		assertEquals(7.0, solver.solve().getObjVal(), 0.0001);
+
+		assertTrue(solver.removeConstraint(c3));
+		assertFalse(solver.removeConstraint(c3));
+		assertEquals(8.0, solver.solve().getObjVal(), 0.0001);
+
+		// b3 <= 0, i1 <= 1
+		LinearConstraint c4 = new LinearConstraint(Operator.LESS_OR_EQUAL, 1.0);
+		c4.addTerm(i1, 1.0);
+		solver.addConstraint(c3);
+		solver.addConstraint(c4);
+		assertEquals(3.0, solver.solve().getObjVal(), 0.0001);
+
+		// Removing a row in the middle moves up the following rows: i1 <= 2
+		assertTrue(solver.removeConstraint(c3));
+		solver.setRhs(c4, 2.0);
+		assertEquals(5.0, solver.solve().getObjVal(), 0.0001);
+		assertTrue(solver.removeConstraint(c4));
+		assertEquals(8.0, solver.solve().getObjVal(), 0.0001);
+
+		// max b1 + b2 + 2*b3
+		solver.setObjectiveCoefficient(i1, 0.0);
+		assertEquals(3.0, solver.solve().getObjVal(), 0.0001);
+
+		// b3 = 0
+		solver.setVariableBounds(b3, 0.0, 0.0);
+		assertEquals(2.0, solver.solve().getObjVal(), 0.0001);
+
+		// The problem formulation is not changed
+		assertEquals(2, problem.getConstraintCount());
+		assertEquals(3.0, c2.getRhs(), 0.0001);
+
+		// Building the unchanged problem again discards the direct changes
+		assertTrue(problem.getChanges().isEmpty());
+		solver.buildILPProblem(problem);
+		assertEquals(6.0, solver.solve().getObjVal(), 0.0001);
+
+		solver.terminate();
+	}
+
+	@Test
+	public void testRebuildWithChanges() {
+		System.out.println("--------- testRebuildWithChanges() ---------");
+		Problem problem = createKnapsackProblem();
+		LinearConstraint c2 = (LinearConstraint) problem.getConstraintByName("c2");
+
+		// Optimize
+		SolverConfig config = createGlpkConfig();
+		Solver solver = (new SolverHelper(config)).getSolver();
+		solver.buildILPProblem(problem);
+		assertEquals(6.0, solver.solve().getObjVal(), 0.0001);
+		assertTrue(problem.getChanges().isEmpty());
+
+		// Delta: i1 < 2 instead of i1 <= 3, b3 = 0
+		problem.remove(c2);
+		LinearConstraint c3 = new LinearConstraint(Operator.LESS, 2.0);
+		c3.addTerm(i1, 1.0);
+		problem.add(c3);
+		b3.setUpperBound(0);
+		solver.buildILPProblem(problem);
+		assertEquals(3.0, solver.solve().getObjVal(), 0.0001);
+
+		// The objective changed, the model is rebuilt
+		problem.setType(ObjectiveType.MIN);
+		solver.buildILPProblem(problem);
+		solver.solve();
+		solver.updateValuesFromSolution();
+		assertEquals(0, problem.getVariables().get("b1").getValue());
+		assertEquals(0, problem.getVariables().get("b3").getValue());
+
+		solver.terminate();
+	}
+
+	@Test
+	public void testBoundChangesWithSOS1AndOr() {
+		System.out.println("--------- testBoundChangesWithSOS1AndOr() ---------");
+		// Objective
+		// max i1 + i2
+		Problem problem = new Problem();
+		problem.setType(ObjectiveType.MAX);
+
+		LinearFunction lin = new LinearFunction();
+		lin.addTerm(i1, 1.0);
+		lin.addTerm(i2, 1.0);
+
+		i1.setLowerBound(0);
+		i1.setUpperBound(3);
+		i2.setLowerBound(0);
+		i2.setUpperBound(2);
+
+		// SOS1(i1, i2), the big-M values are taken from the bounds
+		List<Variable<?>> sosVars = new ArrayList<Variable<?>>();
+		sosVars.add(i1);
+		sosVars.add(i2);
+		SOS1Constraint sos1 = new SOS1Constraint(sosVars);
+
+		// Model
+		problem.setObjective(lin);
+		problem.add(sos1);
+
+		// Optimize
+		SolverConfig config = createGlpkConfig();
+		Solver solver = (new SolverHelper(config)).getSolver();
+		solver.buildILPProblem(problem);
+		assertEquals(3.0, solver.solve().getObjVal(), 0.0001);
+
+		// Widening the bounds of an SOS1 variable rebuilds the model
+		i2.setUpperBound(5);
+		solver.buildILPProblem(problem);
+		assertEquals(5.0, solver.solve().getObjVal(), 0.0001);
+
+		// Tightening is applied to the model
+		i2.setUpperBound(4);
+		solver.buildILPProblem(problem);
+		assertEquals(4.0, solver.solve().getObjVal(), 0.0001);
+		assertThrows(UnsupportedOperationException.class, () -> solver.setVariableBounds(i2, 0.0, 6.0));
+		solver.setVariableBounds(i2, 0.0, 1.0);
+		assertEquals(3.0, solver.solve().getObjVal(), 0.0001);
+
+		// Or(i3 <= 2, i3 >= 8), the auxiliary variables are bounded by the activity
+		Problem orProblem = new Problem();
+		LinearFunction lin2 = new LinearFunction();
+		lin2.addTerm(i3, 1.0);
+
+		i3.setLowerBound(0);
+		i3.setUpperBound(5);
+
+		LinearConstraint c1 = new LinearConstraint(Operator.LESS_OR_EQUAL, 2.0);
+		c1.addTerm(i3, 1.0);
+		LinearConstraint c2 = new LinearConstraint(Operator.GREATER_OR_EQUAL, 8.0);
+		c2.addTerm(i3, 1.0);
+		OrConstraint or = new OrConstraint();
+		or.addConstraint(c1);
+		or.addConstraint(c2);
+
+		orProblem.setObjective(lin2, ObjectiveType.MAX);
+		orProblem.add(or);
+
+		solver.buildILPProblem(orProblem);
+		assertEquals(2.0, solver.solve().getObjVal(), 0.0001);
+
+		// i3 >= 8 becomes feasible
+		i3.setUpperBound(10);
+		solver.buildILPProblem(orProblem);
+		assertEquals(10.0, solver.solve().getObjVal(), 0.0001);
+
+		solver.terminate();
+	}
+
+	@Test
+	public void testStartSolution() {
+		System.out.println("--------- testStartSolution() ---------");
+		Problem problem = createKnapsackProblem();
+
+		// A start solution can only be set for a built problem
+		SolverConfig config = createGlpkConfig();
+		Solver solver = (new SolverHelper(config)).getSolver();
+		assertThrows(IllegalStateException.class, () -> solver.setStartSolution(new double[0]));
+		solver.buildILPProblem(problem);
+		assertThrows(IllegalArgumentException.class, () -> solver.setStartSolution(new double[1]));
+
+		// Start with the optimal solution
+		Map<Variable<?>, Integer> start = new HashMap<Variable<?>, Integer>();
+		start.put(b1, 1);
+		start.put(b2, 0);
+		start.put(b3, 1);
+		start.put(i1, 3);
+		solver.setStartSolution(start);
+		assertEquals(6.0, solver.solve().getObjVal(), 0.0001);
+
+		// Start with the previous solution
+		solver.updateValuesFromSolution();
+		config.setStartFromValuesEnabled(true);
+		assertEquals(6.0, solver.solve().getObjVal(), 0.0001);
+		assertEquals(3, i1.getValue().intValue());
+
+		solver.terminate();
+	}
+
+	@Test
+	public void testSolveAsync() {
+		System.out.println("--------- testSolveAsync() ---------");
+		Problem problem = createKnapsackProblem();
+
+		// Optimize
+		SolverConfig config = createGlpkConfig();
+		Solver solver = (new SolverHelper(config)).getSolver();
+		solver.buildILPProblem(problem);
+		SolverOutput out = solver.solveAsync().join();
+		assertEquals(SolverStatus.OPTIMAL, out.getStatus());
+		assertEquals(6.0, out.getObjVal(), 0.0001);
+
+		// Cancelling without a running solve has no effect
+		solver.cancel();
+		assertEquals(SolverStatus.OPTIMAL, solver.solve().getStatus());
+
+		solver.terminate();
+	}
+
+	@Test
+	public void testCancelSubmittedSolve() {
+		System.out.println("--------- testCancelSubmittedSolve() ---------");
+		Problem problem = createKnapsackProblem();
+
+		SolverConfig config = createGlpkConfig();
+		Solver solver = (new SolverHelper(config)).getSolver();
+		solver.buildILPProblem(problem);
+
+		// The executor holds the solve back until it was cancelled
+		List<Runnable> submitted = new ArrayList<Runnable>();
+		CompletableFuture<SolverOutput> future = solver.solveAsync(submitted::add);
+		assertEquals(1, submitted.size());
+		solver.cancel();
+		new Thread(submitted.get(0)).start();
+		assertEquals(SolverStatus.INTERRUPTED, future.join().getStatus());
+
+		// The cancel request does not affect the next solve
+		assertEquals(SolverStatus.OPTIMAL, solver.solve().getStatus());
+
+		solver.terminate();
+	}
+
+	@Test
+	public void testPortfolio() {
+		System.out.println("--------- testPortfolio() ---------");
+		Problem problem = createKnapsackProblem();
+
+		// Optimize with two GLPK legs, each on its own thread
+		SolverConfig config1 = createGlpkConfig();
+		SolverConfig config2 = new SolverConfig(SolverType.GLPK, false, 0.0, true, 7, true, 0.0001, false, 0, 0, true,
+				false, false, null);
+		PortfolioSolver solver = new PortfolioSolver(List.of(config1, config2));
+		solver.buildILPProblem(problem);
+		SolverOutput out = solver.solve();
+		assertEquals(SolverStatus.OPTIMAL, out.getStatus());
+		assertEquals(6.0, out.getObjVal(), 0.0001);
+		assertTrue(solver.getWinner() == config1 || solver.getWinner() == config2);
+
+		solver.updateValuesFromSolution();
+		assertEquals(3, i1.getValue().intValue());
+
+		solver.terminate();
+	}
+
+	@Test
+	public void testPortfolioWithFailingLeg() {
+		System.out.println("--------- testPortfolioWithFailingLeg() ---------");
+		Problem problem = createKnapsackProblem();
+
+		// glp_intopt rejects the tolerance, which terminates the worker process
+		SolverConfig failing = createGlpkConfig();
+		failing.setToleranceEnabled(true);
+		failing.setTolerance(-1.0);
+		failing.setGlpkWorkerProcesses(1);
+
+		// The result of the other leg is returned
+		PortfolioSolver solver = new PortfolioSolver(List.of(createGlpkConfig(), failing));
+		solver.buildILPProblem(problem);
+		SolverOutput out = solver.solve();
+		assertEquals(SolverStatus.OPTIMAL, out.getStatus());
+		assertEquals(6.0, out.getObjVal(), 0.0001);
+		assertTrue(solver.getWinner() != failing);
+		solver.terminate();
+
+		// Without another leg, the failure is thrown
+		PortfolioSolver single = new PortfolioSolver(List.of(failing));
+		single.buildILPProblem(problem);
+		assertThrows(RuntimeException.class, () -> single.solve());
+		single.terminate();
+	}
+
+	@Test
+	public void testPortfolioWithChanges() {
+		System.out.println("--------- testPortfolioWithChanges() ---------");
+		Problem problem = createKnapsackProblem();
+
+		SolverConfig config1 = createGlpkConfig();
+		SolverConfig config2 = createGlpkConfig();
+		PortfolioSolver solver = new PortfolioSolver(List.of(config1, config2));
+		solver.buildILPProblem(problem);
+		assertEquals(6.0, solver.solve().getObjVal(), 0.0001);
+
+		// Delta: b3 = 0, every leg applies it to its model
+		b3.setUpperBound(0);
+		solver.buildILPProblem(problem);
+		assertTrue(problem.getChanges().isEmpty());
+		assertEquals(5.0, solver.solve().getObjVal(), 0.0001);
+
+		// Changed in the models of the legs only, the next build rebuilds them
+		solver.setObjectiveCoefficient(i1, 0.0);
+		assertEquals(2.0, solver.solve().getObjVal(), 0.0001);
+		b2.setUpperBound(0);
+		solver.buildILPProblem(problem);
+		assertEquals(4.0, solver.solve().getObjVal(), 0.0001);
+
+		solver.terminate();
+	}
+
+	@Test
+	public void testConcurrentSolvers() {
+		System.out.println("--------- testConcurrentSolvers() ---------");
+		Problem problem = createKnapsackProblem();
+
+		// Creating further solvers must not affect the models of the others
+		SolverConfig config = createGlpkConfig();
+		List<Solver> solvers = new ArrayList<Solver>();
+		for (int i = 0; i < 8; i++) {
+			Solver solver = (new SolverHelper(config)).getSolver();
+			solver.buildILPProblem(problem);
+			solvers.add(solver);
+		}
+
+		List<CompletableFuture<SolverOutput>> outputs = new ArrayList<CompletableFuture<SolverOutput>>();
+		for (Solver solver : solvers) {
+			outputs.add(solver.solveAsync());
+		}
+		for (CompletableFuture<SolverOutput> output : outputs) {
+			assertEquals(SolverStatus.OPTIMAL, output.join().getStatus());
+		}
+
+		for (Solver solver : solvers) {
+			solver.terminate();
+		}
+	}
+
+	@Test
+	public void testWorkerProcesses() {
+		System.out.println("--------- testWorkerProcesses() ---------");
+		Problem problem = createKnapsackProblem();
+
+		// Optimize in a worker process
+		SolverConfig config = createGlpkConfig();
+		config.setGlpkWorkerProcesses(2);
+		Solver solver = (new SolverHelper(config)).getSolver();
+		solver.buildILPProblem(problem);
+		SolverOutput out = solver.solve();
+		assertEquals(SolverStatus.OPTIMAL, out.getStatus());
+		assertEquals(6.0, out.getObjVal(), 0.0001);
+
+		solver.updateValuesFromSolution();
+		assertEquals(1, b1.getValue().intValue());
+		assertEquals(0, b2.getValue().intValue());
+		assertEquals(1, b3.getValue().intValue());
+		assertEquals(3, i1.getValue().intValue());
+
+		// The output of GLPK must not be mixed into the results sent over stdout
+		config.setDebugOutputEnabled(true);
+		out = solver.solve();
+		assertEquals(SolverStatus.OPTIMAL, out.getStatus());
+		assertEquals(6.0, out.getObjVal(), 0.0001);
+		config.setDebugOutputEnabled(false);
+
+		// More concurrent solves than workers, the solves wait for a worker
+		List<Solver> solvers = new ArrayList<Solver>();
+		List<CompletableFuture<SolverOutput>> outputs = new ArrayList<CompletableFuture<SolverOutput>>();
+		for (int i = 0; i < 4; i++) {
+			Solver concurrent = (new SolverHelper(config)).getSolver();
+			concurrent.buildILPProblem(problem);
+			solvers.add(concurrent);
+			outputs.add(concurrent.solveAsync());
+		}
+		for (CompletableFuture<SolverOutput> output : outputs) {
+			assertEquals(6.0, output.join().getObjVal(), 0.0001);
+		}
+		for (Solver concurrent : solvers) {
+			concurrent.terminate();
+		}
+
+		solver.terminate();
+	}
+
+	/**
+	 * Creates the knapsack problem used by several tests: max b1 + b2 + 2*b3 + i1
+	 * with the constraints c1: b1 + 2*b2 + 3*b3 <= 4 and c2: i1 <= 3. The optimum
+	 * is 6 with b1 = 1, b2 = 0, b3 = 1 and i1 = 3.
+	 * 
+	 * @return Knapsack problem.
+	 */
+	private Problem createKnapsackProblem() {
+		// Objective
+		// max b1 + b2 + 2*b3 + i1
+		Problem problem = new Problem();
+		problem.setType(ObjectiveType.MAX);
+
+		LinearFunction lin = new LinearFunction();
+		lin.addTerm(b1, 1.0);
+		lin.addTerm(b2, 1.0);
+		lin.addTerm(b3, 2.0);
+		lin.addTerm(i1, 1.0);
+
+		// Constraints
+		// b1 + 2*b2 + 3*b3 <= 4
+		LinearConstraint c1 = new LinearConstraint(Operator.LESS_OR_EQUAL, 4.0);
+		c1.setName("c1");
+		c1.addTerm(b1, 1.0);
+		c1.addTerm(b2, 2.0);
+		c1.addTerm(b3, 3.0);
+
+		// i1 <= 3
+		LinearConstraint c2 = new LinearConstraint(Operator.LESS_OR_EQUAL, 3.0);
+		c2.setName("c2");
+		c2.addTerm(i1, 1.0);
+
+		// Model
+		problem.setObjective(lin);
+		problem.add(c1);
+		problem.add(c2);
+		return problem;
+	}
+
+	/**
+	 * Creates the GLPK configuration used by several tests.
+	 * 
+	 * @return Configuration with presolve and a fixed random seed.
+	 */
+	private static SolverConfig createGlpkConfig() {
+		return new SolverConfig(SolverType.GLPK, false, 0.0, true, 42, false, 0.0, false, 0, 0, true, false, false,
+				null);
+	}
+
 }
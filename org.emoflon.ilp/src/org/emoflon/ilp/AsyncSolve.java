@@ -0,0 +1,78 @@
+package org.emoflon.ilp;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * This class runs the solve of a solver asynchronously. <br>
+ * <br>
+ *
+ * The native solvers block the solving thread, so the default executor uses
+ * its own daemon threads instead of the common fork join pool.
+ *
+ * @see Solver#solveAsync(Executor)
+ */
+final class AsyncSolve {
+
+	private static final AtomicInteger threadCount = new AtomicInteger();
+
+	private static ExecutorService defaultExecutor;
+
+	private AsyncSolve() {
+	}
+
+	/**
+	 * Returns the shared default executor, which starts new threads as needed.
+	 *
+	 * @return Default executor for asynchronous solves.
+	 */
+	static synchronized Executor defaultExecutor() {
+		if (defaultExecutor == null) {
+			defaultExecutor = Executors.newCachedThreadPool(runnable -> {
+				final Thread thread = new Thread(runnable, "emoflon-ilp-solve-" + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return defaultExecutor;
+	}
+
+	/**
+	 * Runs the solve of the given solver on the given executor. The solve is
+	 * cancelled, if the returned future completes exceptionally before the solve
+	 * finished. <br>
+	 * <br>
+	 *
+	 * The solver has to reset its cancel request before calling this method, the
+	 * given solve must not reset it. Otherwise, a cancel() between the submission
+	 * and the start of the solve would be lost.
+	 *
+	 * @param solver   Solver with a built problem, to be cancelled.
+	 * @param solve    Solve of the solver that keeps a pending cancel request.
+	 * @param executor Executor to run the solve.
+	 * @return Future of the solver output.
+	 */
+	static CompletableFuture<SolverOutput> solveAsync(final Solver solver, final Supplier<SolverOutput> solve,
+			final Executor executor) {
+		final AtomicBoolean running = new AtomicBoolean(true);
+		final CompletableFuture<SolverOutput> future = CompletableFuture.supplyAsync(() -> {
+			try {
+				return solve.get();
+			} finally {
+				running.set(false);
+			}
+		}, executor);
+		future.whenComplete((output, e) -> {
+			if (e != null && running.get()) {
+				solver.cancel();
+			}
+		});
+		return future;
+	}
+
+}
@@ -4,7 +4,7 @@ package org.emoflon.ilp;
  * This class represents binary variables.
  *
  */
-public class BinaryVariable implements Variable<Integer> {
+public class BinaryVariable extends IndexedVariable<Integer> {
 
 	final private String name;
 	private boolean value;
@@ -39,6 +39,16 @@ public class BinaryVariable implements Variable<Integer> {
 		this.value = (value != 0) ? true : false;
 	}
 
+	@Override
+	public double valueAsDouble() {
+		return (value) ? 1.0 : 0.0;
+	}
+
+	@Override
+	public void setValueDouble(double value) {
+		this.value = Math.round(value) >= 1;
+	}
+
 	@Override
 	public Integer getUpperBound() {
 		return upperBound;
@@ -49,6 +59,11 @@ public class BinaryVariable implements Variable<Integer> {
 		this.upperBound = bound;
 	}
 
+	@Override
+	public double upperBoundAsDouble() {
+		return upperBound;
+	}
+
 	@Override
 	public Integer getLowerBound() {
 		return lowerBound;
@@ -59,6 +74,11 @@ public class BinaryVariable implements Variable<Integer> {
 		this.lowerBound = bound;
 	}
 
+	@Override
+	public double lowerBoundAsDouble() {
+		return lowerBound;
+	}
+
 	@Override
 	public VarType getType() {
 		return VarType.BINARY;
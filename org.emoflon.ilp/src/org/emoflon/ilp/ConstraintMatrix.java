@@ -0,0 +1,221 @@
+package org.emoflon.ilp;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * This class represents the linear constraints of a problem in a compressed
+ * sparse row (CSR) layout. Every row corresponds to one linear constraint and
+ * every column to the dense index of a variable in the problem. <br>
+ * <br>
+ *
+ * The non-zero entries of row r are stored at the positions rowStarts[r] (incl.)
+ * to rowStarts[r+1] (excl.) of the columns and values arrays. Duplicate
+ * variables within a row are merged into a single entry and the entries of a
+ * row are sorted by their column, independent of the order of the terms.
+ *
+ * @see Problem#getConstraintMatrix()
+ */
+public class ConstraintMatrix {
+
+	private final int columnCount;
+	private final int[] rowStarts;
+	private final int[] columns;
+	private final double[] values;
+	private final double[] rhs;
+	private final Operator[] operators;
+	private final LinearConstraint[] constraints;
+
+	private ConstraintMatrix(int columnCount, int[] rowStarts, int[] columns, double[] values, double[] rhs,
+			Operator[] operators, LinearConstraint[] constraints) {
+		this.columnCount = columnCount;
+		this.rowStarts = rowStarts;
+		this.columns = columns;
+		this.values = values;
+		this.rhs = rhs;
+		this.operators = operators;
+		this.constraints = constraints;
+	}
+
+	/**
+	 * Builds the constraint matrix for the linear constraints of the given
+	 * collection. Constraints of any other type are skipped.
+	 *
+	 * @param normalConstraints Constraints to be translated into rows.
+	 * @param problem           Problem that provides the variable indices.
+	 * @return Constraint matrix of all linear constraints.
+	 */
+	static ConstraintMatrix build(Collection<NormalConstraint> normalConstraints, Problem problem) {
+		int rowCount = 0;
+		int termCount = 0;
+		for (NormalConstraint constraint : normalConstraints) {
+			if (constraint instanceof LinearConstraint) {
+				rowCount++;
+				termCount += constraint.getLhsTerms().size();
+			}
+		}
+
+		final int columnCount = problem.getVariableCount();
+		final int[] rowStarts = new int[rowCount + 1];
+		final int[] columns = new int[termCount];
+		final double[] values = new double[termCount];
+		final double[] rhs = new double[rowCount];
+		final Operator[] operators = new Operator[rowCount];
+		final LinearConstraint[] rows = new LinearConstraint[rowCount];
+
+		// position of a column in the current row or -1, if the column was not seen in
+		// this row, yet
+		final int[] positions = new int[columnCount];
+		Arrays.fill(positions, -1);
+
+		int row = 0;
+		int nz = 0;
+		for (NormalConstraint constraint : normalConstraints) {
+			if (!(constraint instanceof LinearConstraint)) {
+				continue;
+			}
+			final int start = nz;
+			for (Term term : constraint.getLhsTerms()) {
+				final int col = problem.getVariableIndex(term.getVar1());
+				if (positions[col] >= start) {
+					values[positions[col]] += term.getWeight();
+				} else {
+					positions[col] = nz;
+					columns[nz] = col;
+					values[nz] = term.getWeight();
+					nz++;
+				}
+			}
+			sortRow(columns, values, start, nz);
+			rowStarts[row] = start;
+			rhs[row] = constraint.getRhs();
+			operators[row] = constraint.getOp();
+			rows[row] = (LinearConstraint) constraint;
+			row++;
+		}
+		rowStarts[rowCount] = nz;
+
+		return new ConstraintMatrix(columnCount, rowStarts, Arrays.copyOf(columns, nz), Arrays.copyOf(values, nz), rhs,
+				operators, rows);
+	}
+
+	/**
+	 * Sorts the entries from start (incl.) to end (excl.) by their column.
+	 *
+	 * @param columns Column indices of the entries.
+	 * @param values  Coefficients of the entries.
+	 * @param start   Position of the first entry of the row.
+	 * @param end     Position after the last entry of the row.
+	 */
+	private static void sortRow(int[] columns, double[] values, int start, int end) {
+		boolean sorted = true;
+		for (int k = start + 1; k < end && sorted; k++) {
+			sorted = columns[k - 1] < columns[k];
+		}
+		if (sorted) {
+			return;
+		}
+
+		// column in the upper half, position within the row in the lower half
+		final long[] keys = new long[end - start];
+		for (int k = start; k < end; k++) {
+			keys[k - start] = ((long) columns[k] << 32) | (k - start);
+		}
+		Arrays.sort(keys);
+		final double[] rowValues = Arrays.copyOfRange(values, start, end);
+		for (int k = start; k < end; k++) {
+			columns[k] = (int) (keys[k - start] >>> 32);
+			values[k] = rowValues[(int) keys[k - start]];
+		}
+	}
+
+	/**
+	 * Returns the number of rows (linear constraints) of this matrix.
+	 *
+	 * @return Number of rows.
+	 */
+	public int getRowCount() {
+		return rhs.length;
+	}
+
+	/**
+	 * Returns the number of columns (variables) of this matrix.
+	 *
+	 * @return Number of columns.
+	 */
+	public int getColumnCount() {
+		return columnCount;
+	}
+
+	/**
+	 * Returns the number of non-zero entries of this matrix.
+	 *
+	 * @return Number of non-zero entries.
+	 */
+	public int getNonZeroCount() {
+		return columns.length;
+	}
+
+	/**
+	 * Returns the start offsets of all rows. The array has one more entry than
+	 * there are rows, the last entry is the number of non-zero entries. <br>
+	 * Important: The array is not copied and must not be modified!
+	 *
+	 * @return Start offsets of the rows.
+	 */
+	public int[] getRowStarts() {
+		return rowStarts;
+	}
+
+	/**
+	 * Returns the column indices of all non-zero entries. <br>
+	 * Important: The array is not copied and must not be modified!
+	 *
+	 * @return Column indices of the non-zero entries.
+	 * @see Problem#getVariable(int)
+	 */
+	public int[] getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Returns the coefficients of all non-zero entries. <br>
+	 * Important: The array is not copied and must not be modified!
+	 *
+	 * @return Coefficients of the non-zero entries.
+	 */
+	public double[] getValues() {
+		return values;
+	}
+
+	/**
+	 * Returns the right-hand side of the given row.
+	 *
+	 * @param row Index of the row.
+	 * @return Right-hand side of the row.
+	 */
+	public double getRhs(int row) {
+		return rhs[row];
+	}
+
+	/**
+	 * Returns the operator of the given row.
+	 *
+	 * @param row Index of the row.
+	 * @return Operator of the row.
+	 */
+	public Operator getOperator(int row) {
+		return operators[row];
+	}
+
+	/**
+	 * Returns the linear constraint the given row was created from.
+	 *
+	 * @param row Index of the row.
+	 * @return Linear constraint of the row.
+	 */
+	public LinearConstraint getConstraint(int row) {
+		return constraints[row];
+	}
+
+}
@@ -0,0 +1,117 @@
+package org.emoflon.ilp;
+
+/**
+ * This class represents the global budget of cores shared by all solves that
+ * run concurrently in the JVM. <br>
+ * <br>
+ *
+ * If a budget is set, every solve leases threads from it for its duration: as
+ * many as configured in its SolverConfig (all cores of the budget, if not
+ * configured), but at most the cores that are not leased by other solves. A
+ * solve waits, if no core is left. GLPK solves lease a single thread. By
+ * default, there is no budget and the solvers use their configured threads.
+ *
+ * @see SolverConfig#getThreads()
+ */
+public final class CoreBudget {
+
+	/**
+	 * Threads leased by a solve, to be released after the solve.
+	 */
+	static final class Lease {
+
+		private final int threads;
+		private final boolean counted;
+
+		private Lease(final int threads, final boolean counted) {
+			this.threads = threads;
+			this.counted = counted;
+		}
+
+		/**
+		 * Returns the number of threads the solver may use.
+		 *
+		 * @return Number of threads, 0 for the default of the solver.
+		 */
+		int getThreads() {
+			return threads;
+		}
+
+		/**
+		 * Returns the leased threads to the budget.
+		 */
+		void release() {
+			if (counted) {
+				CoreBudget.release(threads);
+			}
+		}
+
+	}
+
+	private static int cores = 0;
+	private static int leased = 0;
+
+	private CoreBudget() {
+	}
+
+	/**
+	 * Returns the number of cores of the budget.
+	 *
+	 * @return Number of cores or 0, if there is no budget.
+	 */
+	public static synchronized int getCores() {
+		return cores;
+	}
+
+	/**
+	 * Sets the number of cores shared by all concurrently running solves. Solves
+	 * that are already running keep their threads.
+	 *
+	 * @param cores Number of cores or 0 to remove the budget.
+	 */
+	public static synchronized void setCores(final int cores) {
+		if (cores < 0) {
+			throw new IllegalArgumentException("The number of cores must not be negative.");
+		}
+		CoreBudget.cores = cores;
+		CoreBudget.class.notifyAll();
+	}
+
+	/**
+	 * Leases threads for a solve, waits until at least one core is left.
+	 *
+	 * @param threads Number of threads requested by the configuration, 0 for the
+	 *                default of the solver.
+	 * @return Lease with the number of threads the solver may use.
+	 */
+	static synchronized Lease acquire(final int threads) {
+		boolean interrupted = false;
+		try {
+			while (cores > 0 && leased >= cores) {
+				try {
+					CoreBudget.class.wait();
+				} catch (final InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		if (cores == 0) {
+			return new Lease(threads, false);
+		}
+
+		final int requested = threads == 0 ? cores : Math.min(threads, cores);
+		final int granted = Math.min(requested, cores - leased);
+		leased += granted;
+		return new Lease(granted, true);
+	}
+
+	private static synchronized void release(final int threads) {
+		leased -= threads;
+		CoreBudget.class.notifyAll();
+	}
+
+}
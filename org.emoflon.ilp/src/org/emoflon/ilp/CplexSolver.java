@@ -1,18 +1,24 @@
 package org.emoflon.ilp;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.IntStream;
 
+import ilog.concert.IloConstraint;
 import ilog.concert.IloException;
 import ilog.concert.IloIntVar;
+import ilog.concert.IloLPMatrix;
+import ilog.concert.IloLinearNumExpr;
 import ilog.concert.IloNumExpr;
 import ilog.concert.IloNumVar;
 import ilog.concert.IloObjective;
+import ilog.concert.IloRange;
 import ilog.cplex.IloCplex;
 import ilog.cplex.IloCplex.Status;
 
@@ -23,11 +29,34 @@ import ilog.cplex.IloCplex.Status;
  */
 public class CplexSolver implements Solver {
 
+	/**
+	 * CPLEX supports SOS1 constraints natively, Or constraints are translated into
+	 * IloOr constraints.
+	 */
+	private static final SolverCapabilities CAPABILITIES = new SolverCapabilities(true, true);
+
+	/**
+	 * Substitutions needed before a problem can be translated for this solver.
+	 */
+	private static final ProblemTransformer TRANSFORMER = ProblemTransformer.forCapabilities(CAPABILITIES);
+
 	private IloCplex cplex;
+	// Aborts the running solve, when cancel() is called
+	private IloCplex.Aborter aborter;
 	private String outputPath;
 	final private SolverConfig config;
-	private final HashMap<String, IloNumVar> cplexVars = new HashMap<>();
+	private IloNumVar[] cplexVars = new IloNumVar[0];
+	// LP matrix with the linear rows and the objective, for incremental changes
+	private IloLPMatrix lp;
+	private IloObjective objective;
+	private Map<String, IloRange> rows = new HashMap<String, IloRange>();
 	private Problem problem;
+	// Problem given to the last build, its changes may be applied incrementally
+	private Problem source;
+	// Presolve of the lowered problem, the reduced problem is translated
+	private PresolveResult presolve;
+	// Start solution for the next solve, indexed like cplexVars
+	private double[] start;
 	private SolverOutput result;
 
 	/**
@@ -47,6 +76,7 @@ public class CplexSolver implements Solver {
 	private void init() {
 		try {
 			cplex = new IloCplex();
+			aborter = cplex.use(new IloCplex.Aborter());
 
 			// set configuration parameters
 			// Presolve?
@@ -68,6 +98,12 @@ public class CplexSolver implements Solver {
 			if (config.isTimeoutEnabled()) {
 				cplex.setParam(IloCplex.Param.TimeLimit, config.getTimeout());
 			}
+			// Parallel mode?
+			if (config.getParallelMode() == SolverConfig.ParallelMode.DETERMINISTIC) {
+				cplex.setParam(IloCplex.Param.Parallel, IloCplex.ParallelMode.Deterministic);
+			} else if (config.getParallelMode() == SolverConfig.ParallelMode.OPPORTUNISTIC) {
+				cplex.setParam(IloCplex.Param.Parallel, IloCplex.ParallelMode.Opportunistic);
+			}
 
 			// set output path, if configured
 			if (config.isOutputEnabled()) {
@@ -77,15 +113,36 @@ public class CplexSolver implements Solver {
 			throw new RuntimeException(e);
 		}
 
-		cplexVars.clear();
+		cplexVars = new IloNumVar[0];
+		lp = null;
+		objective = null;
+		rows = new HashMap<String, IloRange>();
+		presolve = null;
+		source = null;
+		start = null;
 
 	}
 
+	@Override
+	public SolverCapabilities getCapabilities() {
+		return CAPABILITIES;
+	}
+
 	@Override
 	public void buildILPProblem(Problem problem) {
-		this.problem = problem;
 		problem.validateConstraints();
 
+		// Apply only the changes since the last build, if possible
+		if (IncrementalChanges.canApplyChanges(this, this.source, this.presolve, problem)) {
+			IncrementalChanges.applyChanges(this, problem);
+			return;
+		}
+		// A model built before is discarded
+		if (this.presolve != null) {
+			terminate();
+			reset();
+		}
+
 		/*
 		 * // Quadratic Constraints or Functions are not yet implemented if
 		 * (problem.getConstraints().stream().anyMatch(QuadraticConstraint.class::
@@ -100,15 +157,20 @@ public class CplexSolver implements Solver {
 			throw new IllegalArgumentException("General Constraints are not yet supported for CPLEX.");
 		}
 
-		// Substitute Or Constraints
-		problem.substituteOr();
+		// Substitute <, > Operators and quadratic != Operators on a copy of the
+		// problem, linear != Operators become Or Constraints. The given problem is
+		// not changed
+		final Problem lowered = TRANSFORMER.transform(problem);
 
-		// Substitute <, >, != Operators
-		problem.substituteOperators();
+		// Reduce the lowered problem, if enabled
+		this.presolve = config.isJavaPresolveEnabled() ? new Presolver(config).presolve(lowered)
+				: PresolveResult.identity(lowered);
+		this.problem = this.presolve.getReduced();
+		this.source = problem;
 
 		// Initialize decision variables and objective
 		// Translate Variables
-		translateVariables(problem.getVariables());
+		translateVariables(this.problem.getVariableList());
 
 		// Translate Objective to GRB
 		translateObjective();
@@ -122,26 +184,33 @@ public class CplexSolver implements Solver {
 
 		// Translate SOS Constraints
 		translateSOSConstraints();
+
+		// Translate Or Constraints
+		translateOrConstraints();
+
+		// Later changes of the problem are relative to this build
+		problem.clearChanges(this);
 	}
 
 	/**
 	 * Translates the variables to CPLEX variables.
 	 * 
-	 * @param vars A map of the variables to be translated.
+	 * @param variables A list of the variables to be translated, ordered by index.
 	 */
-	private void translateVariables(Map<String, Variable<?>> variables) {
-		for (final String name : variables.keySet()) {
-			Variable<?> var = variables.get(name);
+	private void translateVariables(List<Variable<?>> variables) {
+		cplexVars = new IloNumVar[variables.size()];
+		for (int i = 0; i < variables.size(); i++) {
+			Variable<?> var = variables.get(i);
 
 			switch (var.getType()) {
 			case BINARY:
-				cplexVars.put(name, translateBinaryVariable((BinaryVariable) var));
+				cplexVars[i] = translateBinaryVariable((BinaryVariable) var);
 				break;
 			case INTEGER:
-				cplexVars.put(name, translateIntegerVariable((IntegerVariable) var));
+				cplexVars[i] = translateIntegerVariable((IntegerVariable) var);
 				break;
 			case REAL:
-				cplexVars.put(name, translateRealVariable((RealVariable) var));
+				cplexVars[i] = translateRealVariable((RealVariable) var);
 				break;
 			default:
 				throw new UnsupportedOperationException("This variable type is not known.");
@@ -149,6 +218,16 @@ public class CplexSolver implements Solver {
 		}
 	}
 
+	/**
+	 * Returns the CPLEX variable for the given variable of the problem.
+	 * 
+	 * @param var Variable of the problem.
+	 * @return Translated CPLEX variable.
+	 */
+	private IloNumVar cplexVar(Variable<?> var) {
+		return cplexVars[problem.getVariableIndex(var)];
+	}
+
 	/**
 	 * Translates a binary variable into a CPLEX variable and adds it to the
 	 * problem.
@@ -158,13 +237,13 @@ public class CplexSolver implements Solver {
 	 */
 	private IloIntVar translateBinaryVariable(BinaryVariable binaryVariable) {
 		try {
-			if (binaryVariable.getLowerBound() > binaryVariable.getUpperBound()) {
+			if (binaryVariable.lowerBoundAsDouble() > binaryVariable.upperBoundAsDouble()) {
 				throw new IllegalArgumentException(
 						"The lower bound is not allowed to be greater than the upper bound.");
 			}
 			final IloIntVar binaryCplexVar = cplex.boolVar(binaryVariable.getName());
-			binaryCplexVar.setLB(binaryVariable.getLowerBound());
-			binaryCplexVar.setUB(binaryVariable.getUpperBound());
+			binaryCplexVar.setLB(binaryVariable.lowerBoundAsDouble());
+			binaryCplexVar.setUB(binaryVariable.upperBoundAsDouble());
 
 			return binaryCplexVar;
 		} catch (IloException e) {
@@ -214,8 +293,8 @@ public class CplexSolver implements Solver {
 	 */
 	private IloNumVar translateRealVariable(RealVariable realVariable) {
 		try {
-			double lb = realVariable.getLowerBound();
-			double ub = realVariable.getUpperBound();
+			double lb = realVariable.lowerBoundAsDouble();
+			double ub = realVariable.upperBoundAsDouble();
 
 			if (config.isBoundsEnabled()) {
 				if (realVariable.isDefaultLowerBound()) {
@@ -261,40 +340,15 @@ public class CplexSolver implements Solver {
 			// Add Terms
 			// No nested functions because of expand() call above
 
-			// Linear Terms
-			// get the coefficients of linear terms
-			HashMap<String, Double> lin_coefficients = new HashMap<>();
-			for (Term term : obj.terms.stream().filter(LinearTerm.class::isInstance).toList()) {
-				// Get name of the variable in term
-				String varName = term.getVar1().getName();
-
-				// Get previous coefficient (if there is one)
-				double prevCoef = 0.0;
-				if (lin_coefficients.containsKey(varName)) {
-					prevCoef = lin_coefficients.remove(varName);
+			// The objective is canonical, so there is at most one term per variable (or
+			// pair of variables)
+			for (Term term : obj.terms) {
+				if (term instanceof QuadraticTerm) {
+					cplex.setQuadCoef(cplexObj, term.getWeight(), cplexVar(term.getVar1()),
+							cplexVar(((QuadraticTerm) term).getVar2()));
+				} else {
+					cplex.setLinearCoef(cplexObj, term.getWeight(), cplexVar(term.getVar1()));
 				}
-
-				// Set new coefficient for the variable (replaces old value)
-				lin_coefficients.put(varName, prevCoef + term.getWeight());
-			}
-
-			// Set Objective Function
-			// Linear Terms
-			for (String varName : lin_coefficients.keySet()) {
-				cplex.setLinearCoef(cplexObj, lin_coefficients.get(varName), cplexVars.get(varName));
-			}
-			// Quadratic Terms
-			// TODO: (future work) coefficients of quadratic terms are not summed up before
-			// adding them to the cplex problem. cplex adds them up in presolve, so there is
-			// no issue with this solution. but adding them up manually might be a good
-			// idea.
-			for (QuadraticTerm term : obj.terms.stream().filter(QuadraticTerm.class::isInstance)
-					.map(QuadraticTerm.class::cast).collect(Collectors.toList())) {
-				// Get name of the variable in term
-				String varName1 = term.getVar1().getName();
-				String varName2 = term.getVar2().getName();
-
-				cplex.setQuadCoef(cplexObj, term.getWeight(), cplexVars.get(varName1), cplexVars.get(varName2));
 			}
 
 			// Add Constant (sum of constants)
@@ -305,6 +359,7 @@ public class CplexSolver implements Solver {
 
 			// Set constant
 			cplexObj.setExpr(cplex.sum(cplexObj.getExpr(), cplex.constant(constant)));
+			objective = cplexObj;
 
 		} catch (IloException e) {
 			throw new RuntimeException(e);
@@ -317,83 +372,168 @@ public class CplexSolver implements Solver {
 	 * model.
 	 */
 	private void translateNormalConstraints() {
-		if (problem.getConstraintCount() + problem.getSOSConstraintCount() != problem.getTotalConstraintCount()) {
-			throw new Error("All Constraints should be linear or SOS constraints!");
+		if (problem.getConstraintCount() + problem.getSOSConstraintCount()
+				+ problem.getOrConstraintCount() != problem.getTotalConstraintCount()) {
+			throw new Error("All Constraints should be normal, SOS or Or constraints!");
 		}
 		if (problem.getConstraintCount() == 0) {
 			return;
 		}
 
 		try {
-			for (final NormalConstraint constraint : problem.getConstraints()) {
-
-				IloNumExpr constraintExpr = cplex.numExpr();
-
-				if (constraint instanceof LinearConstraint) {
-					IloNumExpr[] numExprs = new IloNumExpr[constraint.getLhsTerms().size()];
-
-					int i = 0;
-					for (Term term : constraint.getLhsTerms()) {
-						numExprs[i] = cplex.prod(term.getWeight(), cplexVars.get(term.getVar1().getName()));
-						i++;
-					}
-
-					constraintExpr = cplex.sum(numExprs);
+			// Linear Constraints
+			translateLinearConstraints(problem.getConstraintMatrix());
 
-				} else if (constraint instanceof QuadraticConstraint) {
-					IloNumExpr[] numExprs = new IloNumExpr[constraint.getLhsTerms().size()];
-
-					int i = 0;
-					for (Term term : constraint.getLhsTerms()) {
-						if (term instanceof LinearTerm) {
-							numExprs[i] = cplex.prod(term.getWeight(), cplexVars.get(term.getVar1().getName()));
-						} else if (term instanceof QuadraticTerm) {
-							numExprs[i] = cplex.prod(term.getWeight(), cplexVars.get(term.getVar1().getName()),
-									cplexVars.get(((QuadraticTerm) term).getVar2().getName()));
-						}
-						i++;
+			// Quadratic Constraints
+			for (final NormalConstraint constraint : problem.getConstraintsView()) {
+				if (!(constraint instanceof QuadraticConstraint)) {
+					continue;
+				}
+				IloNumExpr[] numExprs = new IloNumExpr[constraint.getLhsTerms().size()];
+
+				int i = 0;
+				for (Term term : constraint.getLhsTerms()) {
+					if (term instanceof LinearTerm) {
+						numExprs[i] = cplex.prod(term.getWeight(), cplexVar(term.getVar1()));
+					} else if (term instanceof QuadraticTerm) {
+						numExprs[i] = cplex.prod(term.getWeight(), cplexVar(term.getVar1()),
+								cplexVar(((QuadraticTerm) term).getVar2()));
 					}
-
-					constraintExpr = cplex.sum(numExprs);
+					i++;
 				}
 
-				switch (constraint.getOp()) {
-				case LESS_OR_EQUAL:
-					cplex.addLe(constraintExpr, constraint.getRhs());
-					break;
-				case GREATER_OR_EQUAL:
-					cplex.addGe(constraintExpr, constraint.getRhs());
-					break;
-				case EQUAL:
-					cplex.addEq(constraintExpr, constraint.getRhs());
-					break;
-				case LESS:
-					throw new Error("All constraints with this operator should already have been converted!");
-				case GREATER:
-					throw new Error("All constraints with this operator should already have been converted!");
-				case NOT_EQUAL:
-					throw new Error("All constraints with this operator should already have been converted!");
-				default:
-					throw new UnsupportedOperationException("Unsupported operator.");
-				}
+				addConstraint(cplex.sum(numExprs), constraint.getOp(), constraint.getRhs());
 			}
 		} catch (IloException e) {
 			throw new RuntimeException(e);
 		}
 	}
 
+	/**
+	 * Loads the rows of the constraint matrix into an LP matrix of the CPLEX model.
+	 * The columns of the LP matrix are the translated variables in index order.
+	 * 
+	 * @param matrix Constraint matrix of the linear constraints.
+	 * @throws IloException
+	 */
+	private void translateLinearConstraints(ConstraintMatrix matrix) throws IloException {
+		final int rowCount = matrix.getRowCount();
+		if (rowCount == 0) {
+			return;
+		}
+		final int[] rowStarts = matrix.getRowStarts();
+		final int[] columns = matrix.getColumns();
+		final double[] values = matrix.getValues();
+
+		final double[] lbs = new double[rowCount];
+		final double[] ubs = new double[rowCount];
+		final int[][] ind = new int[rowCount][];
+		final double[][] val = new double[rowCount][];
+
+		for (int row = 0; row < rowCount; row++) {
+			setRowBounds(matrix.getOperator(row), matrix.getRhs(row), lbs, ubs, row);
+			ind[row] = Arrays.copyOfRange(columns, rowStarts[row], rowStarts[row + 1]);
+			val[row] = Arrays.copyOfRange(values, rowStarts[row], rowStarts[row + 1]);
+		}
+
+		final int first = lpMatrix().addRows(lbs, ubs, ind, val);
+		for (int row = 0; row < rowCount; row++) {
+			rows.put(matrix.getConstraint(row).getName(), lp.getRange(first + row));
+		}
+	}
+
+	/**
+	 * Returns the LP matrix of the model. It is created on first use, its columns
+	 * are the translated variables in index order.
+	 * 
+	 * @return LP matrix of the model.
+	 * @throws IloException
+	 */
+	private IloLPMatrix lpMatrix() throws IloException {
+		if (lp == null) {
+			lp = cplex.addLPMatrix();
+			lp.addCols(cplexVars);
+		}
+		return lp;
+	}
+
+	/**
+	 * Sets the bounds of a row of the LP matrix for the given operator and
+	 * right-hand side.
+	 * 
+	 * @param op  Operator of the constraint.
+	 * @param rhs Right-hand side of the constraint.
+	 * @param lbs Lower bounds of the rows.
+	 * @param ubs Upper bounds of the rows.
+	 * @param row Index of the row in the arrays.
+	 */
+	private void setRowBounds(Operator op, double rhs, double[] lbs, double[] ubs, int row) {
+		switch (op) {
+		case LESS_OR_EQUAL:
+			lbs[row] = -Double.MAX_VALUE;
+			ubs[row] = rhs;
+			break;
+		case GREATER_OR_EQUAL:
+			lbs[row] = rhs;
+			ubs[row] = Double.MAX_VALUE;
+			break;
+		case EQUAL:
+			lbs[row] = rhs;
+			ubs[row] = rhs;
+			break;
+		case LESS:
+			throw new Error("All constraints with this operator should already have been converted!");
+		case GREATER:
+			throw new Error("All constraints with this operator should already have been converted!");
+		case NOT_EQUAL:
+			throw new Error("All constraints with this operator should already have been converted!");
+		default:
+			throw new UnsupportedOperationException("Unsupported operator.");
+		}
+	}
+
+	/**
+	 * Adds the constraint expr op rhs to the model.
+	 * 
+	 * @param constraintExpr Left-hand side of the constraint.
+	 * @param op             Operator of the constraint.
+	 * @param rhs            Right-hand side of the constraint.
+	 * @throws IloException
+	 */
+	private void addConstraint(IloNumExpr constraintExpr, Operator op, double rhs) throws IloException {
+		switch (op) {
+		case LESS_OR_EQUAL:
+			cplex.addLe(constraintExpr, rhs);
+			break;
+		case GREATER_OR_EQUAL:
+			cplex.addGe(constraintExpr, rhs);
+			break;
+		case EQUAL:
+			cplex.addEq(constraintExpr, rhs);
+			break;
+		case LESS:
+			throw new Error("All constraints with this operator should already have been converted!");
+		case GREATER:
+			throw new Error("All constraints with this operator should already have been converted!");
+		case NOT_EQUAL:
+			throw new Error("All constraints with this operator should already have been converted!");
+		default:
+			throw new UnsupportedOperationException("Unsupported operator.");
+		}
+	}
+
 	/**
 	 * Translates the SOS constraints into CPLEX constraints and adds them to the
 	 * model.
 	 */
 	private void translateSOSConstraints() {
-		for (SOS1Constraint constraint : problem.getSOSConstraints()) {
+		for (SOS1Constraint constraint : problem.getSOSConstraintsView()) {
 			try {
-				ArrayList<IloNumVar> sosVars = new ArrayList<>();
-				for (Variable<?> var : constraint.getVariables()) {
-					sosVars.add(cplexVars.get(var.getName()));
+				List<Variable<?>> sosVars = constraint.getVariables();
+				IloNumVar[] cplexSosVars = new IloNumVar[sosVars.size()];
+				for (int i = 0; i < sosVars.size(); i++) {
+					cplexSosVars[i] = cplexVar(sosVars.get(i));
 				}
-				IloNumVar[] cplexSosVars = sosVars.toArray(new IloNumVar[sosVars.size()]);
 				double[] weights = constraint.getWeights();
 				// CPLEX doesn't allow duplicate weights for SOS constraints.
 				if (containsDuplicates(weights)) {
@@ -411,6 +551,43 @@ public class CplexSolver implements Solver {
 		}
 	}
 
+	/**
+	 * Translates the Or constraints into CPLEX Or constraints and adds them to the
+	 * model. CPLEX enforces at least one of the disjuncts, no auxiliary variables
+	 * are added to the problem.
+	 */
+	private void translateOrConstraints() {
+		for (OrConstraint constraint : problem.getOrConstraintsView()) {
+			try {
+				List<LinearConstraint> disjuncts = constraint.getNonStrictDisjuncts();
+				IloConstraint[] cplexDisjuncts = new IloConstraint[disjuncts.size()];
+				for (int i = 0; i < disjuncts.size(); i++) {
+					LinearConstraint disjunct = disjuncts.get(i);
+					IloLinearNumExpr expr = cplex.linearNumExpr();
+					for (Term term : disjunct.getLhsTerms()) {
+						expr.addTerm(term.getWeight(), cplexVar(term.getVar1()));
+					}
+					switch (disjunct.getOp()) {
+					case LESS_OR_EQUAL:
+						cplexDisjuncts[i] = cplex.le(expr, disjunct.getRhs());
+						break;
+					case GREATER_OR_EQUAL:
+						cplexDisjuncts[i] = cplex.ge(expr, disjunct.getRhs());
+						break;
+					case EQUAL:
+						cplexDisjuncts[i] = cplex.eq(expr, disjunct.getRhs());
+						break;
+					default:
+						throw new Error("All disjuncts should already have been converted to non-strict operators!");
+					}
+				}
+				cplex.add(cplex.or(cplexDisjuncts, constraint.getName()));
+			} catch (IloException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
 	/**
 	 * Checks if an Array contains multiple entries of the same value.
 	 * 
@@ -427,8 +604,148 @@ public class CplexSolver implements Solver {
 		return false;
 	}
 
+	@Override
+	public void setVariableBounds(Variable<?> var, double lowerBound, double upperBound) {
+		IncrementalChanges.beginModification(this, source, presolve);
+		IncrementalChanges.checkBounds(lowerBound, upperBound);
+		try {
+			final IloNumVar cplexVar = cplexVar(var);
+			cplexVar.setLB(lowerBound);
+			cplexVar.setUB(upperBound);
+		} catch (IloException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public void addConstraint(LinearConstraint constraint) {
+		IncrementalChanges.beginModification(this, source, presolve);
+		final LinearConstraint row = IncrementalChanges.prepare(problem, constraint);
+		if (rows.containsKey(row.getName())) {
+			throw new IllegalArgumentException("The constraint " + row.getName() + " is already part of the model.");
+		}
+
+		final List<Term> terms = row.getLhsTerms();
+		final int[] ind = new int[terms.size()];
+		final double[] val = new double[terms.size()];
+		for (int k = 0; k < terms.size(); k++) {
+			ind[k] = problem.getVariableIndex(terms.get(k).getVar1());
+			val[k] = terms.get(k).getWeight();
+		}
+		final double[] lbs = new double[1];
+		final double[] ubs = new double[1];
+		setRowBounds(row.getOp(), row.getRhs(), lbs, ubs, 0);
+		try {
+			final int index = lpMatrix().addRow(lbs[0], ubs[0], ind, val);
+			rows.put(row.getName(), lp.getRange(index));
+		} catch (IloException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public boolean removeConstraint(LinearConstraint constraint) {
+		IncrementalChanges.beginModification(this, source, presolve);
+		final IloRange row = rows.remove(constraint.getName());
+		if (row == null) {
+			return false;
+		}
+		try {
+			lp.removeRow(lp.getIndex(row));
+		} catch (IloException e) {
+			throw new RuntimeException(e);
+		}
+		return true;
+	}
+
+	@Override
+	public void setObjectiveCoefficient(Variable<?> var, double coefficient) {
+		IncrementalChanges.beginModification(this, source, presolve);
+		try {
+			cplex.setLinearCoef(objective, coefficient, cplexVar(var));
+		} catch (IloException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public void setRhs(LinearConstraint constraint, double rhs) {
+		IncrementalChanges.beginModification(this, source, presolve);
+		final IloRange row = rows.get(constraint.getName());
+		if (row == null) {
+			throw new IllegalArgumentException("The constraint " + constraint.getName() + " is not part of the model.");
+		}
+		final double rowRhs = IncrementalChanges.rowRhs(constraint, rhs);
+		try {
+			switch (constraint.getOp()) {
+			case LESS:
+			case LESS_OR_EQUAL:
+				row.setUB(rowRhs);
+				break;
+			case GREATER:
+			case GREATER_OR_EQUAL:
+				row.setLB(rowRhs);
+				break;
+			default: // EQUAL
+				row.setBounds(rowRhs, rowRhs);
+				break;
+			}
+		} catch (IloException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public void setStartSolution(double[] values) {
+		this.start = StartSolution.reduce(presolve, values);
+	}
+
+	@Override
+	public void setStartSolution(Map<Variable<?>, ? extends Number> values) {
+		this.start = StartSolution.reduce(presolve, values);
+	}
+
+	/**
+	 * Replaces the MIP starts of the model by the start solution for the next
+	 * solve. Only variables with a start value are part of the MIP start.
+	 * 
+	 * @throws IloException
+	 */
+	private void applyStartSolution() throws IloException {
+		final double[] values = StartSolution.next(start, presolve, config);
+		start = null;
+		if (cplex.getNMIPStarts() > 0) {
+			cplex.deleteMIPStarts(0, cplex.getNMIPStarts());
+		}
+		if (values == null || !cplex.isMIP()) {
+			return;
+		}
+		final int[] defined = IntStream.range(0, values.length).filter(i -> !Double.isNaN(values[i])).toArray();
+		if (defined.length == 0) {
+			return;
+		}
+		final IloNumVar[] startVars = new IloNumVar[defined.length];
+		final double[] startValues = new double[defined.length];
+		for (int k = 0; k < defined.length; k++) {
+			startVars[k] = cplexVars[defined[k]];
+			startValues[k] = values[defined[k]];
+		}
+		cplex.addMIPStart(startVars, startValues);
+	}
+
 	@Override
 	public SolverOutput solve() {
+		aborter.clear();
+		return optimize();
+	}
+
+	/**
+	 * Solves the CPLEX model and determines the status of the solution. A cancel()
+	 * since the solve was submitted aborts the solve.
+	 * 
+	 * @return Result of the solving process.
+	 */
+	private SolverOutput optimize() {
 		// Write model into output file
 		if (this.outputPath != null) {
 			try {
@@ -439,7 +756,17 @@ public class CplexSolver implements Solver {
 		}
 
 		try {
-			final boolean solve = cplex.solve();
+			applyStartSolution();
+
+			// Threads, limited by the core budget
+			final CoreBudget.Lease lease = CoreBudget.acquire(config.getThreads());
+			final boolean solve;
+			try {
+				cplex.setParam(IloCplex.Param.Threads, lease.getThreads());
+				solve = cplex.solve();
+			} finally {
+				lease.release();
+			}
 
 			// Get the objective result
 			double objVal = 0;
@@ -453,7 +780,10 @@ public class CplexSolver implements Solver {
 			SolverStatus status = null;
 			final Status cplexStatus = cplex.getStatus();
 
-			if (cplexStatus == IloCplex.Status.Unbounded) {
+			if (aborter.isAborted()
+					&& (cplexStatus == IloCplex.Status.Unknown || cplexStatus == IloCplex.Status.Feasible)) {
+				status = SolverStatus.INTERRUPTED;
+			} else if (cplexStatus == IloCplex.Status.Unbounded) {
 				status = SolverStatus.UNBOUNDED;
 			} else if (cplexStatus == IloCplex.Status.InfeasibleOrUnbounded) {
 				status = SolverStatus.INF_OR_UNBD;
@@ -477,36 +807,49 @@ public class CplexSolver implements Solver {
 		}
 	}
 
+	@Override
+	public CompletableFuture<SolverOutput> solveAsync() {
+		return solveAsync(AsyncSolve.defaultExecutor());
+	}
+
+	@Override
+	public CompletableFuture<SolverOutput> solveAsync(Executor executor) {
+		// A cancel() before the solve starts aborts it
+		aborter.clear();
+		return AsyncSolve.solveAsync(this, this::optimize, executor);
+	}
+
+	@Override
+	public void cancel() {
+		aborter.abort();
+	}
+
 	@Override
 	public void updateValuesFromSolution() {
 		if (this.result.getStatus() == SolverStatus.INFEASIBLE || this.result.getStatus() == SolverStatus.INF_OR_UNBD) {
 			throw new RuntimeException(
 					"The problem status is " + this.result.getStatus() + " and therefore no values were found.");
 		}
-		Map<String, Variable<?>> objVars = this.problem.getVariables();
+		// Values of the variables removed by presolve are restored by the postsolve
+		List<Variable<?>> objVars = this.presolve.getOriginal().getVariableList();
+		final double[] values = getSolutionValues();
+
+		for (int i = 0; i < objVars.size(); i++) {
+			// Save result value (binary and integer variables round the value)
+			// TODO: (future work) configuration for round in SolverConfig
+			objVars.get(i).setValueDouble(values[i]);
+		}
+	}
 
-		for (final String varName : this.cplexVars.keySet()) {
-			try {
-				// Save result value
-				// TODO: (future work) configuration for round in SolverConfig
-				Variable<?> objVar = objVars.get(varName);
-				if (objVar instanceof BinaryVariable) {
-					long val = Math.round(cplex.getValue(cplexVars.get(varName)));
-					if (val >= 1) {
-						((BinaryVariable) objVar).setValue(1);
-					} else {
-						((BinaryVariable) objVar).setValue(0);
-					}
-				} else if (objVar instanceof IntegerVariable) {
-					((IntegerVariable) objVar).setValue((int) Math.round(cplex.getValue(cplexVars.get(varName))));
-				} else if (objVar instanceof RealVariable) {
-					((RealVariable) objVar).setValue(cplex.getValue(cplexVars.get(varName)));
-				} else {
-					throw new Error("This variable type is not implemented!");
-				}
-			} catch (final IloException e) {
-				throw new RuntimeException(e);
-			}
+	@Override
+	public double[] getSolutionValues() {
+		if (cplexVars.length == 0) {
+			return presolve.postsolve(new double[0]);
+		}
+		try {
+			return presolve.postsolve(cplex.getValues(cplexVars));
+		} catch (final IloException e) {
+			throw new RuntimeException(e);
 		}
 	}
 
@@ -112,9 +112,12 @@ public abstract class Function {
 
 	/**
 	 * Expands (i.e. multiplies out) all nested functions currently contained in
-	 * this function.
+	 * this function. The terms and constants of this function are kept, the content
+	 * of all nested functions is added as one term per variable (or pair of
+	 * variables) and one constant. This function is not changed.
 	 * 
 	 * @return Expanded function, without any nested functions left.
+	 * @throws IllegalArgumentException if a function is nested in itself.
 	 */
 	public abstract Function expand();
 
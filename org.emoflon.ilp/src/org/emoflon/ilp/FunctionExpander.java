@@ -0,0 +1,159 @@
+package org.emoflon.ilp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class multiplies out the nested functions of a function without
+ * recursion. <br>
+ * <br>
+ *
+ * The nested functions form a directed acyclic graph, a function may be nested
+ * in several other functions (or several times in the same function). Every
+ * distinct function is visited exactly once: The products of the weights along
+ * all paths to a function are summed up to a single multiplier, which is then
+ * applied to the terms and constants of the function. The resulting terms are
+ * merged per variable (or pair of variables for quadratic terms) in a single
+ * accumulator.
+ *
+ * @see Function#expand()
+ */
+final class FunctionExpander {
+
+	private FunctionExpander() {
+	}
+
+	/**
+	 * Adds the expanded content of all functions nested in the given root function
+	 * to the target function. The terms and constants of the root function itself
+	 * are not added. The nested content is added as one term per variable (or pair
+	 * of variables) followed by one constant, if the nested functions contain any
+	 * constants.
+	 *
+	 * @param root   Function whose nested functions are expanded.
+	 * @param target Function the expanded terms and constant are added to.
+	 * @throws IllegalArgumentException if a function is nested in itself.
+	 */
+	static void expandNested(final Function root, final Function target) {
+		final List<Function> order = topologicalOrder(root);
+
+		// Sum up the multipliers of all paths to a function, parents are visited
+		// before their children
+		final Map<Function, Integer> positions = new IdentityHashMap<Function, Integer>(order.size());
+		for (int i = 0; i < order.size(); i++) {
+			positions.put(order.get(i), i);
+		}
+		final double[] multipliers = new double[order.size()];
+		multipliers[0] = 1.0;
+		for (int i = 0; i < order.size(); i++) {
+			for (WeightedFunction nested : order.get(i).getNestedFunctions()) {
+				multipliers[positions.get(nested.function())] += multipliers[i] * nested.weight();
+			}
+		}
+
+		// Accumulate the terms and constants of all nested functions
+		final LongDoubleHashMap coefficients = new LongDoubleHashMap();
+		final Map<String, Integer> variableIds = new HashMap<String, Integer>();
+		final List<Variable<?>> variables = new ArrayList<Variable<?>>();
+		double constant = 0.0;
+		boolean hasConstant = false;
+		for (int i = 1; i < order.size(); i++) {
+			final Function func = order.get(i);
+			final double multiplier = multipliers[i];
+			for (Term term : func.getTerms()) {
+				final int var1 = variableId(term.getVar1(), variableIds, variables);
+				if (term instanceof QuadraticTerm) {
+					final int var2 = variableId(((QuadraticTerm) term).getVar2(), variableIds, variables);
+					final long key = ((long) (Math.min(var1, var2) + 1) << 32) | Math.max(var1, var2);
+					coefficients.add(key, term.getWeight() * multiplier);
+				} else {
+					coefficients.add(var1, term.getWeight() * multiplier);
+				}
+			}
+			for (Constant cons : func.getConstants()) {
+				constant += cons.weight() * multiplier;
+				hasConstant = true;
+			}
+		}
+
+		for (int pos = 0; pos < coefficients.size(); pos++) {
+			final long key = coefficients.keyAt(pos);
+			final int high = (int) (key >>> 32);
+			final int low = (int) key;
+			if (high == 0) {
+				target.addTerm(new LinearTerm(variables.get(low), coefficients.valueAt(pos)));
+			} else {
+				target.addTerm(new QuadraticTerm(variables.get(high - 1), variables.get(low), coefficients.valueAt(pos)));
+			}
+		}
+		if (hasConstant) {
+			target.addConstant(constant);
+		}
+	}
+
+	/**
+	 * Returns all distinct functions reachable from the given root function in
+	 * topological order, i.e., every function is listed before the functions that
+	 * are nested in it. The root function is the first element.
+	 *
+	 * @param root Function to start from.
+	 * @return Functions in topological order.
+	 * @throws IllegalArgumentException if a function is nested in itself.
+	 */
+	private static List<Function> topologicalOrder(final Function root) {
+		// FALSE: function is on the current path, TRUE: function is finished
+		final Map<Function, Boolean> finished = new IdentityHashMap<Function, Boolean>();
+		final List<Function> postOrder = new ArrayList<Function>();
+		// Frames of the iterative depth first search: function and index of the next
+		// nested function to visit
+		final Deque<Function> functions = new ArrayDeque<Function>();
+		final Deque<Integer> nextIndices = new ArrayDeque<Integer>();
+
+		functions.push(root);
+		nextIndices.push(0);
+		finished.put(root, false);
+		while (!functions.isEmpty()) {
+			final Function func = functions.peek();
+			final int next = nextIndices.pop();
+			if (next == func.getNestedFunctions().size()) {
+				functions.pop();
+				finished.put(func, true);
+				postOrder.add(func);
+				continue;
+			}
+			nextIndices.push(next + 1);
+
+			final Function child = func.getNestedFunctions().get(next).function();
+			final Boolean state = finished.get(child);
+			if (state == null) {
+				functions.push(child);
+				nextIndices.push(0);
+				finished.put(child, false);
+			} else if (!state) {
+				throw new IllegalArgumentException("A function is not allowed to be nested in itself!");
+			}
+		}
+
+		final List<Function> order = new ArrayList<Function>(postOrder.size());
+		for (int i = postOrder.size() - 1; i >= 0; i--) {
+			order.add(postOrder.get(i));
+		}
+		return order;
+	}
+
+	private static int variableId(final Variable<?> var, final Map<String, Integer> variableIds,
+			final List<Variable<?>> variables) {
+		final Integer id = variableIds.putIfAbsent(var.getName(), variables.size());
+		if (id != null) {
+			return id;
+		}
+		variables.add(var);
+		return variables.size() - 1;
+	}
+
+}
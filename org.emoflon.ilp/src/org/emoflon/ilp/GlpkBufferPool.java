@@ -0,0 +1,121 @@
+package org.emoflon.ilp;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.gnu.glpk.GLPK;
+import org.gnu.glpk.SWIGTYPE_p_double;
+import org.gnu.glpk.SWIGTYPE_p_int;
+
+/**
+ * This class manages the native SWIG arrays used by the Glpk Solver. Released
+ * arrays are kept and reused for later requests of the same or a smaller size.
+ * All arrays (in use or not) are freed by calling free().
+ *
+ */
+class GlpkBufferPool {
+
+	private static final int INT_BYTES = Integer.BYTES;
+	private static final int DOUBLE_BYTES = Double.BYTES;
+
+	private final Map<SWIGTYPE_p_int, Integer> intArrays = new IdentityHashMap<>();
+	private final Map<SWIGTYPE_p_double, Integer> doubleArrays = new IdentityHashMap<>();
+	private final List<SWIGTYPE_p_int> freeIntArrays = new ArrayList<>();
+	private final List<SWIGTYPE_p_double> freeDoubleArrays = new ArrayList<>();
+	private long outstandingBytes = 0;
+
+	/**
+	 * Returns a native int array with at least the given length. The array has to
+	 * be handed back with release(SWIGTYPE_p_int) when it is no longer needed.
+	 *
+	 * @param length Minimum length of the array.
+	 * @return Native int array.
+	 */
+	SWIGTYPE_p_int acquireIntArray(int length) {
+		for (Iterator<SWIGTYPE_p_int> it = freeIntArrays.iterator(); it.hasNext();) {
+			SWIGTYPE_p_int array = it.next();
+			if (intArrays.get(array) >= length) {
+				it.remove();
+				return array;
+			}
+		}
+		SWIGTYPE_p_int array = GLPK.new_intArray(length);
+		intArrays.put(array, length);
+		outstandingBytes += (long) length * INT_BYTES;
+		return array;
+	}
+
+	/**
+	 * Returns a native double array with at least the given length. The array has
+	 * to be handed back with release(SWIGTYPE_p_double) when it is no longer
+	 * needed.
+	 *
+	 * @param length Minimum length of the array.
+	 * @return Native double array.
+	 */
+	SWIGTYPE_p_double acquireDoubleArray(int length) {
+		for (Iterator<SWIGTYPE_p_double> it = freeDoubleArrays.iterator(); it.hasNext();) {
+			SWIGTYPE_p_double array = it.next();
+			if (doubleArrays.get(array) >= length) {
+				it.remove();
+				return array;
+			}
+		}
+		SWIGTYPE_p_double array = GLPK.new_doubleArray(length);
+		doubleArrays.put(array, length);
+		outstandingBytes += (long) length * DOUBLE_BYTES;
+		return array;
+	}
+
+	/**
+	 * Hands a native int array back to the pool, so it can be reused.
+	 *
+	 * @param array Native int array acquired from this pool.
+	 */
+	void release(SWIGTYPE_p_int array) {
+		if (!intArrays.containsKey(array)) {
+			throw new IllegalArgumentException("The array was not acquired from this pool.");
+		}
+		freeIntArrays.add(array);
+	}
+
+	/**
+	 * Hands a native double array back to the pool, so it can be reused.
+	 *
+	 * @param array Native double array acquired from this pool.
+	 */
+	void release(SWIGTYPE_p_double array) {
+		if (!doubleArrays.containsKey(array)) {
+			throw new IllegalArgumentException("The array was not acquired from this pool.");
+		}
+		freeDoubleArrays.add(array);
+	}
+
+	/**
+	 * Frees all native arrays of this pool, including the ones that were not
+	 * released, yet.
+	 */
+	void free() {
+		intArrays.keySet().forEach(GLPK::delete_intArray);
+		doubleArrays.keySet().forEach(GLPK::delete_doubleArray);
+		intArrays.clear();
+		doubleArrays.clear();
+		freeIntArrays.clear();
+		freeDoubleArrays.clear();
+		outstandingBytes = 0;
+	}
+
+	/**
+	 * Returns the number of bytes of all native arrays that were allocated by this
+	 * pool and not freed, yet.
+	 *
+	 * @return Number of outstanding native bytes.
+	 */
+	long getOutstandingBytes() {
+		return outstandingBytes;
+	}
+
+}
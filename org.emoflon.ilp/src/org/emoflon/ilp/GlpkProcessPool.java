@@ -0,0 +1,235 @@
+package org.emoflon.ilp;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.gnu.glpk.GLPK;
+import org.gnu.glpk.glp_iocp;
+
+/**
+ * This class manages the GLPK worker processes shared by all GLPK solvers of
+ * the JVM. Each worker is a JVM running GlpkProcessWorker with the library
+ * path of this JVM, see classPath() for its class path. Workers are started on
+ * demand, reused for further solves and replaced, if they terminate. <br>
+ * <br>
+ *
+ * A native fault of GLPK terminates the worker process only, the solve fails
+ * with a RuntimeException then.
+ *
+ * @see GlpkProcessWorker
+ */
+final class GlpkProcessPool {
+
+	/**
+	 * A running worker process with the pipes of its protocol.
+	 */
+	static final class Handle {
+
+		private final Process process;
+		private final DataOutputStream requests;
+		private final DataInputStream results;
+
+		private Handle(final Process process) {
+			this.process = process;
+			this.requests = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+			this.results = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+		}
+
+		/**
+		 * Solves the model in the given file in the worker process.
+		 *
+		 * @param path          Path of the model in the GLPK plain problem format.
+		 * @param iocp          Parameters of the branch-and-cut.
+		 * @param outputEnabled True, if GLPK should print its output (to stderr).
+		 * @return Result of the solve.
+		 * @throws IOException if the worker process terminated.
+		 */
+		Result solve(final String path, final glp_iocp iocp, final boolean outputEnabled) throws IOException {
+			requests.writeUTF(path);
+			requests.writeInt(iocp.getPresolve());
+			requests.writeInt(iocp.getTm_lim());
+			requests.writeDouble(iocp.getTol_int());
+			requests.writeDouble(iocp.getTol_obj());
+			requests.writeDouble(iocp.getMip_gap());
+			requests.writeBoolean(outputEnabled);
+			requests.flush();
+
+			if (!results.readBoolean()) {
+				throw new RuntimeException(results.readUTF());
+			}
+			final int solveStatus = results.readInt();
+			final int modelStatus = results.readInt();
+			final int mipModelStatus = results.readInt();
+			final double objVal = results.readDouble();
+			final double[] values = new double[results.readInt()];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = results.readDouble();
+			}
+			return new Result(solveStatus, modelStatus, mipModelStatus, objVal, values);
+		}
+
+		/**
+		 * Kills the worker process, a running solve fails with an IOException.
+		 */
+		void destroy() {
+			process.destroyForcibly();
+		}
+
+	}
+
+	/**
+	 * Result of a solve in a worker process, see GlpkProcessWorker.
+	 */
+	static final class Result {
+
+		final int solveStatus;
+		final int modelStatus;
+		final int mipModelStatus;
+		final double objVal;
+		final double[] values;
+
+		private Result(final int solveStatus, final int modelStatus, final int mipModelStatus, final double objVal,
+				final double[] values) {
+			this.solveStatus = solveStatus;
+			this.modelStatus = modelStatus;
+			this.mipModelStatus = mipModelStatus;
+			this.objVal = objVal;
+			this.values = values;
+		}
+
+	}
+
+	private static final GlpkProcessPool shared = new GlpkProcessPool();
+
+	private final Deque<Handle> idle = new ArrayDeque<Handle>();
+	private int started = 0;
+
+	private GlpkProcessPool() {
+	}
+
+	/**
+	 * Returns the pool shared by all GLPK solvers.
+	 *
+	 * @return Shared pool.
+	 */
+	static GlpkProcessPool shared() {
+		return shared;
+	}
+
+	/**
+	 * Returns an idle worker process or starts a new one. If the given number of
+	 * processes is running, this method waits for a worker to be released.
+	 *
+	 * @param maxProcesses Maximum number of worker processes.
+	 * @return Worker process to be released with release().
+	 * @throws InterruptedException if the thread is interrupted while waiting.
+	 */
+	Handle acquire(final int maxProcesses) throws InterruptedException {
+		synchronized (this) {
+			while (true) {
+				while (!idle.isEmpty()) {
+					final Handle handle = idle.pollFirst();
+					if (handle.process.isAlive()) {
+						return handle;
+					}
+					started--;
+				}
+				if (started < maxProcesses) {
+					// The slot is reserved, the worker is started outside the lock
+					started++;
+					break;
+				}
+				wait();
+			}
+		}
+
+		// Starting a JVM is slow, other solvers are not blocked meanwhile
+		try {
+			return start();
+		} catch (final RuntimeException e) {
+			synchronized (this) {
+				started--;
+				notifyAll();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns a worker process to the pool.
+	 *
+	 * @param handle  Worker process returned by acquire().
+	 * @param healthy False, if the protocol failed, the process is killed then.
+	 */
+	synchronized void release(final Handle handle, final boolean healthy) {
+		if (healthy && handle.process.isAlive()) {
+			idle.addFirst(handle);
+		} else {
+			handle.destroy();
+			started--;
+		}
+		notifyAll();
+	}
+
+	/**
+	 * Starts a new worker process.
+	 *
+	 * @return Started worker process.
+	 */
+	private static Handle start() {
+		final String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		final ProcessBuilder builder = new ProcessBuilder(java, "-cp", classPath(),
+				"-Djava.library.path=" + System.getProperty("java.library.path"), GlpkProcessWorker.class.getName());
+		builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+		try {
+			return new Handle(builder.start());
+		} catch (final IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Returns the class path of the worker processes: the locations of this
+	 * bundle and of glpk-java, followed by the class path of this JVM. In an OSGi
+	 * runtime, the class path of the JVM contains the launcher only.
+	 *
+	 * @return Class path of the worker processes.
+	 */
+	private static String classPath() {
+		final Set<String> entries = new LinkedHashSet<String>();
+		addLocation(entries, GlpkProcessWorker.class);
+		addLocation(entries, GLPK.class);
+		entries.add(System.getProperty("java.class.path"));
+		return String.join(File.pathSeparator, entries);
+	}
+
+	/**
+	 * Adds the location the given class was loaded from, if it is a file or a
+	 * directory.
+	 *
+	 * @param entries Class path entries.
+	 * @param type    Class whose location is added.
+	 */
+	private static void addLocation(final Set<String> entries, final Class<?> type) {
+		final CodeSource source = type.getProtectionDomain().getCodeSource();
+		if (source == null || source.getLocation() == null) {
+			return;
+		}
+		try {
+			entries.add(new File(source.getLocation().toURI()).getPath());
+		} catch (final URISyntaxException | IllegalArgumentException e) {
+			// Not a file, the class has to be found on the class path of the JVM
+		}
+	}
+
+}
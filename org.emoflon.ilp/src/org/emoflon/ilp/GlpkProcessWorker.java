@@ -0,0 +1,113 @@
+package org.emoflon.ilp;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.gnu.glpk.GLPK;
+import org.gnu.glpk.GlpkTerminal;
+import org.gnu.glpk.glp_iocp;
+import org.gnu.glpk.glp_prob;
+
+/**
+ * This class is the entry point of the GLPK worker processes started by
+ * GlpkProcessPool. It is not meant to be used directly. <br>
+ * <br>
+ *
+ * A worker reads solve requests from stdin and writes the results to stdout
+ * until stdin is closed. A request consists of the path of a model in the
+ * GLPK plain problem format (glp_write_prob) and the parameters of the
+ * branch-and-cut. The result consists of the return value of glp_intopt, the
+ * status of the basic and the MIP solution, the objective value and the values
+ * of all columns. The terminal output of GLPK is written to stderr.
+ *
+ * @see SolverConfig#getGlpkWorkerProcesses()
+ */
+public final class GlpkProcessWorker {
+
+	private GlpkProcessWorker() {
+	}
+
+	/**
+	 * Runs the worker loop.
+	 *
+	 * @param args Not used.
+	 * @throws IOException if the pipes to the parent process fail.
+	 */
+	public static void main(final String[] args) throws IOException {
+		final DataInputStream in = new DataInputStream(new BufferedInputStream(System.in));
+		final DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+		// stdout carries the results, all other output goes to stderr. GLPK prints
+		// natively to stdout, unless a listener of this thread suppresses it
+		System.setOut(System.err);
+		GlpkTerminal.addListener(text -> {
+			System.err.print(text);
+			return false;
+		});
+
+		while (true) {
+			final String path;
+			try {
+				path = in.readUTF();
+			} catch (final EOFException e) {
+				return;
+			}
+
+			final glp_iocp iocp = new glp_iocp();
+			try {
+				GLPK.glp_init_iocp(iocp);
+				iocp.setPresolve(in.readInt());
+				iocp.setTm_lim(in.readInt());
+				iocp.setTol_int(in.readDouble());
+				iocp.setTol_obj(in.readDouble());
+				iocp.setMip_gap(in.readDouble());
+				GLPK.glp_term_out(in.readBoolean() ? GLPK.GLP_ON : GLPK.GLP_OFF);
+				solve(path, iocp, out);
+			} finally {
+				iocp.delete();
+			}
+			out.flush();
+		}
+	}
+
+	/**
+	 * Solves the model in the given file and writes the result.
+	 *
+	 * @param path Path of the model in the GLPK plain problem format.
+	 * @param iocp Parameters of the branch-and-cut.
+	 * @param out  Stream to write the result to.
+	 * @throws IOException if writing the result fails.
+	 */
+	private static void solve(final String path, final glp_iocp iocp, final DataOutputStream out)
+			throws IOException {
+		final glp_prob model = GLPK.glp_create_prob();
+		try {
+			if (GLPK.glp_read_prob(model, 0, path) != 0) {
+				out.writeBoolean(false);
+				out.writeUTF("GLPK: The model " + path + " could not be read.");
+				return;
+			}
+
+			final int solveStatus = GLPK.glp_intopt(model, iocp);
+			out.writeBoolean(true);
+			out.writeInt(solveStatus);
+			out.writeInt(GLPK.glp_get_status(model));
+			out.writeInt(GLPK.glp_mip_status(model));
+			out.writeDouble(GLPK.glp_mip_obj_val(model));
+			final int cols = GLPK.glp_get_num_cols(model);
+			out.writeInt(cols);
+			for (int i = 1; i <= cols; i++) {
+				out.writeDouble(GLPK.glp_mip_col_val(model, i));
+			}
+		} finally {
+			GLPK.glp_delete_prob(model);
+		}
+	}
+
+}
@@ -1,28 +1,81 @@
 package org.emoflon.ilp;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.gnu.glpk.GLPK;
+import org.gnu.glpk.GlpkCallback;
+import org.gnu.glpk.GlpkCallbackListener;
 import org.gnu.glpk.SWIGTYPE_p_double;
 import org.gnu.glpk.SWIGTYPE_p_int;
 import org.gnu.glpk.glp_iocp;
 import org.gnu.glpk.glp_prob;
+import org.gnu.glpk.glp_smcp;
+import org.gnu.glpk.glp_tree;
 
 /**
  * This class represents the Glpk Solver. Here the problem formulation gets
- * translated to be comprehensible for Glpk and solved.
+ * translated to be comprehensible for Glpk and solved. <br>
+ * <br>
+ *
+ * The GLPK environment belongs to the thread that calls GLPK. Every solver
+ * runs its GLPK calls on its own worker thread, so several solvers can be used
+ * concurrently and from any thread.
  *
  */
 public class GlpkSolver implements Solver {
 
+	/**
+	 * GLPK neither supports SOS1 constraints nor Or constraints natively.
+	 */
+	private static final SolverCapabilities CAPABILITIES = new SolverCapabilities(false, false);
+
+	/**
+	 * Substitutions needed before a problem can be translated for this solver.
+	 */
+	private static final ProblemTransformer TRANSFORMER = ProblemTransformer.forCapabilities(CAPABILITIES);
+
+	private static final AtomicInteger workerCount = new AtomicInteger();
+
+	// All GLPK calls of this solver run on this thread, which owns the GLPK
+	// environment of the model. So solvers in other threads are not affected.
+	private final WorkerThread worker;
 	private glp_prob model;
 	private glp_iocp iocp;
 	private String outputPath;
 	final private SolverConfig config;
 	private Problem problem;
+	// Problem given to the last build, its changes may be applied incrementally
+	private Problem source;
+	// Presolve of the lowered problem, the reduced problem is translated
+	private PresolveResult presolve;
+	// Start solution for the next solve, indexed like the columns - 1
+	private double[] start;
+	// Set by cancel(), checked in the callback of the branch-and-cut. Reset when a
+	// solve is submitted, so a cancel() before the worker starts is not lost
+	private volatile boolean cancelRequested = false;
+	// Worker process solving the model, if the model is solved in a process
+	private volatile GlpkProcessPool.Handle activeProcess;
+	// Column values of the last solve in a worker process
+	private double[] processValues;
 	private SolverOutput result;
-	private Map<String, Integer> indexNameMap;
+	private final GlpkBufferPool buffers = new GlpkBufferPool();
+	// Row of every constraint by its name, the rows are numbered from 1
+	private final Map<String, Integer> rows = new HashMap<String, Integer>();
+	// Constraint names in the order of the rows, to renumber the rows after a
+	// deletion
+	private final List<String> rowNames = new ArrayList<String>();
+	// Variables whose bounds the lowering depends on, determined on first use
+	private Set<String> boundDependent;
 
 	/**
 	 * The constructor for GlpkSolver.
@@ -32,16 +85,14 @@ public class GlpkSolver implements Solver {
 	 */
 	public GlpkSolver(final SolverConfig config) {
 		this.config = config;
-		this.indexNameMap = new HashMap<>();
-		init();
+		this.worker = new WorkerThread("emoflon-ilp-glpk-" + workerCount.incrementAndGet());
+		worker.run(this::init);
 	}
 
 	/**
 	 * Initializes the solver with the parameters given in the configuration.
 	 */
 	private void init() {
-		GLPK.glp_free_env();
-
 		// Create problem
 		model = GLPK.glp_create_prob();
 		GLPK.glp_set_prob_name(model, "Glpk_ILP");
@@ -77,13 +128,36 @@ public class GlpkSolver implements Solver {
 
 	}
 
+	@Override
+	public SolverCapabilities getCapabilities() {
+		return CAPABILITIES;
+	}
+
 	@Override
 	public void buildILPProblem(Problem problem) {
-		this.problem = problem;
+		worker.run(() -> build(problem));
+	}
+
+	/**
+	 * Translates the given problem into the GLPK model.
+	 * 
+	 * @param problem Problem to be translated.
+	 */
+	private void build(Problem problem) {
 		problem.validateConstraints();
 
+		// Apply only the changes since the last build, if possible
+		if (IncrementalChanges.canApplyChanges(this, this.source, this.presolve, problem)) {
+			IncrementalChanges.applyChanges(this, problem);
+			return;
+		}
+		// A model built before is discarded
+		if (this.presolve != null) {
+			reset();
+		}
+
 		// Quadratic Constraints or Functions are not supported by GLPK
-		if (problem.getConstraints().stream().anyMatch(QuadraticConstraint.class::isInstance)
+		if (problem.getConstraintsView().stream().anyMatch(QuadraticConstraint.class::isInstance)
 				|| (problem.getObjective() instanceof QuadraticFunction)) {
 			throw new IllegalArgumentException("GLPK does not support quadratic constraints and quadratic functions!");
 		}
@@ -93,17 +167,18 @@ public class GlpkSolver implements Solver {
 			throw new IllegalArgumentException("General Constraints are not supported by GLPK.");
 		}
 
-		// Substitute Or Constraints
-		problem.substituteOr();
-
-		// Substitute <, >, != Operators
-		problem.substituteOperators();
+		// Substitute Or Constraints, <, >, != Operators and SOS1 Constraints on a
+		// copy of the problem, the given problem is not changed
+		final Problem lowered = TRANSFORMER.transform(problem);
 
-		// Substitute SOS1 Constraints
-		problem.substituteSOS1();
+		// Reduce the lowered problem, if enabled
+		this.presolve = config.isJavaPresolveEnabled() ? new Presolver(config).presolve(lowered)
+				: PresolveResult.identity(lowered);
+		this.problem = this.presolve.getReduced();
+		this.source = problem;
 
 		// Translate Variables
-		translateVariables(problem.getVariables());
+		translateVariables(this.problem.getVariableList());
 
 		// Translate Objective
 		translateObjective();
@@ -111,28 +186,31 @@ public class GlpkSolver implements Solver {
 		// Translate Constraints
 		translateConstraints();
 
+		// Later changes of the problem are relative to this build
+		problem.clearChanges(this);
+
 	}
 
 	/**
-	 * Translates the variables to Glpk variables.
+	 * Translates the variables to Glpk variables. The column of a variable is its
+	 * index in the problem + 1.
 	 * 
-	 * @param vars A map of the variables to be translated.
+	 * @param vars A list of the variables to be translated, ordered by index.
 	 */
-	private void translateVariables(Map<String, Variable<?>> vars) {
+	private void translateVariables(List<Variable<?>> vars) {
 		if (vars.size() == 0) {
 			return;
 		}
 
-		int j = 1;
 		GLPK.glp_add_cols(model, vars.size());
-		for (final String name : vars.keySet()) {
-			Variable<?> var = vars.get(name);
-			indexNameMap.put(name, j);
+		for (int i = 0; i < vars.size(); i++) {
+			final Variable<?> var = vars.get(i);
+			final int j = i + 1;
 
-			double lb = var.getLowerBound().doubleValue();
-			double ub = var.getUpperBound().doubleValue();
+			double lb = var.lowerBoundAsDouble();
+			double ub = var.upperBoundAsDouble();
 
-			GLPK.glp_set_col_name(model, j, name);
+			GLPK.glp_set_col_name(model, j, var.getName());
 
 			switch (var.getType()) {
 			case BINARY:
@@ -169,8 +247,6 @@ public class GlpkSolver implements Solver {
 			default:
 				throw new UnsupportedOperationException("This variable type is not known.");
 			}
-
-			j++;
 		}
 	}
 
@@ -186,7 +262,10 @@ public class GlpkSolver implements Solver {
 		if (lb > ub) {
 			throw new IllegalArgumentException("The lower bound is not allowed to be greater than the upper bound.");
 		}
-		GLPK.glp_set_col_kind(model, index, varType);
+		// New columns are continuous by default
+		if (varType != GLPK.GLP_CV) {
+			GLPK.glp_set_col_kind(model, index, varType);
+		}
 		if (lb == ub) {
 			GLPK.glp_set_col_bnds(model, index, GLPK.GLP_FX, lb, ub);
 		} else {
@@ -225,15 +304,9 @@ public class GlpkSolver implements Solver {
 		}
 		GLPK.glp_set_obj_coef(model, 0, constant);
 
+		// The objective is canonical, so there is at most one term per variable
 		for (Term term : obj.terms) {
-			// Get index of the variable in term
-			int index = indexNameMap.get(term.getVar1().getName());
-
-			// Get previous coefficient (if there is one)
-			double prevCoef = GLPK.glp_get_obj_coef(model, index);
-
-			// Set new coefficient for the variable
-			GLPK.glp_set_obj_coef(model, index, prevCoef + term.getWeight());
+			GLPK.glp_set_obj_coef(model, problem.getVariableIndex(term.getVar1()) + 1, term.getWeight());
 		}
 	}
 
@@ -248,34 +321,46 @@ public class GlpkSolver implements Solver {
 			return;
 		}
 
-		// Add rows according to the constraint count
-		GLPK.glp_add_rows(model, problem.getConstraintCount());
-
-		int counter = 1;
-		for (final NormalConstraint constraint : problem.getConstraints()) {
-
-			Map<Variable<?>, Double> weights = new HashMap<>();
-			for (Term term : constraint.getLhsTerms()) {
-				weights.put(term.getVar1(), weights.getOrDefault(term.getVar1(), 0.0) + term.getWeight());
-			}
+		final ConstraintMatrix matrix = problem.getConstraintMatrix();
+		final int rowCount = matrix.getRowCount();
+		final int[] rowStarts = matrix.getRowStarts();
+		final int[] columns = matrix.getColumns();
+		final double[] values = matrix.getValues();
+		final int nz = matrix.getNonZeroCount();
 
-			final int size = weights.size();
-			final SWIGTYPE_p_int vars = GLPK.new_intArray(size + 1);
-			final SWIGTYPE_p_double coeffs = GLPK.new_doubleArray(size + 1);
+		// Add rows according to the constraint count
+		GLPK.glp_add_rows(model, rowCount);
+
+		// Set names and bounds of the rows
+		for (int row = 0; row < rowCount; row++) {
+			final int counter = row + 1;
+			final double rhs = matrix.getRhs(row);
+			GLPK.glp_set_row_name(model, counter, matrix.getConstraint(row).toString());
+			GLPK.glp_set_row_bnds(model, counter, translateOp(matrix.getOperator(row)), rhs, rhs);
+			rows.put(matrix.getConstraint(row).getName(), counter);
+			rowNames.add(matrix.getConstraint(row).getName());
+		}
 
-			int varIndex = 1;
-			for (final Variable<?> var : weights.keySet()) {
-				GLPK.intArray_setitem(vars, varIndex, indexNameMap.get(var.getName()));
-				GLPK.doubleArray_setitem(coeffs, varIndex, weights.get(var));
-				varIndex++;
+		// Load the whole matrix with a single call
+		// Glpk arrays are 1-based: ia[k] is the row, ja[k] the column and ar[k] the
+		// coefficient of the k-th non-zero entry
+		final SWIGTYPE_p_int ia = buffers.acquireIntArray(nz + 1);
+		final SWIGTYPE_p_int ja = buffers.acquireIntArray(nz + 1);
+		final SWIGTYPE_p_double ar = buffers.acquireDoubleArray(nz + 1);
+
+		try {
+			for (int row = 0; row < rowCount; row++) {
+				for (int k = rowStarts[row]; k < rowStarts[row + 1]; k++) {
+					GLPK.intArray_setitem(ia, k + 1, row + 1);
+					GLPK.intArray_setitem(ja, k + 1, columns[k] + 1);
+					GLPK.doubleArray_setitem(ar, k + 1, values[k]);
+				}
 			}
-
-			GLPK.glp_set_row_name(model, counter, constraint.toString());
-			GLPK.glp_set_mat_row(model, counter, size, vars, coeffs);
-			GLPK.glp_set_row_bnds(model, counter, translateOp(constraint.getOp()), constraint.getRhs(),
-					constraint.getRhs());
-
-			counter++;
+			GLPK.glp_load_matrix(model, nz, ia, ja, ar);
+		} finally {
+			buffers.release(ia);
+			buffers.release(ja);
+			buffers.release(ar);
 		}
 	}
 
@@ -305,9 +390,212 @@ public class GlpkSolver implements Solver {
 		}
 	}
 
+	@Override
+	public void setVariableBounds(Variable<?> var, double lowerBound, double upperBound) {
+		worker.run(() -> setColumnBounds(var, lowerBound, upperBound));
+	}
+
+	private void setColumnBounds(Variable<?> var, double lowerBound, double upperBound) {
+		IncrementalChanges.beginModification(this, source, presolve);
+		IncrementalChanges.checkBounds(lowerBound, upperBound);
+		final int col = problem.getVariableIndex(var) + 1;
+		// Big-M values of the lowered SOS1, Or and != constraints assume the old bounds
+		if (boundDependent == null) {
+			boundDependent = IncrementalChanges.boundDependentVariables(source);
+		}
+		IncrementalChanges.checkNotWidened(boundDependent, var, GLPK.glp_get_col_lb(model, col),
+				GLPK.glp_get_col_ub(model, col), lowerBound, upperBound);
+		GLPK.glp_set_col_bnds(model, col, lowerBound == upperBound ? GLPK.GLP_FX : GLPK.GLP_DB, lowerBound,
+				upperBound);
+	}
+
+	@Override
+	public void addConstraint(LinearConstraint constraint) {
+		worker.run(() -> addRow(constraint));
+	}
+
+	private void addRow(LinearConstraint constraint) {
+		IncrementalChanges.beginModification(this, source, presolve);
+		final LinearConstraint row = IncrementalChanges.prepare(problem, constraint);
+		if (rows.containsKey(row.getName())) {
+			throw new IllegalArgumentException("The constraint " + row.getName() + " is already part of the model.");
+		}
+
+		final List<Term> terms = row.getLhsTerms();
+		final SWIGTYPE_p_int ind = buffers.acquireIntArray(terms.size() + 1);
+		final SWIGTYPE_p_double val = buffers.acquireDoubleArray(terms.size() + 1);
+		try {
+			for (int k = 0; k < terms.size(); k++) {
+				GLPK.intArray_setitem(ind, k + 1, problem.getVariableIndex(terms.get(k).getVar1()) + 1);
+				GLPK.doubleArray_setitem(val, k + 1, terms.get(k).getWeight());
+			}
+			final int counter = GLPK.glp_add_rows(model, 1);
+			GLPK.glp_set_row_name(model, counter, row.toString());
+			GLPK.glp_set_row_bnds(model, counter, translateOp(row.getOp()), row.getRhs(), row.getRhs());
+			GLPK.glp_set_mat_row(model, counter, terms.size(), ind, val);
+			rows.put(row.getName(), counter);
+			rowNames.add(row.getName());
+		} finally {
+			buffers.release(ind);
+			buffers.release(val);
+		}
+	}
+
+	@Override
+	public boolean removeConstraint(LinearConstraint constraint) {
+		return worker.call(() -> removeRow(constraint));
+	}
+
+	private boolean removeRow(LinearConstraint constraint) {
+		IncrementalChanges.beginModification(this, source, presolve);
+		final Integer row = rows.remove(constraint.getName());
+		if (row == null) {
+			return false;
+		}
+		final SWIGTYPE_p_int num = buffers.acquireIntArray(2);
+		try {
+			GLPK.intArray_setitem(num, 1, row);
+			GLPK.glp_del_rows(model, 1, num);
+		} finally {
+			buffers.release(num);
+		}
+		// The following rows move up by one
+		rowNames.remove(row - 1);
+		for (int i = row - 1; i < rowNames.size(); i++) {
+			rows.put(rowNames.get(i), i + 1);
+		}
+		return true;
+	}
+
+	@Override
+	public void setObjectiveCoefficient(Variable<?> var, double coefficient) {
+		worker.run(() -> {
+			IncrementalChanges.beginModification(this, source, presolve);
+			GLPK.glp_set_obj_coef(model, problem.getVariableIndex(var) + 1, coefficient);
+		});
+	}
+
+	@Override
+	public void setRhs(LinearConstraint constraint, double rhs) {
+		worker.run(() -> setRowRhs(constraint, rhs));
+	}
+
+	private void setRowRhs(LinearConstraint constraint, double rhs) {
+		IncrementalChanges.beginModification(this, source, presolve);
+		final Integer row = rows.get(constraint.getName());
+		if (row == null) {
+			throw new IllegalArgumentException("The constraint " + constraint.getName() + " is not part of the model.");
+		}
+		final double rowRhs = IncrementalChanges.rowRhs(constraint, rhs);
+		GLPK.glp_set_row_bnds(model, row, GLPK.glp_get_row_type(model, row), rowRhs, rowRhs);
+	}
+
+	@Override
+	public void setStartSolution(double[] values) {
+		this.start = StartSolution.reduce(presolve, values);
+	}
+
+	@Override
+	public void setStartSolution(Map<Variable<?>, ? extends Number> values) {
+		this.start = StartSolution.reduce(presolve, values);
+	}
+
+	/**
+	 * Solves the MIP problem with the branch-and-cut method. A start solution is
+	 * offered to the search as heuristic solution. GLPK only accepts complete
+	 * solutions for the columns of the model, but its presolve changes the
+	 * columns. Therefore, the LP relaxation is solved with the simplex method
+	 * first and the branch-and-cut runs without presolve.
+	 * 
+	 * @return Return value of glp_intopt.
+	 */
+	private int intopt() {
+		final double[] values = StartSolution.next(start, presolve, config);
+		start = null;
+		final boolean withStart = values != null && Arrays.stream(values).noneMatch(Double::isNaN)
+				&& solveRelaxation();
+
+		final SearchCallback callback = new SearchCallback(withStart ? values : null);
+		final int presolveSetting = iocp.getPresolve();
+		if (withStart) {
+			iocp.setPresolve(GLPK.GLP_OFF);
+		}
+		GlpkCallback.addListener(callback);
+		try {
+			return GLPK.glp_intopt(model, iocp);
+		} finally {
+			GlpkCallback.removeListener(callback);
+			iocp.setPresolve(presolveSetting);
+		}
+	}
+
+	/**
+	 * Solves the LP relaxation of the model with the simplex method.
+	 * 
+	 * @return True, if an optimal basis was found.
+	 */
+	private boolean solveRelaxation() {
+		final glp_smcp smcp = new glp_smcp();
+		try {
+			GLPK.glp_init_smcp(smcp);
+			return GLPK.glp_simplex(model, smcp) == 0 && GLPK.glp_get_status(model) == GLPK.GLP_OPT;
+		} finally {
+			smcp.delete();
+		}
+	}
+
+	/**
+	 * Callback of the branch-and-cut: Terminates the search, if cancel() was
+	 * called, and offers the start solution once, when the search asks for
+	 * heuristic solutions. GLPK rejects start solutions that are not feasible.
+	 */
+	private class SearchCallback implements GlpkCallbackListener {
+
+		private final double[] values;
+		private boolean offered = false;
+
+		private SearchCallback(final double[] values) {
+			this.values = values;
+		}
+
+		@Override
+		public void callback(final glp_tree tree) {
+			if (cancelRequested) {
+				GLPK.glp_ios_terminate(tree);
+				return;
+			}
+			if (values == null || offered || GLPK.glp_ios_reason(tree) != GLPK.GLP_IHEUR) {
+				return;
+			}
+			offered = true;
+			if (GLPK.glp_get_num_cols(GLPK.glp_ios_get_prob(tree)) != values.length) {
+				return;
+			}
+			final SWIGTYPE_p_double x = buffers.acquireDoubleArray(values.length + 1);
+			try {
+				for (int i = 0; i < values.length; i++) {
+					GLPK.doubleArray_setitem(x, i + 1, values[i]);
+				}
+				GLPK.glp_ios_heur_sol(tree, x);
+			} finally {
+				buffers.release(x);
+			}
+		}
+
+	}
+
 	@Override
 	public SolverOutput solve() {
+		cancelRequested = false;
+		return worker.call(this::optimize);
+	}
 
+	/**
+	 * Solves the GLPK model and determines the status of the solution.
+	 * 
+	 * @return Result of the solving process.
+	 */
+	private SolverOutput optimize() {
 		// Write the model in a file if output was enabled
 		if (this.outputPath != null) {
 			GLPK.glp_write_lp(model, null, this.outputPath);
@@ -321,13 +609,94 @@ public class GlpkSolver implements Solver {
 		// For GLPK all SolverConfigs have to set presolve to true.
 		// If set to false, an error occurs because glpk expects the problem object
 		// (model) to contain an optimal solution to the LP relaxation.
-		final int solveStatus = GLPK.glp_intopt(model, iocp);
+		// GLPK is single-threaded, it leases one core of the core budget
+		final CoreBudget.Lease lease = CoreBudget.acquire(1);
+		try {
+			if (config.getGlpkWorkerProcesses() > 0) {
+				return optimizeInWorkerProcess();
+			}
+			processValues = null;
+			if (cancelRequested) {
+				return toOutput(GLPK.GLP_ESTOP, GLPK.GLP_UNDEF, GLPK.GLP_UNDEF, 0);
+			}
+			final int solveStatus = intopt();
+			return toOutput(solveStatus, GLPK.glp_get_status(model), GLPK.glp_mip_status(model),
+					GLPK.glp_mip_obj_val(model));
+		} finally {
+			lease.release();
+		}
+	}
+
+	/**
+	 * Solves the model in a GLPK worker process. The model is passed in the GLPK
+	 * plain problem format via a temporary file. Start solutions are not passed.
+	 * 
+	 * @return Result of the solving process.
+	 * @see SolverConfig#getGlpkWorkerProcesses()
+	 */
+	private SolverOutput optimizeInWorkerProcess() {
+		start = null;
+		processValues = null;
+		final File file;
+		try {
+			file = File.createTempFile("emoflon-ilp-", ".glpk");
+		} catch (final IOException e) {
+			throw new RuntimeException(e);
+		}
 
+		GlpkProcessPool.Handle process = null;
+		boolean healthy = false;
+		try {
+			if (GLPK.glp_write_prob(model, 0, file.getPath()) != 0) {
+				throw new RuntimeException("GLPK: The model could not be written to " + file.getPath() + ".");
+			}
+			process = GlpkProcessPool.shared().acquire(config.getGlpkWorkerProcesses());
+			activeProcess = process;
+			if (cancelRequested) {
+				healthy = true;
+				return toOutput(GLPK.GLP_ESTOP, GLPK.GLP_UNDEF, GLPK.GLP_UNDEF, 0);
+			}
+
+			final GlpkProcessPool.Result result = process.solve(file.getPath(), iocp, config.isDebugOutputEnabled());
+			healthy = true;
+			processValues = result.values;
+			return toOutput(result.solveStatus, result.modelStatus, result.mipModelStatus, result.objVal);
+		} catch (final IOException e) {
+			// The process was killed by cancel() or terminated by a native fault
+			if (cancelRequested) {
+				return toOutput(GLPK.GLP_ESTOP, GLPK.GLP_UNDEF, GLPK.GLP_UNDEF, 0);
+			}
+			throw new RuntimeException("GLPK: The worker process terminated unexpectedly.", e);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} finally {
+			activeProcess = null;
+			if (process != null) {
+				GlpkProcessPool.shared().release(process, healthy);
+			}
+			file.delete();
+		}
+	}
+
+	/**
+	 * Determines the status of the solution from the status codes of GLPK.
+	 * 
+	 * @param solveStatus    Return value of glp_intopt.
+	 * @param modelStatus    Status of the basic solution (glp_get_status).
+	 * @param mipModelStatus Status of the MIP solution (glp_mip_status).
+	 * @param objVal         Objective value of the MIP solution.
+	 * @return Result of the solving process.
+	 */
+	private SolverOutput toOutput(final int solveStatus, final int modelStatus, final int mipModelStatus,
+			final double objVal) {
 		// MIP problem instance successfully solved (does not have to be the optimal
 		// solution)
 		final boolean solved = solveStatus == 0;
 		// time limit exceeded -> search prematurely terminated
 		final boolean timeOut = solveStatus == GLPK.GLP_ETMLIM;
+		// search terminated by cancel()
+		final boolean interrupted = solveStatus == GLPK.GLP_ESTOP;
 
 		// not a return value that glp_intopt returns
 		// invalid basis
@@ -341,8 +710,6 @@ public class GlpkSolver implements Solver {
 
 		// get_status returns the generic status of the current basic solution
 		// GLP_OPT, GLP_FEAS, GLP_INFEAS, GLP_NOFEAS, GLP_UNBND, GLP_UNDEF
-		final int modelStatus = GLPK.glp_get_status(model);
-
 		final boolean optimal = modelStatus == GLPK.GLP_OPT;
 		final boolean feasible = modelStatus == GLPK.GLP_FEAS;
 		final boolean infeasible = modelStatus == GLPK.GLP_INFEAS;
@@ -352,8 +719,6 @@ public class GlpkSolver implements Solver {
 
 		// mip_status returns the status of a MIP solution found by the MIP solver
 		// GLP_UNDEF, GLP_OPT, GLP_FEAS, GLP_NOFEAS
-		final int mipModelStatus = GLPK.glp_mip_status(model);
-
 		// final boolean mip_undefined = mipModelStatus == GLPK.GLP_UNDEF;
 		final boolean mip_optimal = mipModelStatus == GLPK.GLP_OPT;
 		final boolean mip_feasible = mipModelStatus == GLPK.GLP_FEAS;
@@ -371,6 +736,9 @@ public class GlpkSolver implements Solver {
 		} else if (timeOut) {
 			status = SolverStatus.TIME_OUT;
 			solutionCount = solved ? 1 : 0;
+		} else if (interrupted) {
+			status = SolverStatus.INTERRUPTED;
+			solutionCount = mip_feasible || mip_optimal ? 1 : 0;
 		} else if (infeasible || noPrimalFeasSol || noFeasibleSol || modelStatus == 1 || mip_noFeasibleSol
 				|| noDualFeasSol) {
 			status = SolverStatus.INFEASIBLE;
@@ -384,48 +752,112 @@ public class GlpkSolver implements Solver {
 			throw new RuntimeException("GLPK: Solver status could not be determined.");
 		}
 
-		this.result = new SolverOutput(status, GLPK.glp_mip_obj_val(model), solutionCount);
+		this.result = new SolverOutput(status, objVal, solutionCount);
 		return this.result;
 	}
 
 	@Override
-	public void updateValuesFromSolution() {
+	public CompletableFuture<SolverOutput> solveAsync() {
+		return solveAsync(AsyncSolve.defaultExecutor());
+	}
+
+	@Override
+	public CompletableFuture<SolverOutput> solveAsync(Executor executor) {
+		cancelRequested = false;
+		return AsyncSolve.solveAsync(this, () -> worker.call(this::optimize), executor);
+	}
+
+	@Override
+	public void cancel() {
+		cancelRequested = true;
+		final GlpkProcessPool.Handle process = activeProcess;
+		if (process != null) {
+			process.destroy();
+		}
+	}
 
-		Map<String, Variable<?>> objVars = this.problem.getVariables();
+	@Override
+	public void updateValuesFromSolution() {
 
-		for (final String name : problem.getVariables().keySet()) {
+		// Values of the variables removed by presolve are restored by the postsolve
+		final List<Variable<?>> objVars = this.presolve.getOriginal().getVariableList();
+		final double[] values = getSolutionValues();
 
-			// Save result value
+		for (int i = 0; i < objVars.size(); i++) {
+			// Save result value (binary and integer variables round the value)
 			// TODO: (future work) configuration for round in SolverConfig
-			Variable<?> objVar = objVars.get(name);
-			if (objVar instanceof BinaryVariable) {
-				long val = Math.round(GLPK.glp_mip_col_val(model, indexNameMap.get(objVar.getName())));
-				if (val >= 1) {
-					((BinaryVariable) objVar).setValue(1);
-				} else {
-					((BinaryVariable) objVar).setValue(0);
-				}
-			} else if (objVar instanceof IntegerVariable) {
-				((IntegerVariable) objVar)
-						.setValue((int) Math.round(GLPK.glp_mip_col_val(model, indexNameMap.get(objVar.getName()))));
-			} else if (objVar instanceof RealVariable) {
-				((RealVariable) objVar).setValue(GLPK.glp_mip_col_val(model, indexNameMap.get(objVar.getName())));
-			} else {
-				throw new Error("This variable type is not implemented!");
-			}
+			objVars.get(i).setValueDouble(values[i]);
+		}
+	}
+
+	@Override
+	public double[] getSolutionValues() {
+		return worker.call(this::readSolutionValues);
+	}
 
+	private double[] readSolutionValues() {
+		if (processValues != null) {
+			return presolve.postsolve(processValues.clone());
+		}
+		// glpk has no bulk access to the column values
+		final double[] values = new double[problem.getVariableCount()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = GLPK.glp_mip_col_val(model, i + 1);
+		}
+		return presolve.postsolve(values);
+	}
+
+	/**
+	 * Returns the number of bytes of native (SWIG) arrays that are currently
+	 * allocated by this solver. After terminate() this is always 0.
+	 * 
+	 * @return Number of outstanding native bytes.
+	 */
+	public long getOutstandingNativeBytes() {
+		return buffers.getOutstandingBytes();
+	}
+
+	/**
+	 * Deletes the glpk problem and its parameters, if they were not deleted, yet.
+	 */
+	private void deleteModel() {
+		if (model != null) {
+			// The problem object is owned by glpk, glp_prob.delete() would only drop the
+			// Java reference
+			GLPK.glp_delete_prob(model);
+			model = null;
+		}
+		if (iocp != null) {
+			iocp.delete();
+			iocp = null;
 		}
+		rows.clear();
+		rowNames.clear();
+		boundDependent = null;
+		processValues = null;
+		presolve = null;
+		source = null;
+		start = null;
 	}
 
 	@Override
 	public void terminate() {
-		model.delete();
-		iocp.delete();
+		// The GLPK environment of the worker thread is freed with the thread
+		worker.run(() -> {
+			deleteModel();
+			buffers.free();
+			GLPK.glp_free_env();
+		});
+		worker.shutdown();
 	}
 
 	@Override
 	public void reset() {
-		init();
+		// The native buffers are kept for the next problem
+		worker.run(() -> {
+			deleteModel();
+			init();
+		});
 	}
 
 }
\ No newline at end of file
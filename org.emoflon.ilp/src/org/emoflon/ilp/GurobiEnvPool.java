@@ -0,0 +1,109 @@
+package org.emoflon.ilp;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.gurobi.gurobi.GRB.IntParam;
+import com.gurobi.gurobi.GRBEnv;
+import com.gurobi.gurobi.GRBException;
+
+/**
+ * This class pools Gurobi environments, so that the license check-out and the
+ * log file are not repeated for every solver. <br>
+ * <br>
+ *
+ * Gurobi environments must not be used by several threads at the same time.
+ * Therefore, an environment is lent to one solver until it is released. The
+ * environments are keyed by the settings that are made on the environment
+ * itself (log file and output), all other parameters are set on the models.
+ *
+ * @see GurobiSolver
+ */
+final class GurobiEnvPool {
+
+	private static final String LOG_FILE = "Gurobi_ILP.log";
+
+	private static final GurobiEnvPool shared = new GurobiEnvPool();
+
+	// Idle environments per key
+	private final Map<String, Deque<GRBEnv>> idle = new HashMap<String, Deque<GRBEnv>>();
+	// Key of every lent environment
+	private final Map<GRBEnv, String> lent = new IdentityHashMap<GRBEnv, String>();
+
+	private GurobiEnvPool() {
+	}
+
+	/**
+	 * Returns the pool shared by all Gurobi solvers.
+	 *
+	 * @return Shared pool.
+	 */
+	static GurobiEnvPool shared() {
+		return shared;
+	}
+
+	/**
+	 * Returns an idle environment for the given configuration or creates a new
+	 * one.
+	 *
+	 * @param config Configuration of the solver.
+	 * @return Environment to be released with release().
+	 * @throws GRBException if a new environment can not be created.
+	 */
+	GRBEnv acquire(final SolverConfig config) throws GRBException {
+		final String key = LOG_FILE + (config.isDebugOutputEnabled() ? "" : ":silent");
+		synchronized (this) {
+			final Deque<GRBEnv> envs = idle.get(key);
+			if (envs != null && !envs.isEmpty()) {
+				final GRBEnv env = envs.pop();
+				lent.put(env, key);
+				return env;
+			}
+		}
+
+		// Creating an environment is slow, other solvers are not blocked meanwhile
+		final GRBEnv env = new GRBEnv(LOG_FILE);
+		if (!config.isDebugOutputEnabled()) {
+			env.set(IntParam.OutputFlag, 0);
+		}
+		synchronized (this) {
+			lent.put(env, key);
+		}
+		return env;
+	}
+
+	/**
+	 * Returns an environment to the pool. All models of the environment have to
+	 * be disposed before.
+	 *
+	 * @param env Environment returned by acquire().
+	 */
+	synchronized void release(final GRBEnv env) {
+		final String key = lent.remove(env);
+		if (key == null) {
+			throw new Error("The environment was not lent by this pool.");
+		}
+		idle.computeIfAbsent(key, k -> new ArrayDeque<GRBEnv>()).push(env);
+	}
+
+	/**
+	 * Disposes all idle environments, which releases their licenses. Lent
+	 * environments are not affected.
+	 */
+	synchronized void disposeIdle() {
+		for (Deque<GRBEnv> envs : idle.values()) {
+			for (GRBEnv env : envs) {
+				try {
+					env.dispose();
+				} catch (final GRBException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+		idle.clear();
+	}
+
+}
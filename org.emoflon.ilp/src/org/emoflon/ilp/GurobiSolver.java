@@ -3,11 +3,15 @@ package org.emoflon.ilp;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import com.gurobi.gurobi.GRB;
 import com.gurobi.gurobi.GRB.DoubleAttr;
 import com.gurobi.gurobi.GRB.DoubleParam;
 import com.gurobi.gurobi.GRB.IntParam;
+import com.gurobi.gurobi.GRBCallback;
+import com.gurobi.gurobi.GRBConstr;
 import com.gurobi.gurobi.GRBEnv;
 import com.gurobi.gurobi.GRBException;
 import com.gurobi.gurobi.GRBLinExpr;
@@ -22,12 +26,36 @@ import com.gurobi.gurobi.GRBVar;
  */
 public class GurobiSolver implements Solver {
 
+	/**
+	 * Gurobi supports SOS1 constraints natively, Or constraints are translated with
+	 * indicator constraints.
+	 */
+	private static final SolverCapabilities CAPABILITIES = new SolverCapabilities(true, true);
+
+	/**
+	 * Substitutions needed before a problem can be translated for this solver.
+	 */
+	private static final ProblemTransformer TRANSFORMER = ProblemTransformer.forCapabilities(CAPABILITIES);
+
 	private GRBEnv env;
 	private GRBModel model;
 	private String outputPath;
 	final private SolverConfig config;
-	private final HashMap<String, GRBVar> grbVars = new HashMap<>();
+	private GRBVar[] grbVars = new GRBVar[0];
+	// Linear rows of the model by constraint name, for incremental changes
+	private Map<String, GRBConstr> rows = new HashMap<String, GRBConstr>();
 	private Problem problem;
+	// Problem given to the last build, its changes may be applied incrementally
+	private Problem source;
+	// Presolve of the lowered problem, the reduced problem is translated
+	private PresolveResult presolve;
+	// Start solution for the next solve, indexed like grbVars
+	private double[] start;
+	// Gurobi keeps the start attribute, it has to be cleared after a solve
+	private boolean startApplied;
+	// Set by cancel(), checked in the callback of the optimization. Reset when a
+	// solve is submitted, so a cancel() before the optimization starts is not lost
+	private volatile boolean cancelRequested = false;
 	private SolverOutput result;
 
 	/**
@@ -52,97 +80,187 @@ public class GurobiSolver implements Solver {
 	 * @throws GRBException
 	 */
 	private void init() throws GRBException {
-		// create new Gurobi Environment
-		env = new GRBEnv("Gurobi_ILP.log");
+		// get a pooled Gurobi Environment, it is kept until terminate()
+		if (env == null) {
+			env = GurobiEnvPool.shared().acquire(config);
+		}
 
-		// set configuration parameters
+		// create new Gurobi Model/Problem
+		model = new GRBModel(env);
+		model.setCallback(new CancelCallback());
+
+		// set configuration parameters on the model, the environment is shared
 		// Presolve?
-		env.set(IntParam.Presolve, config.isPresolveEnabled() ? 1 : 0);
+		model.set(IntParam.Presolve, config.isPresolveEnabled() ? 1 : 0);
 		// Random Seed?
 		if (config.isRandomSeedEnabled()) {
-			env.set(IntParam.Seed, config.getRandomSeed());
-		}
-		// Output?
-		if (!config.isDebugOutputEnabled()) {
-			env.set(IntParam.OutputFlag, 0);
+			model.set(IntParam.Seed, config.getRandomSeed());
 		}
+		// Output is set on the environment by the pool
 		// Tolerance?
 		if (config.isToleranceEnabled()) {
-			env.set(DoubleParam.OptimalityTol, config.getTolerance());
-			env.set(DoubleParam.IntFeasTol, config.getTolerance());
+			model.set(DoubleParam.OptimalityTol, config.getTolerance());
+			model.set(DoubleParam.IntFeasTol, config.getTolerance());
 		}
 		// Timeout?
 		if (config.isTimeoutEnabled()) {
-			env.set(DoubleParam.TimeLimit, config.getTimeout());
+			model.set(DoubleParam.TimeLimit, config.getTimeout());
+		}
+		// Concurrent MIP?
+		if (config.getConcurrentMIP() > 0) {
+			model.set(IntParam.ConcurrentMIP, config.getConcurrentMIP());
 		}
-
-		// create new Gurobi Model/Problem
-		model = new GRBModel(env);
 
 		// set output path, if configured
 		if (config.isOutputEnabled()) {
 			this.outputPath = config.getOutputPath();
 		}
 
-		grbVars.clear();
+		grbVars = new GRBVar[0];
+		rows = new HashMap<String, GRBConstr>();
+		presolve = null;
+		source = null;
+		start = null;
+		startApplied = false;
+
+	}
 
+	@Override
+	public SolverCapabilities getCapabilities() {
+		return CAPABILITIES;
 	}
 
 	@Override
 	public void buildILPProblem(Problem problem) {
-		this.problem = problem;
 		problem.validateConstraints();
 
-		// Substitute Or Constraints
-		problem.substituteOr();
+		// Apply only the changes since the last build, if possible
+		if (IncrementalChanges.canApplyChanges(this, this.source, this.presolve, problem)) {
+			IncrementalChanges.applyChanges(this, problem);
+			return;
+		}
+		// A model built before is discarded
+		if (this.presolve != null) {
+			reset();
+		}
+
+		// Substitute <, > Operators and quadratic != Operators on a copy of the
+		// problem, linear != Operators become Or Constraints. The given problem is
+		// not changed
+		final Problem lowered = TRANSFORMER.transform(problem);
 
-		// Substitute <, >, != Operators
-		problem.substituteOperators();
+		// Reduce the lowered problem, if enabled
+		this.presolve = config.isJavaPresolveEnabled() ? new Presolver(config).presolve(lowered)
+				: PresolveResult.identity(lowered);
+		this.problem = this.presolve.getReduced();
+		this.source = problem;
 
 		// Initialize decision variables and objective
 		// Translate Variables
-		translateVariables(problem.getVariables());
+		translateVariables(this.problem.getVariableList());
 
 		// Translate Objective to GRB
 		translateObjective();
 
-		// Translate Normal Constraints
-		problem.getConstraints().forEach(it -> translateNormalConstraint(it));
+		// Translate Linear Constraints
+		translateLinearConstraints(this.problem.getConstraintMatrix());
+
+		// Translate Quadratic Constraints
+		this.problem.getConstraintsView().stream().filter(QuadraticConstraint.class::isInstance)
+				.forEach(it -> translateNormalConstraint(it));
 
 		// Translate General Constraints
-		problem.getGeneralConstraints().forEach(it -> translateGeneralConstraint(it));
+		this.problem.forEachGeneralConstraint(it -> translateGeneralConstraint(it));
 
 		// Translate SOS Constraints
-		problem.getSOSConstraints().forEach(it -> translateSOSConstraint(it));
+		this.problem.forEachSOSConstraint(it -> translateSOSConstraint(it));
+
+		// Translate Or Constraints
+		this.problem.forEachOrConstraint(it -> translateOrConstraint(it));
+
+		// Later changes of the problem are relative to this build
+		problem.clearChanges(this);
 	}
 
 	/**
-	 * Translates the variables to Gurobi variables.
+	 * Translates the variables to Gurobi variables. All variables are added to the
+	 * model with a single call.
 	 * 
-	 * @param vars A map of the variables to be translated.
+	 * @param vars A list of the variables to be translated, ordered by index.
 	 */
-	private void translateVariables(Map<String, Variable<?>> vars) {
-		GRBVar temp = null;
-		for (final String name : vars.keySet()) {
-
-			switch (vars.get(name).getType()) {
+	private void translateVariables(List<Variable<?>> vars) {
+		final int size = vars.size();
+		final double[] lbs = new double[size];
+		final double[] ubs = new double[size];
+		final char[] types = new char[size];
+		final String[] names = new String[size];
+
+		for (int i = 0; i < size; i++) {
+			final Variable<?> var = vars.get(i);
+			double lb = var.lowerBoundAsDouble();
+			double ub = var.upperBoundAsDouble();
+
+			switch (var.getType()) {
 			case BINARY:
-				temp = translateBinaryVariable((BinaryVariable) vars.get(name));
+				types[i] = GRB.BINARY;
 				break;
 			case INTEGER:
-				temp = translateIntegerVariable((IntegerVariable) vars.get(name));
+				// Check if other bounds are defined in the solver config
+				if (config.isBoundsEnabled()) {
+					if (((IntegerVariable) var).isDefaultLowerBound()) {
+						lb = config.getLowerBound();
+						((IntegerVariable) var).setLowerBound((int) lb);
+					}
+					if (((IntegerVariable) var).isDefaultUpperBound()) {
+						ub = config.getUpperBound();
+						((IntegerVariable) var).setUpperBound((int) ub);
+					}
+				}
+				types[i] = GRB.INTEGER;
 				break;
 			case REAL:
-				temp = translateRealVariable((RealVariable) vars.get(name));
+				// Check if other bounds are defined in the solver config
+				if (config.isBoundsEnabled()) {
+					if (((RealVariable) var).isDefaultLowerBound()) {
+						lb = config.getLowerBound();
+						((RealVariable) var).setLowerBound(lb);
+					}
+					if (((RealVariable) var).isDefaultUpperBound()) {
+						ub = config.getUpperBound();
+						((RealVariable) var).setUpperBound(ub);
+					}
+				}
+				types[i] = GRB.CONTINUOUS;
 				break;
 			default:
 				throw new UnsupportedOperationException("This variable type is not known.");
 			}
 
-			grbVars.put(name, temp);
+			if (lb > ub) {
+				throw new IllegalArgumentException("The lower bound is not allowed to be greater than the upper bound.");
+			}
+			lbs[i] = lb;
+			ubs[i] = ub;
+			names[i] = var.getName();
+		}
+
+		try {
+			grbVars = model.addVars(lbs, ubs, null, types, names);
+		} catch (GRBException e) {
+			throw new RuntimeException(e);
 		}
 	}
 
+	/**
+	 * Returns the Gurobi variable for the given variable of the problem.
+	 * 
+	 * @param var Variable of the problem.
+	 * @return Translated Gurobi variable.
+	 */
+	private GRBVar grbVar(Variable<?> var) {
+		return grbVars[problem.getVariableIndex(var)];
+	}
+
 	/**
 	 * Translates the objective function and sets the Gurobi objective.
 	 */
@@ -156,10 +274,9 @@ public class GurobiSolver implements Solver {
 		// Add Terms
 		for (Term term : obj.getTerms()) {
 			if (term instanceof LinearTerm) {
-				expr.addTerm(term.getWeight(), grbVars.get(term.getVar1().getName()));
+				expr.addTerm(term.getWeight(), grbVar(term.getVar1()));
 			} else {
-				expr.addTerm(term.getWeight(), grbVars.get(term.getVar1().getName()),
-						grbVars.get(((QuadraticTerm) term).getVar2().getName()));
+				expr.addTerm(term.getWeight(), grbVar(term.getVar1()), grbVar(((QuadraticTerm) term).getVar2()));
 			}
 
 		}
@@ -200,6 +317,49 @@ public class GurobiSolver implements Solver {
 		}
 	}
 
+	/**
+	 * Translates the rows of the constraint matrix into Gurobi constraints and adds
+	 * them to the model. The coefficients of all rows are taken from the contiguous
+	 * arrays of the matrix.
+	 * 
+	 * @param matrix Constraint matrix of the linear constraints.
+	 */
+	private void translateLinearConstraints(ConstraintMatrix matrix) {
+		final int[] rowStarts = matrix.getRowStarts();
+		final int[] columns = matrix.getColumns();
+		final double[] values = matrix.getValues();
+
+		// Gurobi variables in the same order as the non-zero entries of the matrix
+		final GRBVar[] vars = new GRBVar[columns.length];
+		for (int k = 0; k < columns.length; k++) {
+			vars[k] = grbVars[columns[k]];
+		}
+
+		final int rowCount = matrix.getRowCount();
+		final GRBLinExpr[] exprs = new GRBLinExpr[rowCount];
+		final char[] senses = new char[rowCount];
+		final double[] rhss = new double[rowCount];
+		final String[] names = new String[rowCount];
+
+		try {
+			for (int row = 0; row < rowCount; row++) {
+				exprs[row] = new GRBLinExpr();
+				exprs[row].addTerms(values, vars, rowStarts[row], rowStarts[row + 1] - rowStarts[row]);
+				senses[row] = translateOp(matrix.getOperator(row));
+				rhss[row] = matrix.getRhs(row);
+				names[row] = matrix.getConstraint(row).getName();
+			}
+
+			// Add all rows with a single call
+			final GRBConstr[] constrs = model.addConstrs(exprs, senses, rhss, names);
+			for (int row = 0; row < rowCount; row++) {
+				rows.put(names[row], constrs[row]);
+			}
+		} catch (GRBException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
 	/**
 	 * Translates a normal constraint into a Gurobi constraint and adds it to the
 	 * model.
@@ -215,7 +375,7 @@ public class GurobiSolver implements Solver {
 		case LINEAR:
 			GRBLinExpr tempLin = new GRBLinExpr();
 			for (Term term : lhs) {
-				tempLin.addTerm(term.getWeight(), grbVars.get(term.getVar1().getName()));
+				tempLin.addTerm(term.getWeight(), grbVar(term.getVar1()));
 			}
 			try {
 				model.addConstr(tempLin, op, rhs, constraint.getName());
@@ -227,10 +387,10 @@ public class GurobiSolver implements Solver {
 			GRBQuadExpr tempQuad = new GRBQuadExpr();
 			for (Term term : lhs) {
 				if (term instanceof LinearTerm) {
-					tempQuad.addTerm(term.getWeight(), grbVars.get(term.getVar1().getName()));
+					tempQuad.addTerm(term.getWeight(), grbVar(term.getVar1()));
 				} else {
-					tempQuad.addTerm(term.getWeight(), grbVars.get(term.getVar1().getName()),
-							grbVars.get(((QuadraticTerm) term).getVar2().getName()));
+					tempQuad.addTerm(term.getWeight(), grbVar(term.getVar1()),
+							grbVar(((QuadraticTerm) term).getVar2()));
 				}
 			}
 			try {
@@ -270,18 +430,14 @@ public class GurobiSolver implements Solver {
 		case OR:
 			throw new Error("Or Constraints are not general constraints!");
 		case GUROBI_OR:
-			GRBVar[] grbVars = new GRBVar[var.size()];
+			// All variables of general constraints are part of the problem and have
+			// already been translated
+			GRBVar[] orVars = new GRBVar[var.size()];
 			try {
 				for (int i = 0; i < var.size(); i++) {
-					model.update();
-					if (this.grbVars.containsKey(var.get(i).getName())) {
-						grbVars[i] = model.getVarByName(var.get(i).getName());
-					} else {
-						grbVars[i] = translateBinaryVariable((BinaryVariable) var.get(i));
-					}
+					orVars[i] = grbVar(var.get(i));
 				}
-				model.addGenConstrOr(model.addVar(0.0, 1.0, 0.0, GRB.BINARY, res.getName()), grbVars,
-						constraint.getName());
+				model.addGenConstrOr(grbVar(res), orVars, constraint.getName());
 			} catch (GRBException e) {
 				throw new RuntimeException(e);
 			}
@@ -298,22 +454,12 @@ public class GurobiSolver implements Solver {
 	 */
 	private void translateSOSConstraint(SOS1Constraint constraint) {
 		List<Variable<?>> var = constraint.getVariables();
+		// All variables of SOS constraints are part of the problem and have already
+		// been translated
 		GRBVar[] sosVars = new GRBVar[var.size()];
 		try {
 			for (int i = 0; i < var.size(); i++) {
-
-				model.update();
-				if (grbVars.containsKey(var.get(i).getName())) {
-					sosVars[i] = model.getVarByName(var.get(i).getName());
-				} else if (var.get(i) instanceof BinaryVariable) {
-					sosVars[i] = translateBinaryVariable((BinaryVariable) var.get(i));
-				} else if (var.get(i) instanceof IntegerVariable) {
-					sosVars[i] = translateIntegerVariable((IntegerVariable) var.get(i));
-				} else if (var.get(i) instanceof RealVariable) {
-					sosVars[i] = translateRealVariable((RealVariable) var.get(i));
-				} else {
-					throw new Error("This variable type should not be possible!");
-				}
+				sosVars[i] = grbVar(var.get(i));
 			}
 
 			model.addSOS(sosVars, constraint.getWeights(), GRB.SOS_TYPE1);
@@ -324,115 +470,188 @@ public class GurobiSolver implements Solver {
 	}
 
 	/**
-	 * Translates a binary variable into a Gurobi variable and adds it to the model.
+	 * Translates an Or constraint with indicator constraints and adds it to the
+	 * model. Every disjunct gets a binary indicator variable that enforces the
+	 * disjunct if it is 1, and at least one of the indicators has to be 1. The
+	 * indicator variables are not part of the problem.
 	 * 
-	 * @param variable Binary variable to be translated and added.
-	 * @return Translated Gurobi variable.
+	 * @param constraint Or constraint to be translated and added.
 	 */
-	private GRBVar translateBinaryVariable(BinaryVariable variable) {
+	private void translateOrConstraint(OrConstraint constraint) {
+		List<LinearConstraint> disjuncts = constraint.getNonStrictDisjuncts();
+		GRBLinExpr any = new GRBLinExpr();
 		try {
-			if (variable.getLowerBound() > variable.getUpperBound()) {
-				throw new IllegalArgumentException(
-						"The lower bound is not allowed to be greater than the upper bound.");
+			for (int i = 0; i < disjuncts.size(); i++) {
+				LinearConstraint disjunct = disjuncts.get(i);
+				String name = constraint.getName() + NameGenerator.SEPARATOR + i;
+				GRBVar indicator = model.addVar(0.0, 1.0, 0.0, GRB.BINARY, name);
+
+				GRBLinExpr expr = new GRBLinExpr();
+				for (Term term : disjunct.getLhsTerms()) {
+					expr.addTerm(term.getWeight(), grbVar(term.getVar1()));
+				}
+				model.addGenConstrIndicator(indicator, 1, expr, translateOp(disjunct.getOp()), disjunct.getRhs(),
+						name);
+				any.addTerm(1.0, indicator);
 			}
-			return model.addVar(variable.getLowerBound(), variable.getUpperBound(), 0.0, GRB.BINARY,
-					variable.getName());
+			model.addConstr(any, GRB.GREATER_EQUAL, 1.0, constraint.getName());
 		} catch (GRBException e) {
 			throw new RuntimeException(e);
 		}
 	}
 
 	/**
-	 * Translates an integer variable into a Gurobi variable and adds it to the
-	 * model.
+	 * Translates the operator used in constraints into a Gurobi operator.
 	 * 
-	 * @param variable Integer variable to be translated and added.
-	 * @return Translated Gurobi variable.
+	 * @param op Operator to be translated.
+	 * @return Gurobi operator value.
 	 */
-	private GRBVar translateIntegerVariable(IntegerVariable variable) {
-		try {
-			int lb = variable.getLowerBound();
-			int ub = variable.getUpperBound();
+	private char translateOp(Operator op) {
+		switch (op) {
+		case LESS:
+			throw new Error("All constraints with this operator should already have been converted!");
+		case LESS_OR_EQUAL:
+			return GRB.LESS_EQUAL;
+		case EQUAL:
+			return GRB.EQUAL;
+		case GREATER_OR_EQUAL:
+			return GRB.GREATER_EQUAL;
+		case GREATER:
+			throw new Error("All constraints with this operator should already have been converted!");
+		default: // NOT_EQUAL
+			throw new Error("All constraints with this operator should already have been converted!");
+		}
+	}
 
-			if (config.isBoundsEnabled()) {
-				if (variable.isDefaultLowerBound()) {
-					lb = config.getLowerBound();
-					variable.setLowerBound((int) lb);
-				}
-				if (variable.isDefaultUpperBound()) {
-					ub = config.getUpperBound();
-					variable.setUpperBound((int) ub);
-				}
-			}
-			if (lb > ub) {
-				throw new IllegalArgumentException(
-						"The lower bound is not allowed to be greater than the upper bound.");
-			}
+	@Override
+	public void setVariableBounds(Variable<?> var, double lowerBound, double upperBound) {
+		IncrementalChanges.beginModification(this, source, presolve);
+		IncrementalChanges.checkBounds(lowerBound, upperBound);
+		try {
+			final GRBVar grbVar = grbVar(var);
+			grbVar.set(DoubleAttr.LB, lowerBound);
+			grbVar.set(DoubleAttr.UB, upperBound);
+		} catch (GRBException e) {
+			throw new RuntimeException(e);
+		}
+	}
 
-			return model.addVar(lb, ub, 0.0, GRB.INTEGER, variable.getName());
+	@Override
+	public void addConstraint(LinearConstraint constraint) {
+		IncrementalChanges.beginModification(this, source, presolve);
+		final LinearConstraint row = IncrementalChanges.prepare(problem, constraint);
+		if (rows.containsKey(row.getName())) {
+			throw new IllegalArgumentException("The constraint " + row.getName() + " is already part of the model.");
+		}
 
+		final GRBLinExpr expr = new GRBLinExpr();
+		for (Term term : row.getLhsTerms()) {
+			expr.addTerm(term.getWeight(), grbVar(term.getVar1()));
+		}
+		try {
+			rows.put(row.getName(), model.addConstr(expr, translateOp(row.getOp()), row.getRhs(), row.getName()));
 		} catch (GRBException e) {
 			throw new RuntimeException(e);
 		}
 	}
 
-	/**
-	 * Translates a real variable into a Gurobi variable and adds it to the model.
-	 * 
-	 * @param variable Real variable to be translated and added.
-	 * @return Translated Gurobi variable.
-	 */
-	private GRBVar translateRealVariable(RealVariable variable) {
+	@Override
+	public boolean removeConstraint(LinearConstraint constraint) {
+		IncrementalChanges.beginModification(this, source, presolve);
+		final GRBConstr row = rows.remove(constraint.getName());
+		if (row == null) {
+			return false;
+		}
 		try {
-			double lb = variable.getLowerBound();
-			double ub = variable.getUpperBound();
+			model.remove(row);
+		} catch (GRBException e) {
+			throw new RuntimeException(e);
+		}
+		return true;
+	}
 
-			if (config.isBoundsEnabled()) {
-				if (variable.isDefaultLowerBound()) {
-					lb = config.getLowerBound();
-					variable.setLowerBound(lb);
-				}
-				if (variable.isDefaultUpperBound()) {
-					ub = config.getUpperBound();
-					variable.setUpperBound(ub);
-				}
-			}
-			if (lb > ub) {
-				throw new IllegalArgumentException(
-						"The lower bound is not allowed to be greater than the upper bound.");
-			}
+	@Override
+	public void setObjectiveCoefficient(Variable<?> var, double coefficient) {
+		IncrementalChanges.beginModification(this, source, presolve);
+		try {
+			grbVar(var).set(DoubleAttr.Obj, coefficient);
+		} catch (GRBException e) {
+			throw new RuntimeException(e);
+		}
+	}
 
-			return model.addVar(lb, ub, 0.0, GRB.CONTINUOUS, variable.getName());
+	@Override
+	public void setRhs(LinearConstraint constraint, double rhs) {
+		IncrementalChanges.beginModification(this, source, presolve);
+		final GRBConstr row = rows.get(constraint.getName());
+		if (row == null) {
+			throw new IllegalArgumentException("The constraint " + constraint.getName() + " is not part of the model.");
+		}
+		try {
+			row.set(DoubleAttr.RHS, IncrementalChanges.rowRhs(constraint, rhs));
 		} catch (GRBException e) {
 			throw new RuntimeException(e);
 		}
 	}
 
+	@Override
+	public void setStartSolution(double[] values) {
+		this.start = StartSolution.reduce(presolve, values);
+	}
+
+	@Override
+	public void setStartSolution(Map<Variable<?>, ? extends Number> values) {
+		this.start = StartSolution.reduce(presolve, values);
+	}
+
 	/**
-	 * Translates the operator used in constraints into a Gurobi operator.
+	 * Sets the start attribute of all variables to the start solution for the
+	 * next solve, undefined values are cleared.
 	 * 
-	 * @param op Operator to be translated.
-	 * @return Gurobi operator value.
+	 * @throws GRBException
 	 */
-	private char translateOp(Operator op) {
-		switch (op) {
-		case LESS:
-			throw new Error("All constraints with this operator should already have been converted!");
-		case LESS_OR_EQUAL:
-			return GRB.LESS_EQUAL;
-		case EQUAL:
-			return GRB.EQUAL;
-		case GREATER_OR_EQUAL:
-			return GRB.GREATER_EQUAL;
-		case GREATER:
-			throw new Error("All constraints with this operator should already have been converted!");
-		default: // NOT_EQUAL
-			throw new Error("All constraints with this operator should already have been converted!");
+	private void applyStartSolution() throws GRBException {
+		final double[] values = StartSolution.next(start, presolve, config);
+		start = null;
+		if (values == null && !startApplied) {
+			return;
 		}
+		final double[] grbStart = new double[grbVars.length];
+		for (int i = 0; i < grbStart.length; i++) {
+			grbStart[i] = values == null || Double.isNaN(values[i]) ? GRB.UNDEFINED : values[i];
+		}
+		model.set(DoubleAttr.Start, grbVars, grbStart);
+		startApplied = values != null;
+	}
+
+	/**
+	 * Callback of the optimization: Terminates it, if cancel() was called since
+	 * the solve was submitted. model.terminate() alone has no effect before the
+	 * optimization started.
+	 */
+	private class CancelCallback extends GRBCallback {
+
+		@Override
+		protected void callback() {
+			if (cancelRequested) {
+				abort();
+			}
+		}
+
 	}
 
 	@Override
 	public SolverOutput solve() {
+		cancelRequested = false;
+		return optimize();
+	}
+
+	/**
+	 * Solves the Gurobi model and determines the status of the solution.
+	 * 
+	 * @return Result of the solving process.
+	 */
+	private SolverOutput optimize() {
 		SolverStatus status = null;
 		double objVal = -1;
 		int solCount = -1;
@@ -449,7 +668,16 @@ public class GurobiSolver implements Solver {
 		try {
 			model.update();
 
-			model.optimize();
+			applyStartSolution();
+
+			// Threads, limited by the core budget
+			final CoreBudget.Lease lease = CoreBudget.acquire(config.getThreads());
+			try {
+				model.set(IntParam.Threads, lease.getThreads());
+				model.optimize();
+			} finally {
+				lease.release();
+			}
 
 			final int grbStatus = model.get(GRB.IntAttr.Status);
 			solCount = model.get(GRB.IntAttr.SolCount);
@@ -475,6 +703,10 @@ public class GurobiSolver implements Solver {
 				status = SolverStatus.TIME_OUT;
 				objVal = model.get(GRB.DoubleAttr.ObjVal);
 			}
+			case GRB.INTERRUPTED -> {
+				status = SolverStatus.INTERRUPTED;
+				objVal = solCount > 0 ? model.get(GRB.DoubleAttr.ObjVal) : 0;
+			}
 			}
 		} catch (final GRBException e) {
 			throw new RuntimeException(e);
@@ -484,54 +716,85 @@ public class GurobiSolver implements Solver {
 		return this.result;
 	}
 
+	@Override
+	public CompletableFuture<SolverOutput> solveAsync() {
+		return solveAsync(AsyncSolve.defaultExecutor());
+	}
+
+	@Override
+	public CompletableFuture<SolverOutput> solveAsync(Executor executor) {
+		cancelRequested = false;
+		return AsyncSolve.solveAsync(this, this::optimize, executor);
+	}
+
+	@Override
+	public void cancel() {
+		cancelRequested = true;
+		final GRBModel model = this.model;
+		if (model != null) {
+			model.terminate();
+		}
+	}
+
 	@Override
 	public void updateValuesFromSolution() {
 		if (this.result.getStatus() == SolverStatus.INFEASIBLE || this.result.getStatus() == SolverStatus.INF_OR_UNBD) {
 			throw new RuntimeException(
 					"The problem status is " + this.result.getStatus() + " and therefore no values were found.");
 		}
-		Map<String, Variable<?>> objVars = this.problem.getVariables();
-
-		for (final String name : this.grbVars.keySet()) {
-			try {
-				// Save result value
-				// TODO: (future work) configuration for round in SolverConfig
-				Variable<?> objVar = objVars.get(name);
-				if (objVar instanceof BinaryVariable) {
-					long val = Math.round(this.grbVars.get(name).get(DoubleAttr.X));
-					if (val >= 1) {
-						((BinaryVariable) objVar).setValue(1);
-					} else {
-						((BinaryVariable) objVar).setValue(0);
-					}
-				} else if (objVar instanceof IntegerVariable) {
-					((IntegerVariable) objVar).setValue((int) Math.round(this.grbVars.get(name).get(DoubleAttr.X)));
-				} else if (objVar instanceof RealVariable) {
-					((RealVariable) objVar).setValue(this.grbVars.get(name).get(DoubleAttr.X));
-				} else {
-					throw new Error("This variable type is not implemented!");
-				}
-			} catch (final GRBException e) {
-				throw new RuntimeException(e);
-			}
+		// Values of the variables removed by presolve are restored by the postsolve
+		List<Variable<?>> objVars = this.presolve.getOriginal().getVariableList();
+		final double[] values = getSolutionValues();
+
+		for (int i = 0; i < objVars.size(); i++) {
+			// Save result value (binary and integer variables round the value)
+			// TODO: (future work) configuration for round in SolverConfig
+			objVars.get(i).setValueDouble(values[i]);
 		}
 	}
 
 	@Override
-	public void terminate() {
-		model.terminate();
-		model.dispose();
+	public double[] getSolutionValues() {
+		if (grbVars.length == 0) {
+			return presolve.postsolve(new double[0]);
+		}
 		try {
-			env.dispose();
+			return presolve.postsolve(model.get(DoubleAttr.X, grbVars));
 		} catch (final GRBException e) {
-			e.printStackTrace();
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public void terminate() {
+		if (model != null) {
+			model.terminate();
+			model.dispose();
+			model = null;
 		}
-		// env.release();
+		// The environment is kept for other solvers
+		if (env != null) {
+			GurobiEnvPool.shared().release(env);
+			env = null;
+		}
+	}
+
+	/**
+	 * Disposes the pooled Gurobi environments that are not used by a solver, which
+	 * releases their licenses. Environments of solvers that were not terminated
+	 * are not affected.
+	 */
+	public static void disposeIdleEnvironments() {
+		GurobiEnvPool.shared().disposeIdle();
 	}
 
 	@Override
 	public void reset() {
 		try {
+			// The environment is reused for the new model
+			if (model != null) {
+				model.dispose();
+			}
 			init();
 		} catch (final Exception e) {
 			throw new RuntimeException(e);
@@ -0,0 +1,262 @@
+package org.emoflon.ilp;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * This class contains the checks and conversions shared by the incremental
+ * modification methods of the solvers. <br>
+ * <br>
+ *
+ * Incremental changes are applied to the model built by the solver only, the
+ * problem formulation is not changed. They refer to variables and linear
+ * constraints by name, so they are also valid for the lowered copy of the
+ * problem that was translated. After a direct change, the next build of the
+ * problem rebuilds the model. applyChanges() registers the solver as builder
+ * again after its changes.
+ *
+ * @see Solver#addConstraint(LinearConstraint)
+ */
+final class IncrementalChanges {
+
+	private IncrementalChanges() {
+	}
+
+	/**
+	 * Checks that the model was built and can be changed incrementally. The model
+	 * differs from the built problem after the change, so the next build of the
+	 * problem by the solver rebuilds the model.
+	 *
+	 * @param solver   Solver whose model is changed.
+	 * @param built    Problem given to the last build of the solver or null.
+	 * @param presolve Presolve result of the built problem or null, if no problem
+	 *                 was built yet.
+	 * @throws IllegalStateException         if no problem was built yet.
+	 * @throws UnsupportedOperationException if the Java presolve reduced the
+	 *                                       problem.
+	 */
+	static void beginModification(final Solver solver, final Problem built, final PresolveResult presolve) {
+		if (presolve == null) {
+			throw new IllegalStateException("The problem has to be built before it can be changed.");
+		}
+		// Removed rows and tightened bounds may not be valid after a change
+		if (presolve.isReduced()) {
+			throw new UnsupportedOperationException(
+					"Incremental changes are not supported after the Java presolve reduced the problem.");
+		}
+		built.removeBuilder(solver);
+	}
+
+	/**
+	 * Returns if the changes of the given problem can be applied to the model the
+	 * solver built for it, instead of rebuilding the model. This is the case, if
+	 * the solver was the last one to build the problem and only linear
+	 * constraints (without the operator NOT_EQUAL) and bounds of existing
+	 * variables changed. The bounds of variables that the lowering depends on may
+	 * only be tightened, see boundDependentVariables().
+	 *
+	 * @param solver   Solver that may have built the problem.
+	 * @param built    Problem given to the last build of the solver.
+	 * @param presolve Presolve result of the last build of the solver.
+	 * @param problem  Problem to be built.
+	 * @return True, if the changes can be applied with applyChanges().
+	 */
+	static boolean canApplyChanges(final Solver solver, final Problem built, final PresolveResult presolve,
+			final Problem problem) {
+		if (built != problem || presolve == null || presolve.isReduced() || !problem.isBuiltBy(solver)) {
+			return false;
+		}
+		final ProblemChanges changes = problem.getChanges();
+		if (changes.isObjectiveChanged() || changes.isOtherChanged() || !changes.getAddedVariables().isEmpty()) {
+			return false;
+		}
+		for (NormalConstraint constraint : changes.getRemovedConstraints()) {
+			if (!(constraint instanceof LinearConstraint) || constraint.getOp() == Operator.NOT_EQUAL) {
+				return false;
+			}
+		}
+		for (NormalConstraint constraint : changes.getAddedConstraints()) {
+			if (!(constraint instanceof LinearConstraint) || constraint.getOp() == Operator.NOT_EQUAL) {
+				return false;
+			}
+		}
+		if (!changes.getChangedBounds().isEmpty()) {
+			final Set<String> boundDependent = boundDependentVariables(problem);
+			for (Variable<?> var : changes.getChangedBounds()) {
+				if (boundDependent.contains(var.getName()) && problem.isBoundWidened(var)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the names of the variables whose bounds may be used to lower the
+	 * constraints of the given problem: the variables of SOS1, Or and general
+	 * constraints and of normal constraints with the operator NOT_EQUAL. The big-M
+	 * values and the bounds of auxiliary variables of the lowering are derived
+	 * from the bounds at build time. They stay valid if a bound is tightened, but
+	 * not if it is widened.
+	 *
+	 * @param problem Problem that was built.
+	 * @return Names of the variables whose bounds must not be widened
+	 *         incrementally.
+	 * @see SOS1Constraint#convert(NameGenerator)
+	 * @see OrConstraint#convert(NameGenerator)
+	 */
+	static Set<String> boundDependentVariables(final Problem problem) {
+		final Set<String> names = new HashSet<String>();
+		problem.forEachSOSConstraint(constraint -> {
+			for (Variable<?> var : constraint.getVariables()) {
+				names.add(var.getName());
+			}
+		});
+		problem.forEachOrConstraint(constraint -> {
+			for (LinearConstraint lin : constraint.getConstraints()) {
+				addTermVariables(lin, names);
+			}
+		});
+		problem.forEachGeneralConstraint(constraint -> {
+			for (Variable<?> var : constraint.getVariables()) {
+				names.add(var.getName());
+			}
+			names.add(constraint.getResult().getName());
+		});
+		problem.forEachConstraint(constraint -> {
+			if (constraint.getOp() == Operator.NOT_EQUAL) {
+				addTermVariables(constraint, names);
+			}
+		});
+		return names;
+	}
+
+	/**
+	 * Adds the names of all variables of the given constraint to the set.
+	 *
+	 * @param constraint Constraint whose variables are added.
+	 * @param names      Set of variable names.
+	 */
+	private static void addTermVariables(final NormalConstraint constraint, final Set<String> names) {
+		for (Term term : constraint.getLhsTerms()) {
+			names.add(term.getVar1().getName());
+			if (term instanceof QuadraticTerm) {
+				names.add(((QuadraticTerm) term).getVar2().getName());
+			}
+		}
+	}
+
+	/**
+	 * Checks that the bounds of a variable the lowering depends on are not widened.
+	 *
+	 * @param boundDependent Names of the variables the lowering depends on.
+	 * @param var            Variable whose bounds are changed.
+	 * @param oldLowerBound  Lower bound of the variable in the model.
+	 * @param oldUpperBound  Upper bound of the variable in the model.
+	 * @param lowerBound     New lower bound.
+	 * @param upperBound     New upper bound.
+	 * @throws UnsupportedOperationException if the bounds are widened.
+	 * @see #boundDependentVariables(Problem)
+	 */
+	static void checkNotWidened(final Set<String> boundDependent, final Variable<?> var, final double oldLowerBound,
+			final double oldUpperBound, final double lowerBound, final double upperBound) {
+		if ((lowerBound < oldLowerBound || upperBound > oldUpperBound) && boundDependent.contains(var.getName())) {
+			throw new UnsupportedOperationException("The bounds of " + var.getName()
+					+ " can not be widened incrementally, the lowering of its constraints depends on them.");
+		}
+	}
+
+	/**
+	 * Applies the changes of the given problem to the model of the solver and
+	 * clears the change journal. The model matches the problem again then.
+	 *
+	 * @param solver  Solver that built the problem.
+	 * @param problem Problem whose changes are applied.
+	 * @see #canApplyChanges(Solver, Problem, PresolveResult, Problem)
+	 */
+	static void applyChanges(final Solver solver, final Problem problem) {
+		final ProblemChanges changes = problem.getChanges();
+		for (NormalConstraint constraint : changes.getRemovedConstraints()) {
+			solver.removeConstraint((LinearConstraint) constraint);
+		}
+		for (NormalConstraint constraint : changes.getAddedConstraints()) {
+			solver.addConstraint((LinearConstraint) constraint);
+		}
+		for (Variable<?> var : changes.getChangedBounds()) {
+			solver.setVariableBounds(var, var.lowerBoundAsDouble(), var.upperBoundAsDouble());
+		}
+		problem.clearChanges(solver);
+	}
+
+	/**
+	 * Checks the given bounds of a variable.
+	 *
+	 * @param lowerBound New lower bound.
+	 * @param upperBound New upper bound.
+	 */
+	static void checkBounds(final double lowerBound, final double upperBound) {
+		if (lowerBound > upperBound) {
+			throw new IllegalArgumentException("The lower bound is not allowed to be greater than the upper bound.");
+		}
+	}
+
+	/**
+	 * Converts a linear constraint to be added to a built model: The constraint
+	 * gets a name (if it has none, yet), the operators LESS and GREATER are
+	 * replaced and the terms are merged per variable.
+	 *
+	 * @param problem    Problem that was translated. All variables of the
+	 *                   constraint have to be part of it.
+	 * @param constraint Constraint to be added.
+	 * @return Canonical constraint with the operator LESS_OR_EQUAL,
+	 *         GREATER_OR_EQUAL or EQUAL.
+	 */
+	static LinearConstraint prepare(final Problem problem, final LinearConstraint constraint) {
+		if (constraint.getLhsTerms().isEmpty()) {
+			throw new UnsupportedOperationException("The constraint " + constraint.getName() + " has no LHS terms.");
+		}
+		if (constraint.getName() == null || constraint.getName().isBlank()) {
+			constraint.setName(NameGenerator.shared().next("cnstr"));
+		}
+
+		final LinearConstraint lowered;
+		switch (constraint.getOp()) {
+		case LESS:
+		case GREATER:
+			lowered = (LinearConstraint) constraint.convertOperator().get(0);
+			break;
+		case NOT_EQUAL:
+			throw new UnsupportedOperationException(
+					"Constraints with the operator NOT_EQUAL can not be added incrementally.");
+		default:
+			lowered = constraint;
+			break;
+		}
+		return (LinearConstraint) new TermCanonicalizer(problem).canonicalize(lowered);
+	}
+
+	/**
+	 * Returns the right-hand side of the translated row of a linear constraint
+	 * for the given right-hand side. Strict operators are shifted by the epsilon
+	 * of the constraint, as done by the substitution.
+	 *
+	 * @param constraint Linear constraint whose right-hand side is changed.
+	 * @param rhs        New right-hand side of the constraint.
+	 * @return Right-hand side of the row.
+	 * @see LinearConstraint#convertOperator()
+	 */
+	static double rowRhs(final LinearConstraint constraint, final double rhs) {
+		switch (constraint.getOp()) {
+		case LESS:
+			return rhs - constraint.getEpsilon();
+		case GREATER:
+			return rhs + constraint.getEpsilon();
+		case NOT_EQUAL:
+			throw new UnsupportedOperationException(
+					"The right-hand side of constraints with the operator NOT_EQUAL can not be changed incrementally.");
+		default:
+			return rhs;
+		}
+	}
+
+}
@@ -0,0 +1,37 @@
+package org.emoflon.ilp;
+
+/**
+ * This abstract class stores the dense index of a variable in the problem it
+ * was added to last, so that the index can be looked up without hashing the
+ * name of the variable. <br>
+ * <br>
+ *
+ * The index is only a hint: A variable can be part of several problems, so
+ * Problem checks that the variable is actually stored at this index before
+ * using it.
+ *
+ * @see Problem#getVariableIndex(Variable)
+ */
+abstract class IndexedVariable<T extends Number> implements Variable<T> {
+
+	private int index = -1;
+
+	/**
+	 * Returns the index of this variable in the problem it was added to last.
+	 *
+	 * @return Index of this variable or -1, if it was not added to a problem, yet.
+	 */
+	int getIndexHint() {
+		return index;
+	}
+
+	/**
+	 * Sets the index of this variable in the problem it was added to.
+	 *
+	 * @param index Index of this variable.
+	 */
+	void setIndexHint(final int index) {
+		this.index = index;
+	}
+
+}
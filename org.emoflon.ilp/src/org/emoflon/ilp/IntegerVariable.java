@@ -4,7 +4,7 @@ package org.emoflon.ilp;
  * This class represents integer variables.
  *
  */
-public class IntegerVariable implements Variable<Integer> {
+public class IntegerVariable extends IndexedVariable<Integer> {
 
 	final private String name;
 	private int value;
@@ -42,6 +42,16 @@ public class IntegerVariable implements Variable<Integer> {
 		this.value = value;
 	}
 
+	@Override
+	public double valueAsDouble() {
+		return value;
+	}
+
+	@Override
+	public void setValueDouble(double value) {
+		this.value = (int) Math.round(value);
+	}
+
 	@Override
 	public Integer getUpperBound() {
 		return upperBound;
@@ -53,6 +63,11 @@ public class IntegerVariable implements Variable<Integer> {
 		this.defaultUpperBound = false;
 	}
 
+	@Override
+	public double upperBoundAsDouble() {
+		return upperBound;
+	}
+
 	/**
 	 * Returns if the upper bound of this variable is the default bound (true) or of
 	 * it got changed (false)
@@ -75,6 +90,11 @@ public class IntegerVariable implements Variable<Integer> {
 		this.defaultLowerBound = false;
 	}
 
+	@Override
+	public double lowerBoundAsDouble() {
+		return lowerBound;
+	}
+
 	/**
 	 * Returns if the lower bound of this variable is the default bound (true) or of
 	 * it got changed (false)
@@ -89,24 +89,11 @@ public class LinearFunction extends Function {
 		if (this.nestedFunctions.isEmpty()) {
 			// end of nesting, deepest level
 			return this;
-		} else {
-			LinearFunction expanded = new LinearFunction(this.terms, this.constantTerms);
-
-			for (WeightedFunction nested : this.nestedFunctions) {
-				double nestedWeight = nested.weight();
-				Function func = ((LinearFunction) nested.function()).expand();
-
-				// add constants multiplied with weight
-				for (Constant cons : func.constantTerms) {
-					expanded.addConstant(cons.weight() * nestedWeight);
-				}
-				// add terms multiplied with weight
-				for (Term term : func.terms) {
-					expanded.addTerm(term.getVar1(), term.getWeight() * nestedWeight);
-				}
-			}
-			return expanded;
 		}
+		LinearFunction expanded = new LinearFunction(new ArrayList<Term>(this.terms),
+				new ArrayList<Constant>(this.constantTerms));
+		FunctionExpander.expandNested(this, expanded);
+		return expanded;
 	}
 
 	public String toString() {
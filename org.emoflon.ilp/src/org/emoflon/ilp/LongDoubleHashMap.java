@@ -0,0 +1,134 @@
+package org.emoflon.ilp;
+
+import java.util.Arrays;
+
+/**
+ * This class is a map from primitive long keys to primitive double values
+ * without boxing. Collisions are resolved by open addressing (linear probing).
+ * <br>
+ * <br>
+ *
+ * The entries are kept in insertion order and can be accessed by their position
+ * from 0 (incl.) to size() (excl.). Entries cannot be removed, but the map can
+ * be cleared and reused.
+ *
+ */
+class LongDoubleHashMap {
+
+	private static final int MIN_CAPACITY = 16;
+
+	// entry positions + 1 per slot, 0 marks an empty slot
+	private int[] slots;
+	private long[] keys;
+	private double[] values;
+	private int size = 0;
+
+	/**
+	 * The constructor for an empty map.
+	 */
+	LongDoubleHashMap() {
+		this.slots = new int[MIN_CAPACITY * 2];
+		this.keys = new long[MIN_CAPACITY];
+		this.values = new double[MIN_CAPACITY];
+	}
+
+	/**
+	 * Adds the given value to the value of the given key. If the key is not part of
+	 * the map, yet, it is inserted with the given value.
+	 *
+	 * @param key   Key of the entry.
+	 * @param value Value to be added.
+	 * @return Position of the entry.
+	 */
+	int add(final long key, final double value) {
+		final int mask = slots.length - 1;
+		int slot = hash(key) & mask;
+		while (slots[slot] != 0) {
+			final int pos = slots[slot] - 1;
+			if (keys[pos] == key) {
+				values[pos] += value;
+				return pos;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		if (size == keys.length) {
+			grow();
+			return add(key, value);
+		}
+		keys[size] = key;
+		values[size] = value;
+		slots[slot] = ++size;
+		return size - 1;
+	}
+
+	/**
+	 * Returns the number of entries of this map.
+	 *
+	 * @return Number of entries.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the key of the entry at the given position.
+	 *
+	 * @param pos Position of the entry.
+	 * @return Key of the entry.
+	 */
+	long keyAt(final int pos) {
+		return keys[pos];
+	}
+
+	/**
+	 * Returns the value of the entry at the given position.
+	 *
+	 * @param pos Position of the entry.
+	 * @return Value of the entry.
+	 */
+	double valueAt(final int pos) {
+		return values[pos];
+	}
+
+	/**
+	 * Removes all entries. The allocated capacity is kept.
+	 */
+	void clear() {
+		if (size != 0) {
+			Arrays.fill(slots, 0);
+			size = 0;
+		}
+	}
+
+	/**
+	 * Doubles the capacity and rehashes all entries. The slot table is kept at
+	 * twice the entry capacity, so the load factor never exceeds 0.5.
+	 */
+	private void grow() {
+		final int capacity = keys.length * 2;
+		keys = Arrays.copyOf(keys, capacity);
+		values = Arrays.copyOf(values, capacity);
+		slots = new int[capacity * 2];
+		final int mask = slots.length - 1;
+		for (int pos = 0; pos < size; pos++) {
+			int slot = hash(keys[pos]) & mask;
+			while (slots[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			slots[slot] = pos + 1;
+		}
+	}
+
+	private static int hash(final long key) {
+		// finalizer of MurmurHash3 (fmix64)
+		long h = key;
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb93fe53ecd53L;
+		h ^= h >>> 33;
+		return (int) h;
+	}
+
+}
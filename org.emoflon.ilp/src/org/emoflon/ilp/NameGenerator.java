@@ -0,0 +1,75 @@
+package org.emoflon.ilp;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class generates the names of auxiliary variables that are introduced when
+ * constraints are substituted. A name consists of a prefix and a counter value
+ * (e.g. "phi#42"), so generated names are unique per generator and reproducible
+ * for the same sequence of substitutions. <br>
+ * <br>
+ *
+ * Every problem has its own generator, which is used by its substitution
+ * methods.
+ *
+ * @see Problem#getNameGenerator()
+ */
+public class NameGenerator {
+
+	/**
+	 * Separator between the prefix and the counter value. It is a valid character
+	 * in the LP formats of all supported solvers and should not be used in user
+	 * defined names.
+	 */
+	public static final char SEPARATOR = '#';
+
+	private static final NameGenerator SHARED = new NameGenerator();
+
+	private final AtomicLong counter;
+
+	/**
+	 * The constructor for a name generator starting at 0.
+	 */
+	public NameGenerator() {
+		this(0);
+	}
+
+	/**
+	 * The constructor for a name generator.
+	 *
+	 * @param start First counter value to be used.
+	 */
+	public NameGenerator(final long start) {
+		this.counter = new AtomicLong(start);
+	}
+
+	/**
+	 * Returns the generator used by the conversion methods that are called without
+	 * an explicit generator.
+	 *
+	 * @return Process-wide name generator.
+	 */
+	public static NameGenerator shared() {
+		return SHARED;
+	}
+
+	/**
+	 * Returns a new unique name with the given prefix.
+	 *
+	 * @param prefix Prefix of the name.
+	 * @return Generated name.
+	 */
+	public String next(final String prefix) {
+		return prefix + SEPARATOR + counter.getAndIncrement();
+	}
+
+	/**
+	 * Returns the number of names generated so far.
+	 *
+	 * @return Number of generated names.
+	 */
+	public long getCount() {
+		return counter.get();
+	}
+
+}
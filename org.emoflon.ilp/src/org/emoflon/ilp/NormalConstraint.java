@@ -74,4 +74,13 @@ public abstract class NormalConstraint extends Constraint {
 	 */
 	public abstract List<Constraint> convertOperator();
 
+	/**
+	 * Converts the constraint to a list of new constraints, if needed. Only
+	 * converts if the current operator is either LESS, GREATER or NOT_EQUAL.
+	 * 
+	 * @param names Name generator for the auxiliary variables.
+	 * @return List of substitution constraints or empty list.
+	 */
+	public abstract List<Constraint> convertOperator(final NameGenerator names);
+
 }
@@ -2,7 +2,6 @@ package org.emoflon.ilp;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * This class represents or constraints containing linear constraints.
@@ -120,26 +119,83 @@ public class OrConstraint extends Constraint {
 		this.epsilon = epsilon;
 	}
 
+	/**
+	 * Returns the disjuncts of this Or constraint with the operators LESS_OR_EQUAL,
+	 * GREATER_OR_EQUAL and EQUAL only, as needed for the native translation with
+	 * indicator constraints. Strict operators are shifted by the epsilon of the
+	 * linear constraint, NOT_EQUAL is split into two disjuncts.
+	 *
+	 * @return List of non-strict linear constraints, at least one of them has to
+	 *         hold.
+	 * @see SolverCapabilities#isNativeOr()
+	 */
+	List<LinearConstraint> getNonStrictDisjuncts() {
+		List<LinearConstraint> disjuncts = new ArrayList<LinearConstraint>();
+		for (LinearConstraint lin : this.constraints) {
+			switch (lin.getOp()) {
+			case LESS_OR_EQUAL:
+			case GREATER_OR_EQUAL:
+			case EQUAL:
+				disjuncts.add(lin);
+				break;
+			case NOT_EQUAL:
+				disjuncts.add(new LinearConstraint(lin.getLhsTerms(), Operator.LESS_OR_EQUAL,
+						lin.getRhs() - lin.getEpsilon(), lin.getEpsilon()));
+				disjuncts.add(new LinearConstraint(lin.getLhsTerms(), Operator.GREATER_OR_EQUAL,
+						lin.getRhs() + lin.getEpsilon(), lin.getEpsilon()));
+				break;
+			case LESS:
+				disjuncts.add(new LinearConstraint(lin.getLhsTerms(), Operator.LESS_OR_EQUAL,
+						lin.getRhs() - lin.getEpsilon(), lin.getEpsilon()));
+				break;
+			case GREATER:
+				disjuncts.add(new LinearConstraint(lin.getLhsTerms(), Operator.GREATER_OR_EQUAL,
+						lin.getRhs() + lin.getEpsilon(), lin.getEpsilon()));
+				break;
+			default:
+				throw new IllegalArgumentException(
+						"The operator of the following constraint is not supported: ".concat(lin.toString()));
+			}
+		}
+		return disjuncts;
+	}
+
 	// TODO: (future work) negation of constraints
 	/**
-	 * Converts this Or constraint into a set of linear and SOS1 constraints.
+	 * Converts this Or constraint into a set of linear and SOS1 constraints. The
+	 * auxiliary variables are named by the shared name generator.
 	 * 
 	 * @return List of constraints to substitute this Or constraint.
 	 * @see LinearConstraint
 	 * @see SOS1Constraint
+	 * @see NameGenerator#shared()
 	 */
 	public List<Constraint> convert() {
+		return convert(NameGenerator.shared());
+	}
+
+	/**
+	 * Converts this Or constraint into a set of linear and SOS1 constraints.
+	 * 
+	 * @param names Name generator for the auxiliary variables.
+	 * @return List of constraints to substitute this Or constraint.
+	 * @see LinearConstraint
+	 * @see SOS1Constraint
+	 */
+	public List<Constraint> convert(final NameGenerator names) {
 		List<Constraint> substitute = new ArrayList<Constraint>();
 		LinearConstraint binary_sub = new LinearConstraint(Operator.GREATER, 0.0);
 
 		for (LinearConstraint lin : this.constraints) {
+			// activity bounds of f_i, used to bound the auxiliary variables
+			final double minAct = VariableBounds.minActivity(lin.getLhsTerms());
+			final double maxAct = VariableBounds.maxActivity(lin.getLhsTerms());
+
 			switch (lin.getOp()) {
 			case GREATER_OR_EQUAL:
 				// (1) s_i, s'_i element {0,1}
-				BinaryVariable s_geq = new BinaryVariable(
-						"s_".concat(this.toString()).concat(".").concat(UUID.randomUUID().toString()));
-				BinaryVariable s_prime_geq = new BinaryVariable(
-						"s_prime_".concat(this.toString()).concat(".").concat(UUID.randomUUID().toString()));
+				BinaryVariable s_geq = new BinaryVariable(names.next("s"));
+				BinaryVariable s_prime_geq = new BinaryVariable(names.next("s_prime"));
 				binary_sub.addTerm(s_geq, 1.0);
 
 				// (1) s_i + s'_i = 1
@@ -148,17 +204,15 @@ public class OrConstraint extends Constraint {
 				geq1.addTerm(s_prime_geq, 1.0);
 				substitute.add(geq1);
 
-				// (2) phi_i element R, f_i + phi_i >= k_i
-				RealVariable phi_geq = new RealVariable(
-						"phi_".concat(this.toString().concat(".").concat(UUID.randomUUID().toString())));
+				// (2) phi_i element R+, f_i + phi_i >= k_i
+				RealVariable phi_geq = new RealVariable(names.next("phi"));
 				LinearConstraint geq2 = new LinearConstraint(lin.getLhsTerms(), Operator.GREATER_OR_EQUAL,
 						lin.getRhs());
 				geq2.addTerm(phi_geq, 1.0);
 				substitute.add(geq2);
 
-				// (3) phi'_i element R, f_i - phi'_i < k_i
-				RealVariable phi_prime_geq = new RealVariable(
-						"phi_prime_".concat(this.toString()).concat(".").concat(UUID.randomUUID().toString()));
+				// (3) phi'_i element R+, f_i - phi'_i < k_i
+				RealVariable phi_prime_geq = new RealVariable(names.next("phi_prime"));
 				LinearConstraint geq3 = new LinearConstraint(lin.getLhsTerms(), Operator.LESS, lin.getRhs());
 				geq3.addTerm(phi_prime_geq, -1.0);
 				substitute.add(geq3);
@@ -189,13 +243,15 @@ public class OrConstraint extends Constraint {
 				SOS1Constraint geq7 = new SOS1Constraint(sosVars_geq7);
 				substitute.add(geq7);
 
+				// bounds of phi_i and phi'_i
+				boundAuxiliary(phi_geq, lin.getRhs() - minAct, geq3.getEpsilon());
+				boundAuxiliary(phi_prime_geq, maxAct - lin.getRhs(), geq3.getEpsilon());
+
 				break;
 			case GREATER:
 				// (1) s_i, s'_i element {0,1}
-				BinaryVariable s_gr = new BinaryVariable(
-						"s_".concat(this.toString()).concat(".").concat(UUID.randomUUID().toString()));
-				BinaryVariable s_prime_gr = new BinaryVariable(
-						"s_prime_".concat(this.toString()).concat(".").concat(UUID.randomUUID().toString()));
+				BinaryVariable s_gr = new BinaryVariable(names.next("s"));
+				BinaryVariable s_prime_gr = new BinaryVariable(names.next("s_prime"));
 				binary_sub.addTerm(s_gr, 1.0);
 
 				// (1) s_i + s'_i = 1
@@ -204,16 +260,14 @@ public class OrConstraint extends Constraint {
 				gr1.addTerm(s_prime_gr, 1.0);
 				substitute.add(gr1);
 
-				// (2) phi_i element R, f_i + phi_i > k_i
-				RealVariable phi_gr = new RealVariable(
-						"phi_".concat(this.toString().concat(".").concat(UUID.randomUUID().toString())));
+				// (2) phi_i element R+, f_i + phi_i > k_i
+				RealVariable phi_gr = new RealVariable(names.next("phi"));
 				LinearConstraint gr2 = new LinearConstraint(lin.getLhsTerms(), Operator.GREATER, lin.getRhs());
 				gr2.addTerm(phi_gr, 1.0);
 				substitute.add(gr2);
 
-				// (3) phi'_i element R, f_i - phi'_i <= k_i
-				RealVariable phi_prime_gr = new RealVariable(
-						"phi_prime_".concat(this.toString()).concat(".").concat(UUID.randomUUID().toString()));
+				// (3) phi'_i element R+, f_i - phi'_i <= k_i
+				RealVariable phi_prime_gr = new RealVariable(names.next("phi_prime"));
 				LinearConstraint gr3 = new LinearConstraint(lin.getLhsTerms(), Operator.LESS_OR_EQUAL, lin.getRhs());
 				gr3.addTerm(phi_prime_gr, -1.0);
 				substitute.add(gr3);
@@ -244,25 +298,24 @@ public class OrConstraint extends Constraint {
 				SOS1Constraint gr7 = new SOS1Constraint(sosVars_gr7);
 				substitute.add(gr7);
 
+				// bounds of phi_i and phi'_i
+				boundAuxiliary(phi_gr, lin.getRhs() - minAct, gr2.getEpsilon());
+				boundAuxiliary(phi_prime_gr, maxAct - lin.getRhs(), gr2.getEpsilon());
+
 				break;
 			case EQUAL:
 				// (1) s_i element {0,1}
-				BinaryVariable s_eq = new BinaryVariable(
-						"s_".concat(this.toString()).concat(".").concat(UUID.randomUUID().toString()));
+				BinaryVariable s_eq = new BinaryVariable(names.next("s"));
 				binary_sub.addTerm(s_eq, 1.0);
 
 				// (2) phi_i element R+, f_i + phi_i >= k_i
-				RealVariable phi_eq = new RealVariable(
-						"phi_".concat(this.toString().concat(".").concat(UUID.randomUUID().toString())));
-				phi_eq.setLowerBound(0.0);
+				RealVariable phi_eq = new RealVariable(names.next("phi"));
 				LinearConstraint eq1 = new LinearConstraint(lin.getLhsTerms(), Operator.GREATER_OR_EQUAL, lin.getRhs());
 				eq1.addTerm(phi_eq, 1.0);
 				substitute.add(eq1);
 
 				// (3) phi'_i element R+, f_i - phi'_i <= k_i
-				RealVariable phi_prime_eq = new RealVariable(
-						"phi_prime_".concat(this.toString().concat(".").concat(UUID.randomUUID().toString())));
-				phi_prime_eq.setLowerBound(0.0);
+				RealVariable phi_prime_eq = new RealVariable(names.next("phi_prime"));
 				LinearConstraint eq2 = new LinearConstraint(lin.getLhsTerms(), Operator.LESS_OR_EQUAL, lin.getRhs());
 				eq2.addTerm(phi_prime_eq, -1.0);
 				substitute.add(eq2);
@@ -282,13 +335,15 @@ public class OrConstraint extends Constraint {
 				eq4.addTerm(s_eq, 1.0);
 				substitute.add(eq4);
 
+				// bounds of phi_i and phi'_i
+				boundAuxiliary(phi_eq, lin.getRhs() - minAct, eq4.getEpsilon());
+				boundAuxiliary(phi_prime_eq, maxAct - lin.getRhs(), eq4.getEpsilon());
+
 				break;
 			case NOT_EQUAL:
 				// (1) s_i, s'_i element {0,1}
-				BinaryVariable s_neq = new BinaryVariable(
-						"s_".concat(this.toString()).concat(".").concat(UUID.randomUUID().toString()));
-				BinaryVariable s_prime_neq = new BinaryVariable(
-						"s_prime_".concat(this.toString()).concat(".").concat(UUID.randomUUID().toString()));
+				BinaryVariable s_neq = new BinaryVariable(names.next("s"));
+				BinaryVariable s_prime_neq = new BinaryVariable(names.next("s_prime"));
 				binary_sub.addTerm(s_neq, 1.0);
 
 				// (2) s_i = 1 - s'_i <=> s_i + s'_i = 1
@@ -298,18 +353,14 @@ public class OrConstraint extends Constraint {
 				substitute.add(neq1);
 
 				// (3) phi_i element R+, f_i + phi_i >= k_i
-				RealVariable phi_neq = new RealVariable(
-						"phi_".concat(this.toString().concat(".").concat(UUID.randomUUID().toString())));
-				phi_neq.setLowerBound(0.0);
+				RealVariable phi_neq = new RealVariable(names.next("phi"));
 				LinearConstraint neq2 = new LinearConstraint(lin.getLhsTerms(), Operator.GREATER_OR_EQUAL,
 						lin.getRhs());
 				neq2.addTerm(phi_neq, 1.0);
 				substitute.add(neq2);
 
 				// (3) phi'_i element R+, f_i - phi'_i <= k_i
-				RealVariable phi_prime_neq = new RealVariable(
-						"phi_prime_".concat(this.toString().concat(".").concat(UUID.randomUUID().toString())));
-				phi_prime_neq.setLowerBound(0.0);
+				RealVariable phi_prime_neq = new RealVariable(names.next("phi_prime"));
 				LinearConstraint neq3 = new LinearConstraint(lin.getLhsTerms(), Operator.LESS_OR_EQUAL, lin.getRhs());
 				neq3.addTerm(phi_prime_neq, -1.0);
 				substitute.add(neq3);
@@ -329,13 +380,15 @@ public class OrConstraint extends Constraint {
 				neq5.addTerm(s_prime_neq, 1.0);
 				substitute.add(neq5);
 
+				// bounds of phi_i and phi'_i
+				boundAuxiliary(phi_neq, lin.getRhs() - minAct, neq5.getEpsilon());
+				boundAuxiliary(phi_prime_neq, maxAct - lin.getRhs(), neq5.getEpsilon());
+
 				break;
 			case LESS:
 				// (1) s_i, s'_i element {0,1}
-				BinaryVariable s_le = new BinaryVariable(
-						"s_".concat(this.toString()).concat(".").concat(UUID.randomUUID().toString()));
-				BinaryVariable s_prime_le = new BinaryVariable(
-						"s_prime_".concat(this.toString()).concat(".").concat(UUID.randomUUID().toString()));
+				BinaryVariable s_le = new BinaryVariable(names.next("s"));
+				BinaryVariable s_prime_le = new BinaryVariable(names.next("s_prime"));
 				binary_sub.addTerm(s_le, 1.0);
 
 				// (1) s_i + s'_i = 1
@@ -344,16 +397,14 @@ public class OrConstraint extends Constraint {
 				le1.addTerm(s_prime_le, 1.0);
 				substitute.add(le1);
 
-				// (2) phi_i element R, f_i - phi_i < k_i
-				RealVariable phi_le = new RealVariable(
-						"phi_".concat(this.toString().concat(".").concat(UUID.randomUUID().toString())));
+				// (2) phi_i element R+, f_i - phi_i < k_i
+				RealVariable phi_le = new RealVariable(names.next("phi"));
 				LinearConstraint le2 = new LinearConstraint(lin.getLhsTerms(), Operator.LESS, lin.getRhs());
 				le2.addTerm(phi_le, -1.0);
 				substitute.add(le2);
 
-				// (3) phi'_i element R, f_i + phi'_i >= k_i
-				RealVariable phi_prime_le = new RealVariable(
-						"phi_prime_".concat(this.toString()).concat(".").concat(UUID.randomUUID().toString()));
+				// (3) phi'_i element R+, f_i + phi'_i >= k_i
+				RealVariable phi_prime_le = new RealVariable(names.next("phi_prime"));
 				LinearConstraint le3 = new LinearConstraint(lin.getLhsTerms(), Operator.GREATER_OR_EQUAL, lin.getRhs());
 				le3.addTerm(phi_prime_le, 1.0);
 				substitute.add(le3);
@@ -384,13 +435,15 @@ public class OrConstraint extends Constraint {
 				SOS1Constraint le7 = new SOS1Constraint(sosVars_le7);
 				substitute.add(le7);
 
+				// bounds of phi_i and phi'_i
+				boundAuxiliary(phi_le, maxAct - lin.getRhs(), le2.getEpsilon());
+				boundAuxiliary(phi_prime_le, lin.getRhs() - minAct, le2.getEpsilon());
+
 				break;
 			case LESS_OR_EQUAL:
 				// (1) s_i, s'_i element {0,1}
-				BinaryVariable s_leq = new BinaryVariable(
-						"s_".concat(this.toString()).concat(".").concat(UUID.randomUUID().toString()));
-				BinaryVariable s_prime_leq = new BinaryVariable(
-						"s_prime_".concat(this.toString()).concat(".").concat(UUID.randomUUID().toString()));
+				BinaryVariable s_leq = new BinaryVariable(names.next("s"));
+				BinaryVariable s_prime_leq = new BinaryVariable(names.next("s_prime"));
 				binary_sub.addTerm(s_leq, 1.0);
 
 				// (1) s_i + s'_i = 1
@@ -399,16 +452,14 @@ public class OrConstraint extends Constraint {
 				leq1.addTerm(s_prime_leq, 1.0);
 				substitute.add(leq1);
 
-				// (2) phi_i element R, f_i - phi_i <= k_i
-				RealVariable phi_leq = new RealVariable(
-						"phi_".concat(this.toString().concat(".").concat(UUID.randomUUID().toString())));
+				// (2) phi_i element R+, f_i - phi_i <= k_i
+				RealVariable phi_leq = new RealVariable(names.next("phi"));
 				LinearConstraint leq2 = new LinearConstraint(lin.getLhsTerms(), Operator.LESS_OR_EQUAL, lin.getRhs());
 				leq2.addTerm(phi_leq, -1.0);
 				substitute.add(leq2);
 
-				// (3) phi'_i element R, f_i + phi'_i > k_i
-				RealVariable phi_prime_leq = new RealVariable(
-						"phi_prime_".concat(this.toString()).concat(".").concat(UUID.randomUUID().toString()));
+				// (3) phi'_i element R+, f_i + phi'_i > k_i
+				RealVariable phi_prime_leq = new RealVariable(names.next("phi_prime"));
 				LinearConstraint leq3 = new LinearConstraint(lin.getLhsTerms(), Operator.GREATER, lin.getRhs());
 				leq3.addTerm(phi_prime_leq, 1.0);
 				substitute.add(leq3);
@@ -439,6 +490,10 @@ public class OrConstraint extends Constraint {
 				SOS1Constraint leq7 = new SOS1Constraint(sosVars_leq7);
 				substitute.add(leq7);
 
+				// bounds of phi_i and phi'_i
+				boundAuxiliary(phi_leq, maxAct - lin.getRhs(), leq3.getEpsilon());
+				boundAuxiliary(phi_prime_leq, lin.getRhs() - minAct, leq3.getEpsilon());
+
 				break;
 			default:
 				throw new IllegalArgumentException(
@@ -449,4 +504,23 @@ public class OrConstraint extends Constraint {
 		substitute.add(binary_sub);
 		return substitute;
 	}
+
+	/**
+	 * Sets the bounds of an auxiliary variable phi of the substitution. The
+	 * variable is either 0 or shifts f_i by at most the gap between k_i and the
+	 * activity bound of f_i (plus the epsilons used in the substitution), so the
+	 * bounds [0, gap + slack] keep all solutions but avoid huge big-M values. If
+	 * the gap is not known, only the lower bound is set.
+	 * 
+	 * @param phi           Auxiliary variable to be bounded.
+	 * @param gap           Maximum shift of f_i that can be needed.
+	 * @param strictEpsilon Epsilon of the strict (&lt; or &gt;) constraint of the
+	 *                      substitution.
+	 */
+	private void boundAuxiliary(final RealVariable phi, final double gap, final double strictEpsilon) {
+		phi.setLowerBound(0.0);
+		if (!Double.isInfinite(gap)) {
+			phi.setUpperBound(Math.max(0.0, gap) + 2 * this.epsilon + strictEpsilon);
+		}
+	}
 }
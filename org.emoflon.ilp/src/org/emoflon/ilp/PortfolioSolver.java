@@ -0,0 +1,403 @@
+package org.emoflon.ilp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * This class solves a problem with several solvers (legs) concurrently and
+ * returns the result of the first leg that finishes with a proven status
+ * (OPTIMAL, INFEASIBLE, UNBOUNDED or INF_OR_UNBD). The other legs are
+ * cancelled then. If no leg proves a status, e.g., because all of them reach
+ * the timeout of their configuration or the portfolio is cancelled, the best
+ * incumbent of all legs is returned. <br>
+ * <br>
+ *
+ * Every leg is created, built and solved on its own thread, all calls for a
+ * leg are run on this thread. If the problem was built by the portfolio
+ * before, every leg applies the changes since then to its model, if
+ * possible. <br>
+ * <br>
+ *
+ * Solution values and the values of the variables are taken from the winning
+ * leg, i.e., the leg whose result was returned by the last solve.
+ *
+ * @see SolverConfig
+ */
+public class PortfolioSolver implements Solver {
+
+	// Interval to repeat cancel(), a leg may not have started solving yet
+	private static final long CANCEL_INTERVAL_MILLIS = 100;
+
+	/**
+	 * A solver of the portfolio with the thread that runs all its calls.
+	 */
+	private static class Leg {
+
+		private final SolverConfig config;
+		private final WorkerThread worker;
+		private Solver solver;
+
+		private Leg(final SolverConfig config, final int index) {
+			this.config = config;
+			this.worker = new WorkerThread(
+					"emoflon-ilp-portfolio-" + index + "-" + config.getSolver().name().toLowerCase());
+		}
+
+	}
+
+	/**
+	 * Result of the solve of a leg, either the output or the failure.
+	 */
+	private static class LegResult {
+
+		private final Leg leg;
+		private final SolverOutput output;
+		private final RuntimeException failure;
+
+		private LegResult(final Leg leg, final SolverOutput output, final RuntimeException failure) {
+			this.leg = leg;
+			this.output = output;
+			this.failure = failure;
+		}
+
+	}
+
+	private final List<Leg> legs = new ArrayList<Leg>();
+	private Problem problem;
+	private Leg winner;
+	private SolverOutput result;
+	// Set by cancel(), reset when a solve is submitted. The legs reset their own
+	// request when they start, so they are cancelled repeatedly
+	private volatile boolean cancelRequested = false;
+
+	/**
+	 * The constructor for PortfolioSolver.
+	 *
+	 * @param configs The configurations of the legs, one solver is created per
+	 *                configuration.
+	 * @see SolverHelper
+	 */
+	public PortfolioSolver(final List<SolverConfig> configs) {
+		if (configs.isEmpty()) {
+			throw new IllegalArgumentException("A portfolio needs at least one solver configuration.");
+		}
+		try {
+			for (SolverConfig config : configs) {
+				final Leg leg = new Leg(config, legs.size());
+				legs.add(leg);
+				leg.solver = leg.worker.call(() -> new SolverHelper(config).getSolver());
+			}
+		} catch (final RuntimeException e) {
+			for (Leg leg : legs) {
+				leg.worker.shutdown();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the configurations of the legs.
+	 *
+	 * @return Unmodifiable list of the configurations in the order of the legs.
+	 */
+	public List<SolverConfig> getConfigs() {
+		final List<SolverConfig> configs = new ArrayList<SolverConfig>();
+		for (Leg leg : legs) {
+			configs.add(leg.config);
+		}
+		return Collections.unmodifiableList(configs);
+	}
+
+	/**
+	 * Returns the configuration of the leg whose result was returned by the last
+	 * solve.
+	 *
+	 * @return Configuration of the winning leg or null, if the problem was not
+	 *         solved yet.
+	 */
+	public SolverConfig getWinner() {
+		return winner == null ? null : winner.config;
+	}
+
+	/**
+	 * Runs the given action on the thread of every leg, one leg after another.
+	 *
+	 * @param action Action to be run with the solver of a leg.
+	 */
+	private void forEachLeg(final Consumer<Solver> action) {
+		for (Leg leg : legs) {
+			leg.worker.call(() -> {
+				action.accept(leg.solver);
+				return null;
+			});
+		}
+	}
+
+	/**
+	 * Returns the winning leg of the last solve.
+	 *
+	 * @return Winning leg.
+	 */
+	private Leg winner() {
+		if (winner == null) {
+			throw new IllegalStateException("The problem has to be solved first.");
+		}
+		return winner;
+	}
+
+	@Override
+	public SolverCapabilities getCapabilities() {
+		boolean nativeSOS1 = true;
+		boolean nativeOr = true;
+		for (Leg leg : legs) {
+			nativeSOS1 &= leg.solver.getCapabilities().isNativeSOS1();
+			nativeOr &= leg.solver.getCapabilities().isNativeOr();
+		}
+		return new SolverCapabilities(nativeSOS1, nativeOr);
+	}
+
+	@Override
+	public void buildILPProblem(Problem problem) {
+		// The legs read the problem, so they are built one after another. Every leg
+		// applies the same changes, the journal is cleared after the last one
+		problem.beginSharedBuild();
+		try {
+			forEachLeg(solver -> solver.buildILPProblem(problem));
+		} finally {
+			problem.endSharedBuild();
+		}
+		this.problem = problem;
+		this.winner = null;
+	}
+
+	@Override
+	public void setVariableBounds(Variable<?> var, double lowerBound, double upperBound) {
+		forEachLeg(solver -> solver.setVariableBounds(var, lowerBound, upperBound));
+	}
+
+	@Override
+	public void addConstraint(LinearConstraint constraint) {
+		forEachLeg(solver -> solver.addConstraint(constraint));
+	}
+
+	@Override
+	public boolean removeConstraint(LinearConstraint constraint) {
+		boolean removed = false;
+		for (Leg leg : legs) {
+			removed |= leg.worker.call(() -> leg.solver.removeConstraint(constraint));
+		}
+		return removed;
+	}
+
+	@Override
+	public void setObjectiveCoefficient(Variable<?> var, double coefficient) {
+		forEachLeg(solver -> solver.setObjectiveCoefficient(var, coefficient));
+	}
+
+	@Override
+	public void setRhs(LinearConstraint constraint, double rhs) {
+		forEachLeg(solver -> solver.setRhs(constraint, rhs));
+	}
+
+	/**
+	 * {@inheritDoc} <br>
+	 * <br>
+	 *
+	 * The legs introduce different auxiliary variables, so only the values of the
+	 * variables of the problem are passed to the legs, further values are
+	 * ignored.
+	 */
+	@Override
+	public void setStartSolution(double[] values) {
+		if (problem == null) {
+			throw new IllegalStateException("The problem has to be built before a start solution can be set.");
+		}
+		if (values.length < problem.getVariableCount()) {
+			throw new IllegalArgumentException("The start solution has " + values.length + " values, but the problem has "
+					+ problem.getVariableCount() + " variables.");
+		}
+		final Map<Variable<?>, Double> start = new HashMap<Variable<?>, Double>();
+		for (int i = 0; i < problem.getVariableCount(); i++) {
+			if (!Double.isNaN(values[i])) {
+				start.put(problem.getVariable(i), values[i]);
+			}
+		}
+		setStartSolution(start);
+	}
+
+	@Override
+	public void setStartSolution(Map<Variable<?>, ? extends Number> values) {
+		forEachLeg(solver -> solver.setStartSolution(values));
+	}
+
+	@Override
+	public SolverOutput solve() {
+		cancelRequested = false;
+		return optimize();
+	}
+
+	/**
+	 * Solves the problem with all legs and chooses the result.
+	 *
+	 * @return Result of the winning leg.
+	 */
+	private SolverOutput optimize() {
+		final BlockingQueue<LegResult> results = new LinkedBlockingQueue<LegResult>();
+		for (Leg leg : legs) {
+			leg.worker.execute(() -> {
+				try {
+					results.add(new LegResult(leg, leg.solver.solve(), null));
+				} catch (final RuntimeException e) {
+					results.add(new LegResult(leg, null, e));
+				}
+			});
+		}
+
+		// Wait for all legs, the first proven result cancels the others
+		LegResult best = null;
+		LegResult proven = null;
+		RuntimeException failure = null;
+		boolean interrupted = false;
+		for (int finished = 0; finished < legs.size();) {
+			final LegResult legResult;
+			try {
+				legResult = results.poll(CANCEL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+			} catch (final InterruptedException e) {
+				// The legs are cancelled, but their results are still collected
+				interrupted = true;
+				cancelLegs();
+				continue;
+			}
+			if (legResult == null) {
+				if (proven != null || interrupted || cancelRequested) {
+					cancelLegs();
+				}
+				continue;
+			}
+			finished++;
+
+			if (legResult.failure != null) {
+				failure = failure == null ? legResult.failure : failure;
+			} else if (proven == null && isProven(legResult.output.getStatus())) {
+				proven = legResult;
+				cancelLegs();
+			} else if (proven == null && isBetter(legResult.output, best == null ? null : best.output)) {
+				best = legResult;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+
+		final LegResult chosen = proven != null ? proven : best;
+		if (chosen == null) {
+			throw failure;
+		}
+		this.winner = chosen.leg;
+		this.result = chosen.output;
+		return this.result;
+	}
+
+	/**
+	 * Returns if the given status is proven and can not be improved by other legs.
+	 *
+	 * @param status Status of a leg.
+	 * @return True, if the status is proven.
+	 */
+	private static boolean isProven(final SolverStatus status) {
+		return status == SolverStatus.OPTIMAL || status == SolverStatus.INFEASIBLE || status == SolverStatus.UNBOUNDED
+				|| status == SolverStatus.INF_OR_UNBD;
+	}
+
+	/**
+	 * Compares the results of two legs without proven status. Results with a
+	 * solution are better than results without, solutions are compared by their
+	 * objective value.
+	 *
+	 * @param output Result of a leg.
+	 * @param best   Best result so far or null.
+	 * @return True, if the result is better than the best result so far.
+	 */
+	private boolean isBetter(final SolverOutput output, final SolverOutput best) {
+		if (best == null) {
+			return true;
+		}
+		if (output.getSolCount() <= 0 || best.getSolCount() <= 0) {
+			return best.getSolCount() <= 0 && output.getSolCount() > 0;
+		}
+		if (problem.getType() == ObjectiveType.MAX) {
+			return output.getObjVal() > best.getObjVal();
+		}
+		return output.getObjVal() < best.getObjVal();
+	}
+
+	@Override
+	public CompletableFuture<SolverOutput> solveAsync() {
+		return solveAsync(AsyncSolve.defaultExecutor());
+	}
+
+	@Override
+	public CompletableFuture<SolverOutput> solveAsync(Executor executor) {
+		cancelRequested = false;
+		return AsyncSolve.solveAsync(this, this::optimize, executor);
+	}
+
+	@Override
+	public void cancel() {
+		cancelRequested = true;
+		cancelLegs();
+	}
+
+	/**
+	 * Cancels the solves of all legs.
+	 */
+	private void cancelLegs() {
+		// cancel() is thread-safe for all solvers, the leg threads are busy solving
+		for (Leg leg : legs) {
+			leg.solver.cancel();
+		}
+	}
+
+	@Override
+	public void updateValuesFromSolution() {
+		final Leg leg = winner();
+		leg.worker.call(() -> {
+			leg.solver.updateValuesFromSolution();
+			return null;
+		});
+	}
+
+	@Override
+	public double[] getSolutionValues() {
+		final Leg leg = winner();
+		return leg.worker.call(() -> leg.solver.getSolutionValues());
+	}
+
+	@Override
+	public void terminate() {
+		try {
+			forEachLeg(Solver::terminate);
+		} finally {
+			for (Leg leg : legs) {
+				leg.worker.shutdown();
+			}
+		}
+	}
+
+	@Override
+	public void reset() {
+		forEachLeg(Solver::reset);
+		this.problem = null;
+		this.winner = null;
+	}
+
+}
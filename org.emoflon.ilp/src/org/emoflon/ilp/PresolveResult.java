@@ -0,0 +1,127 @@
+package org.emoflon.ilp;
+
+/**
+ * This class represents the result of a presolve: the reduced problem that is
+ * handed to the solver and the postsolve map back to the variables of the
+ * original problem. <br>
+ * <br>
+ *
+ * Every variable of the original problem is either part of the reduced problem
+ * (as a copy with possibly tightened bounds) or was removed with a fixed value.
+ *
+ * @see Presolver
+ */
+public class PresolveResult {
+
+	private final Problem original;
+	private final Problem reduced;
+	// index in the reduced problem per original variable index, -1 if removed
+	private final int[] reducedIndices;
+	private final double[] fixedValues;
+
+	PresolveResult(final Problem original, final Problem reduced, final int[] reducedIndices,
+			final double[] fixedValues) {
+		this.original = original;
+		this.reduced = reduced;
+		this.reducedIndices = reducedIndices;
+		this.fixedValues = fixedValues;
+	}
+
+	/**
+	 * Returns a result that hands the given problem to the solver unchanged.
+	 *
+	 * @param problem Problem to be solved.
+	 * @return Presolve result without any reductions.
+	 */
+	static PresolveResult identity(final Problem problem) {
+		return new PresolveResult(problem, problem, null, null);
+	}
+
+	/**
+	 * Returns the problem that was presolved.
+	 *
+	 * @return Original problem.
+	 */
+	public Problem getOriginal() {
+		return original;
+	}
+
+	/**
+	 * Returns the reduced problem to be translated for the solver. If presolve did
+	 * not reduce anything, this is the original problem.
+	 *
+	 * @return Reduced problem.
+	 */
+	public Problem getReduced() {
+		return reduced;
+	}
+
+	/**
+	 * Returns if the reduced problem differs from the original problem.
+	 *
+	 * @return True, if presolve reduced the problem.
+	 */
+	public boolean isReduced() {
+		return reducedIndices != null;
+	}
+
+	/**
+	 * Returns the number of variables that were removed by presolve.
+	 *
+	 * @return Number of removed variables.
+	 */
+	public int getRemovedVariableCount() {
+		return original.getVariableCount() - reduced.getVariableCount();
+	}
+
+	/**
+	 * Returns the index of the given original variable in the reduced problem.
+	 *
+	 * @param originalIndex Index of the variable in the original problem.
+	 * @return Index in the reduced problem or -1, if the variable was removed.
+	 */
+	public int getReducedIndex(final int originalIndex) {
+		return isReduced() ? reducedIndices[originalIndex] : originalIndex;
+	}
+
+	/**
+	 * Maps values of the variables of the original problem to the variables of the
+	 * reduced problem, e.g., a start solution. This is the inverse of postsolve().
+	 *
+	 * @param values Values indexed by the variable index in the original problem.
+	 * @return Values indexed by the variable index in the reduced problem.
+	 */
+	public double[] reduce(final double[] values) {
+		if (!isReduced()) {
+			return values;
+		}
+		final double[] reducedValues = new double[reduced.getVariableCount()];
+		for (int i = 0; i < reducedIndices.length; i++) {
+			if (reducedIndices[i] >= 0) {
+				reducedValues[reducedIndices[i]] = values[i];
+			}
+		}
+		return reducedValues;
+	}
+
+	/**
+	 * Maps the solution values of the reduced problem back to the variables of the
+	 * original problem.
+	 *
+	 * @param reducedValues Solution values indexed by the variable index in the
+	 *                      reduced problem.
+	 * @return Solution values indexed by the variable index in the original
+	 *         problem.
+	 */
+	public double[] postsolve(final double[] reducedValues) {
+		if (!isReduced()) {
+			return reducedValues;
+		}
+		final double[] values = new double[reducedIndices.length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = reducedIndices[i] < 0 ? fixedValues[i] : reducedValues[reducedIndices[i]];
+		}
+		return values;
+	}
+
+}
@@ -0,0 +1,660 @@
+package org.emoflon.ilp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class reduces a problem before it is handed to a solver. It works on the
+ * problem formulation only and is therefore independent of the solver. The
+ * following reductions are applied until nothing changes anymore: <br>
+ * - singleton rows are converted into variable bounds, <br>
+ * - variable bounds are tightened based on the activity bounds of the rows,
+ * <br>
+ * - redundant rows (e.g. big-M rows that can never be violated) are removed,
+ * <br>
+ * - duplicate (i.e. proportional) rows are merged and <br>
+ * - fixed variables are removed. <br>
+ * Afterwards, variables that are not part of any row are fixed to their best
+ * bound with respect to the objective. <br>
+ * <br>
+ *
+ * Only problems with linear constraints (LESS_OR_EQUAL, GREATER_OR_EQUAL or
+ * EQUAL) and a linear objective are reduced, all other problems, e.g., with
+ * SOS1, Or or general constraints, are returned unchanged. The same holds for
+ * problems that presolve detects to be infeasible, so that the solver reports
+ * the status. The variables of the reduced problem are copies, the variables
+ * of the original problem (including their bounds) are never changed.
+ *
+ * @see PresolveResult
+ * @see SolverConfig#isJavaPresolveEnabled()
+ */
+public class Presolver {
+
+	// bounds with a larger absolute value are treated as infinite
+	private static final double INFINITY = 1e20;
+	private static final double FEASIBILITY_TOLERANCE = 1e-6;
+	private static final double INTEGRALITY_TOLERANCE = 1e-6;
+	// minimum relative improvement for a bound to be tightened
+	private static final double MIN_IMPROVEMENT = 1e-3;
+	private static final int MAX_ROUNDS = 20;
+
+	private final SolverConfig config;
+
+	// State of the current presolve
+	private Problem problem;
+	private double[] lb;
+	private double[] ub;
+	private boolean[] integral;
+	private boolean[] fixed;
+	private double[] cost;
+	private double objConstant;
+	private ConstraintMatrix matrix;
+	private double[] lo;
+	private double[] hi;
+	private boolean[] active;
+	private boolean infeasible;
+
+	/**
+	 * The constructor for a presolver. An instance must not be used by several
+	 * threads at the same time.
+	 *
+	 * @param config Configuration that provides the default bounds of integer and
+	 *               real variables (if enabled).
+	 */
+	public Presolver(final SolverConfig config) {
+		this.config = config;
+	}
+
+	/**
+	 * Presolves the given problem. The problem is not changed.
+	 *
+	 * @param problem Problem to be presolved. Or constraints, SOS1 constraints and
+	 *                the operators LESS, GREATER and NOT_EQUAL must have been
+	 *                substituted, otherwise the problem is not reduced.
+	 * @return Reduced problem and postsolve map.
+	 */
+	public PresolveResult presolve(final Problem problem) {
+		if (!isApplicable(problem)) {
+			return PresolveResult.identity(problem);
+		}
+
+		try {
+			init(problem);
+
+			boolean changed = true;
+			for (int round = 0; changed && !infeasible && round < MAX_ROUNDS; round++) {
+				changed = false;
+				for (int row = 0; row < active.length && !infeasible; row++) {
+					if (active[row]) {
+						changed |= presolveRow(row);
+					}
+				}
+				if (!infeasible) {
+					changed |= mergeDuplicateRows();
+				}
+			}
+			if (infeasible) {
+				return PresolveResult.identity(problem);
+			}
+			fixEmptyColumns();
+			return buildResult();
+		} finally {
+			this.problem = null;
+			this.matrix = null;
+		}
+	}
+
+	/**
+	 * Returns if the problem only contains linear constraints with the operators
+	 * LESS_OR_EQUAL, GREATER_OR_EQUAL or EQUAL and a linear objective.
+	 */
+	private static boolean isApplicable(final Problem problem) {
+		if (problem.getGenConstraintCount() != 0 || problem.getSOSConstraintCount() != 0
+				|| problem.getOrConstraintCount() != 0) {
+			return false;
+		}
+		for (NormalConstraint constraint : problem.getConstraintsView()) {
+			if (!(constraint instanceof LinearConstraint)) {
+				return false;
+			}
+			switch (constraint.getOp()) {
+			case LESS_OR_EQUAL:
+			case GREATER_OR_EQUAL:
+			case EQUAL:
+				break;
+			default:
+				return false;
+			}
+		}
+		return problem.getObjective() == null
+				|| problem.getObjective().expand().getTerms().stream().noneMatch(QuadraticTerm.class::isInstance);
+	}
+
+	private void init(final Problem problem) {
+		this.problem = problem;
+		this.infeasible = false;
+
+		final int n = problem.getVariableCount();
+		lb = new double[n];
+		ub = new double[n];
+		integral = new boolean[n];
+		fixed = new boolean[n];
+		for (int j = 0; j < n; j++) {
+			final Variable<?> var = problem.getVariable(j);
+			lb[j] = lowerBound(var);
+			ub[j] = upperBound(var);
+			integral[j] = var.getType() != VarType.REAL;
+			if (lb[j] > ub[j]) {
+				// reported by the solver
+				infeasible = true;
+			}
+			checkFixed(j);
+		}
+
+		cost = new double[n];
+		objConstant = 0.0;
+		if (problem.getObjective() != null) {
+			final Function obj = problem.getObjective().expand();
+			for (Term term : obj.getTerms()) {
+				cost[problem.getVariableIndex(term.getVar1())] += term.getWeight();
+			}
+			for (Constant cons : obj.getConstants()) {
+				objConstant += cons.weight();
+			}
+		}
+
+		matrix = problem.getConstraintMatrix();
+		final int m = matrix.getRowCount();
+		lo = new double[m];
+		hi = new double[m];
+		active = new boolean[m];
+		for (int row = 0; row < m; row++) {
+			final double rhs = matrix.getRhs(row);
+			switch (matrix.getOperator(row)) {
+			case LESS_OR_EQUAL:
+				lo[row] = Double.NEGATIVE_INFINITY;
+				hi[row] = rhs;
+				break;
+			case GREATER_OR_EQUAL:
+				lo[row] = rhs;
+				hi[row] = Double.POSITIVE_INFINITY;
+				break;
+			case EQUAL:
+				lo[row] = rhs;
+				hi[row] = rhs;
+				break;
+			default:
+				throw new Error("Only <=, >= and = rows should be presolved.");
+			}
+			active[row] = true;
+		}
+	}
+
+	/**
+	 * Removes the row if it is empty, a singleton or redundant and tightens the
+	 * bounds of its variables otherwise.
+	 *
+	 * @param row Row to be presolved.
+	 * @return True, if anything was changed.
+	 */
+	private boolean presolveRow(final int row) {
+		final int[] rowStarts = matrix.getRowStarts();
+		final int[] columns = matrix.getColumns();
+		final double[] values = matrix.getValues();
+
+		double minAct = 0.0;
+		double maxAct = 0.0;
+		int minInf = 0;
+		int maxInf = 0;
+		int free = 0;
+		int last = -1;
+		for (int k = rowStarts[row]; k < rowStarts[row + 1]; k++) {
+			final int j = columns[k];
+			final double a = values[k];
+			if (a == 0.0 || fixed[j]) {
+				continue;
+			}
+			free++;
+			last = k;
+			final double l = a > 0 ? lb[j] : ub[j];
+			final double u = a > 0 ? ub[j] : lb[j];
+			if (isInfinite(l)) {
+				minInf++;
+			} else {
+				minAct += a * l;
+			}
+			if (isInfinite(u)) {
+				maxInf++;
+			} else {
+				maxAct += a * u;
+			}
+		}
+
+		final double fixedAct = fixedActivity(row);
+		final double rlo = lo[row] - fixedAct;
+		final double rhi = hi[row] - fixedAct;
+
+		// Empty row
+		if (free == 0) {
+			if (rlo > FEASIBILITY_TOLERANCE || rhi < -FEASIBILITY_TOLERANCE) {
+				infeasible = true;
+				return false;
+			}
+			active[row] = false;
+			return true;
+		}
+
+		// Singleton row: rlo <= a * x <= rhi
+		if (free == 1) {
+			final int j = columns[last];
+			final double a = values[last];
+			if (a > 0) {
+				tightenLower(j, rlo / a, 0.0);
+				tightenUpper(j, rhi / a, 0.0);
+			} else {
+				tightenLower(j, rhi / a, 0.0);
+				tightenUpper(j, rlo / a, 0.0);
+			}
+			active[row] = false;
+			return true;
+		}
+
+		// Redundant row
+		final boolean loSatisfied = isInfinite(rlo) || (minInf == 0 && minAct >= rlo - FEASIBILITY_TOLERANCE);
+		final boolean hiSatisfied = isInfinite(rhi) || (maxInf == 0 && maxAct <= rhi + FEASIBILITY_TOLERANCE);
+		if (loSatisfied && hiSatisfied) {
+			active[row] = false;
+			return true;
+		}
+		if ((minInf == 0 && minAct > rhi + FEASIBILITY_TOLERANCE)
+				|| (maxInf == 0 && maxAct < rlo - FEASIBILITY_TOLERANCE)) {
+			infeasible = true;
+			return false;
+		}
+
+		// Bound tightening
+		boolean changed = false;
+		for (int k = rowStarts[row]; k < rowStarts[row + 1] && !infeasible; k++) {
+			final int j = columns[k];
+			final double a = values[k];
+			if (a == 0.0 || fixed[j]) {
+				continue;
+			}
+			final double l = a > 0 ? lb[j] : ub[j];
+			final double u = a > 0 ? ub[j] : lb[j];
+
+			// a * x <= rhi - (minimum activity of the other entries)
+			if (!isInfinite(rhi) && (minInf == 0 || (minInf == 1 && isInfinite(l)))) {
+				final double residual = minInf == 0 ? minAct - a * l : minAct;
+				final double bound = (rhi - residual) / a;
+				changed |= a > 0 ? tightenUpper(j, bound, MIN_IMPROVEMENT)
+						: tightenLower(j, bound, MIN_IMPROVEMENT);
+			}
+			// a * x >= rlo - (maximum activity of the other entries)
+			if (!isInfinite(rlo) && (maxInf == 0 || (maxInf == 1 && isInfinite(u)))) {
+				final double residual = maxInf == 0 ? maxAct - a * u : maxAct;
+				final double bound = (rlo - residual) / a;
+				changed |= a > 0 ? tightenLower(j, bound, MIN_IMPROVEMENT)
+						: tightenUpper(j, bound, MIN_IMPROVEMENT);
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Merges rows with the same (non-fixed) variables and proportional
+	 * coefficients into the first of these rows.
+	 *
+	 * @return True, if any row was merged.
+	 */
+	private boolean mergeDuplicateRows() {
+		final int[] rowStarts = matrix.getRowStarts();
+		final int[] columns = matrix.getColumns();
+		final double[] values = matrix.getValues();
+
+		boolean changed = false;
+		// rows with the same non-fixed columns (hash collisions are checked), the
+		// columns of every row are sorted, so the order of the terms does not matter
+		final Map<Integer, List<Integer>> buckets = new HashMap<Integer, List<Integer>>();
+		for (int row = 0; row < active.length; row++) {
+			if (!active[row]) {
+				continue;
+			}
+			int hash = 1;
+			for (int k = rowStarts[row]; k < rowStarts[row + 1]; k++) {
+				if (values[k] != 0.0 && !fixed[columns[k]]) {
+					hash = 31 * hash + columns[k];
+				}
+			}
+
+			final List<Integer> bucket = buckets.computeIfAbsent(hash, h -> new ArrayList<Integer>());
+			boolean merged = false;
+			for (int other : bucket) {
+				final double scale = proportionality(other, row);
+				if (Double.isNaN(scale)) {
+					continue;
+				}
+				// row = scale * other on the non-fixed variables
+				final double otherFixed = fixedActivity(other);
+				final double rowFixed = fixedActivity(row);
+				double newLo = (lo[row] - rowFixed) / scale;
+				double newHi = (hi[row] - rowFixed) / scale;
+				if (scale < 0) {
+					final double tmp = newLo;
+					newLo = newHi;
+					newHi = tmp;
+				}
+				lo[other] = Math.max(lo[other], otherFixed + newLo);
+				hi[other] = Math.min(hi[other], otherFixed + newHi);
+				if (lo[other] > hi[other] + FEASIBILITY_TOLERANCE) {
+					infeasible = true;
+					return false;
+				}
+				hi[other] = Math.max(lo[other], hi[other]);
+				active[row] = false;
+				merged = true;
+				changed = true;
+				break;
+			}
+			if (!merged) {
+				bucket.add(row);
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Returns the factor s, so that row2 = s * row1 on the non-fixed variables.
+	 *
+	 * @return Factor or NaN, if the rows are not proportional.
+	 */
+	private double proportionality(final int row1, final int row2) {
+		final int[] rowStarts = matrix.getRowStarts();
+		final int[] columns = matrix.getColumns();
+		final double[] values = matrix.getValues();
+
+		int k1 = rowStarts[row1];
+		int k2 = rowStarts[row2];
+		double scale = Double.NaN;
+		while (true) {
+			while (k1 < rowStarts[row1 + 1] && (values[k1] == 0.0 || fixed[columns[k1]])) {
+				k1++;
+			}
+			while (k2 < rowStarts[row2 + 1] && (values[k2] == 0.0 || fixed[columns[k2]])) {
+				k2++;
+			}
+			final boolean end1 = k1 == rowStarts[row1 + 1];
+			final boolean end2 = k2 == rowStarts[row2 + 1];
+			if (end1 || end2) {
+				return end1 && end2 ? scale : Double.NaN;
+			}
+			if (columns[k1] != columns[k2]) {
+				return Double.NaN;
+			}
+			final double s = values[k2] / values[k1];
+			if (Double.isNaN(scale)) {
+				scale = s;
+			} else if (Math.abs(s - scale) > 1e-9 * Math.max(1.0, Math.abs(scale))) {
+				return Double.NaN;
+			}
+			k1++;
+			k2++;
+		}
+	}
+
+	/**
+	 * Fixes all variables that are not part of any row to their best bound with
+	 * respect to the objective. Variables whose best bound is infinite are kept.
+	 */
+	private void fixEmptyColumns() {
+		final int[] rowStarts = matrix.getRowStarts();
+		final int[] columns = matrix.getColumns();
+		final double[] values = matrix.getValues();
+
+		final boolean[] used = new boolean[lb.length];
+		for (int row = 0; row < active.length; row++) {
+			if (!active[row]) {
+				continue;
+			}
+			for (int k = rowStarts[row]; k < rowStarts[row + 1]; k++) {
+				if (values[k] != 0.0) {
+					used[columns[k]] = true;
+				}
+			}
+		}
+
+		final double sense = problem.getType() == ObjectiveType.MAX ? -1.0 : 1.0;
+		for (int j = 0; j < lb.length; j++) {
+			if (used[j] || fixed[j]) {
+				continue;
+			}
+			final double c = sense * cost[j];
+			double value;
+			if (c > 0) {
+				value = lb[j];
+			} else if (c < 0) {
+				value = ub[j];
+			} else {
+				value = Math.min(Math.max(0.0, lb[j]), ub[j]);
+			}
+			if (!isInfinite(value)) {
+				fix(j, value);
+			}
+		}
+	}
+
+	/**
+	 * Builds the reduced problem from the remaining rows and variables.
+	 */
+	private PresolveResult buildResult() {
+		final int n = lb.length;
+		final Problem reduced = new Problem();
+
+		final Variable<?>[] copies = new Variable<?>[n];
+		for (int j = 0; j < n; j++) {
+			if (!fixed[j]) {
+				copies[j] = copyVariable(problem.getVariable(j), lb[j], ub[j]);
+			}
+		}
+
+		// Objective with the contribution of the fixed variables as constant
+		final LinearFunction objective = new LinearFunction();
+		double constant = objConstant;
+		for (int j = 0; j < n; j++) {
+			if (fixed[j]) {
+				constant += cost[j] * lb[j];
+			} else if (cost[j] != 0.0) {
+				objective.addTerm(copies[j], cost[j]);
+			}
+		}
+		if (constant != 0.0) {
+			objective.addConstant(constant);
+		}
+		reduced.setDerivedObjective(objective, problem.getType());
+
+		// Remaining rows
+		final int[] rowStarts = matrix.getRowStarts();
+		final int[] columns = matrix.getColumns();
+		final double[] values = matrix.getValues();
+		for (int row = 0; row < active.length; row++) {
+			if (!active[row]) {
+				continue;
+			}
+			final List<Term> terms = new ArrayList<Term>();
+			for (int k = rowStarts[row]; k < rowStarts[row + 1]; k++) {
+				if (values[k] != 0.0 && !fixed[columns[k]]) {
+					terms.add(new LinearTerm(copies[columns[k]], values[k]));
+				}
+			}
+			final double fixedAct = fixedActivity(row);
+			final double rlo = lo[row] - fixedAct;
+			final double rhi = hi[row] - fixedAct;
+			final String name = matrix.getConstraint(row).getName();
+
+			if (rlo == rhi) {
+				addRow(reduced, name, terms, Operator.EQUAL, rhi);
+			} else if (isInfinite(rlo)) {
+				addRow(reduced, name, terms, Operator.LESS_OR_EQUAL, rhi);
+			} else if (isInfinite(rhi)) {
+				addRow(reduced, name, terms, Operator.GREATER_OR_EQUAL, rlo);
+			} else {
+				// ranged row (result of merged duplicates)
+				addRow(reduced, name, terms, Operator.LESS_OR_EQUAL, rhi);
+				addRow(reduced, name + NameGenerator.SEPARATOR + "lo", terms, Operator.GREATER_OR_EQUAL, rlo);
+			}
+		}
+
+		// Postsolve map
+		final int[] reducedIndices = new int[n];
+		final double[] fixedValues = new double[n];
+		for (int j = 0; j < n; j++) {
+			if (fixed[j]) {
+				reducedIndices[j] = -1;
+				fixedValues[j] = lb[j];
+			} else if (reduced.getVariables().containsKey(copies[j].getName())) {
+				reducedIndices[j] = reduced.getVariableIndex(copies[j]);
+			} else {
+				throw new Error("A variable that was not fixed should be part of a row or the objective.");
+			}
+		}
+		return new PresolveResult(problem, reduced, reducedIndices, fixedValues);
+	}
+
+	private static void addRow(final Problem reduced, final String name, final List<Term> terms, final Operator op,
+			final double rhs) {
+		final LinearConstraint constraint = new LinearConstraint(terms, op, rhs);
+		constraint.setName(name);
+		reduced.add(constraint);
+	}
+
+	/**
+	 * Returns the activity of the fixed variables of the given row.
+	 */
+	private double fixedActivity(final int row) {
+		final int[] rowStarts = matrix.getRowStarts();
+		final int[] columns = matrix.getColumns();
+		final double[] values = matrix.getValues();
+		double activity = 0.0;
+		for (int k = rowStarts[row]; k < rowStarts[row + 1]; k++) {
+			if (fixed[columns[k]]) {
+				activity += values[k] * lb[columns[k]];
+			}
+		}
+		return activity;
+	}
+
+	/**
+	 * Raises the lower bound of the variable to the given bound, if that is an
+	 * improvement of at least the given (relative) amount. Rows that are removed
+	 * in favor of the bound must use a minimum improvement of 0.
+	 */
+	private boolean tightenLower(final int j, double bound, final double minImprovement) {
+		if (isInfinite(bound)) {
+			return false;
+		}
+		if (integral[j]) {
+			bound = Math.ceil(bound - INTEGRALITY_TOLERANCE);
+		}
+		if (!(bound > lb[j] + minImprovement * Math.max(1.0, Math.abs(bound))) && !isInfinite(lb[j])) {
+			return false;
+		}
+		if (bound > ub[j] + FEASIBILITY_TOLERANCE) {
+			infeasible = true;
+			return false;
+		}
+		lb[j] = Math.min(bound, ub[j]);
+		checkFixed(j);
+		return true;
+	}
+
+	/**
+	 * Lowers the upper bound of the variable to the given bound, if that is an
+	 * improvement of at least the given (relative) amount.
+	 */
+	private boolean tightenUpper(final int j, double bound, final double minImprovement) {
+		if (isInfinite(bound)) {
+			return false;
+		}
+		if (integral[j]) {
+			bound = Math.floor(bound + INTEGRALITY_TOLERANCE);
+		}
+		if (!(bound < ub[j] - minImprovement * Math.max(1.0, Math.abs(bound))) && !isInfinite(ub[j])) {
+			return false;
+		}
+		if (bound < lb[j] - FEASIBILITY_TOLERANCE) {
+			infeasible = true;
+			return false;
+		}
+		ub[j] = Math.max(bound, lb[j]);
+		checkFixed(j);
+		return true;
+	}
+
+	private void checkFixed(final int j) {
+		if (!fixed[j] && !isInfinite(lb[j]) && ub[j] - lb[j] <= FEASIBILITY_TOLERANCE) {
+			fix(j, integral[j] ? Math.round(lb[j]) : lb[j]);
+		}
+	}
+
+	private void fix(final int j, final double value) {
+		fixed[j] = true;
+		lb[j] = value;
+		ub[j] = value;
+	}
+
+	/**
+	 * Returns the lower bound of the variable the solver would use.
+	 */
+	private double lowerBound(final Variable<?> var) {
+		if (config != null && config.isBoundsEnabled()) {
+			if ((var instanceof IntegerVariable && ((IntegerVariable) var).isDefaultLowerBound())
+					|| (var instanceof RealVariable && ((RealVariable) var).isDefaultLowerBound())) {
+				return config.getLowerBound();
+			}
+		}
+		return var.lowerBoundAsDouble();
+	}
+
+	/**
+	 * Returns the upper bound of the variable the solver would use.
+	 */
+	private double upperBound(final Variable<?> var) {
+		if (config != null && config.isBoundsEnabled()) {
+			if ((var instanceof IntegerVariable && ((IntegerVariable) var).isDefaultUpperBound())
+					|| (var instanceof RealVariable && ((RealVariable) var).isDefaultUpperBound())) {
+				return config.getUpperBound();
+			}
+		}
+		return var.upperBoundAsDouble();
+	}
+
+	/**
+	 * Returns a copy of the variable with the given bounds. The copy has the same
+	 * name, so it can be mapped to the original variable.
+	 */
+	private static Variable<?> copyVariable(final Variable<?> var, final double lb, final double ub) {
+		switch (var.getType()) {
+		case BINARY:
+			return new BinaryVariable(var.getName());
+		case INTEGER:
+			final IntegerVariable integerCopy = new IntegerVariable(var.getName());
+			integerCopy.setLowerBound((int) lb);
+			integerCopy.setUpperBound((int) ub);
+			return integerCopy;
+		case REAL:
+			final RealVariable realCopy = new RealVariable(var.getName());
+			realCopy.setLowerBound(lb);
+			realCopy.setUpperBound(ub);
+			return realCopy;
+		default:
+			throw new UnsupportedOperationException("This variable type is not known.");
+		}
+	}
+
+	private static boolean isInfinite(final double value) {
+		return value <= -INFINITY || value >= INFINITY;
+	}
+
+}
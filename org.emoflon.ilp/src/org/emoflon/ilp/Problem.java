@@ -1,9 +1,15 @@
 package org.emoflon.ilp;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -14,20 +20,62 @@ public class Problem {
 
 	private Function objective;
 	private ObjectiveType type = ObjectiveType.MIN;
-	private Map<String, NormalConstraint> constraints = new HashMap<String, NormalConstraint>();
-	private Map<String, GeneralConstraint> genConstraints = new HashMap<String, GeneralConstraint>();
-	private Map<String, SOS1Constraint> sosConstraints = new HashMap<String, SOS1Constraint>();
-	private Map<String, OrConstraint> orConstraints = new HashMap<String, OrConstraint>();
+	// Insertion ordered, so the order of the rows sent to the solver is
+	// deterministic
+	private Map<String, NormalConstraint> constraints = new LinkedHashMap<String, NormalConstraint>();
+	private Map<String, GeneralConstraint> genConstraints = new LinkedHashMap<String, GeneralConstraint>();
+	private Map<String, SOS1Constraint> sosConstraints = new LinkedHashMap<String, SOS1Constraint>();
+	private Map<String, OrConstraint> orConstraints = new LinkedHashMap<String, OrConstraint>();
 
-	private Map<String, Variable<?>> variables = new HashMap<String, Variable<?>>();
+	private Map<String, Variable<?>> variables = new LinkedHashMap<String, Variable<?>>();
+	private List<Variable<?>> variableList = new ArrayList<Variable<?>>();
+	private Map<String, Integer> variableIndices = new HashMap<String, Integer>();
 
 	private int constraintNameGenCounter = 0;
+	private final NameGenerator nameGenerator;
+
+	// Change journal since the last call of clearChanges()
+	private final Map<String, NormalConstraint> addedConstraints = new LinkedHashMap<String, NormalConstraint>();
+	private final Map<String, NormalConstraint> removedConstraints = new LinkedHashMap<String, NormalConstraint>();
+	private boolean objectiveChanged = false;
+	private boolean otherChanged = false;
+	private double[] journalLowerBounds = new double[0];
+	private double[] journalUpperBounds = new double[0];
+	// Solvers whose models the journal is relative to
+	private final Set<Solver> builtBy = Collections.newSetFromMap(new IdentityHashMap<Solver, Boolean>());
+	// Solvers that built this problem during a shared build, null otherwise
+	private Set<Solver> sharedBuilders;
 
 	/**
 	 * The constructor for a problem.
 	 */
 	public Problem() {
 		super();
+		this.nameGenerator = new NameGenerator();
+	}
+
+	/**
+	 * Creates a shallow copy of the given problem. The copy contains the same
+	 * objective, constraint and variable objects, but constraints can be added and
+	 * removed without affecting the source problem. The variables keep their
+	 * indices and generated names continue where the source problem stopped.
+	 * 
+	 * @param source Problem to be copied.
+	 * @see ProblemTransformer
+	 */
+	Problem(final Problem source) {
+		super();
+		this.objective = source.objective;
+		this.type = source.type;
+		this.constraints.putAll(source.constraints);
+		this.genConstraints.putAll(source.genConstraints);
+		this.sosConstraints.putAll(source.sosConstraints);
+		this.orConstraints.putAll(source.orConstraints);
+		this.variables.putAll(source.variables);
+		this.variableList.addAll(source.variableList);
+		this.variableIndices.putAll(source.variableIndices);
+		this.constraintNameGenCounter = source.constraintNameGenCounter;
+		this.nameGenerator = new NameGenerator(source.nameGenerator.getCount());
 	}
 
 	/**
@@ -48,6 +96,7 @@ public class Problem {
 	 */
 	public void setType(ObjectiveType type) {
 		this.type = type;
+		this.objectiveChanged = true;
 	}
 
 	/**
@@ -139,6 +188,93 @@ public class Problem {
 		return new ArrayList<OrConstraint>(this.orConstraints.values());
 	}
 
+	/**
+	 * Returns a read-only live view of all normal constraints currently contained
+	 * in this problem in the order they were added. In contrast to
+	 * getConstraints(), the constraints are not copied. The view must not be
+	 * iterated while constraints are added or removed.
+	 * 
+	 * @return Read-only view of all normal constraints.
+	 * @see LinearConstraint
+	 * @see QuadraticConstraint
+	 */
+	public Collection<NormalConstraint> getConstraintsView() {
+		return Collections.unmodifiableCollection(this.constraints.values());
+	}
+
+	/**
+	 * Returns a read-only live view of all general constraints currently contained
+	 * in this problem in the order they were added.
+	 * 
+	 * @return Read-only view of all general constraints.
+	 * @see #getConstraintsView()
+	 */
+	public Collection<GeneralConstraint> getGeneralConstraintsView() {
+		return Collections.unmodifiableCollection(this.genConstraints.values());
+	}
+
+	/**
+	 * Returns a read-only live view of all SOS constraints currently contained in
+	 * this problem in the order they were added.
+	 * 
+	 * @return Read-only view of all SOS constraints.
+	 * @see #getConstraintsView()
+	 */
+	public Collection<SOS1Constraint> getSOSConstraintsView() {
+		return Collections.unmodifiableCollection(this.sosConstraints.values());
+	}
+
+	/**
+	 * Returns a read-only live view of all Or constraints currently contained in
+	 * this problem in the order they were added.
+	 * 
+	 * @return Read-only view of all Or constraints.
+	 * @see #getConstraintsView()
+	 */
+	public Collection<OrConstraint> getOrConstraintsView() {
+		return Collections.unmodifiableCollection(this.orConstraints.values());
+	}
+
+	/**
+	 * Performs the given action for every normal constraint in the order they were
+	 * added. The action must not add or remove constraints.
+	 * 
+	 * @param action Action to be performed for each normal constraint.
+	 */
+	public void forEachConstraint(final Consumer<? super NormalConstraint> action) {
+		this.constraints.values().forEach(action);
+	}
+
+	/**
+	 * Performs the given action for every general constraint in the order they
+	 * were added. The action must not add or remove constraints.
+	 * 
+	 * @param action Action to be performed for each general constraint.
+	 */
+	public void forEachGeneralConstraint(final Consumer<? super GeneralConstraint> action) {
+		this.genConstraints.values().forEach(action);
+	}
+
+	/**
+	 * Performs the given action for every SOS constraint in the order they were
+	 * added. The action must not add or remove constraints.
+	 * 
+	 * @param action Action to be performed for each SOS constraint.
+	 */
+	public void forEachSOSConstraint(final Consumer<? super SOS1Constraint> action) {
+		this.sosConstraints.values().forEach(action);
+	}
+
+	/**
+	 * Performs the given action for every Or constraint in the order they were
+	 * added. The action must not add or remove constraints.
+	 * 
+	 * @param action Action to be performed for each Or constraint.
+	 */
+	public void forEachOrConstraint(final Consumer<? super OrConstraint> action) {
+		this.orConstraints.values().forEach(action);
+	}
+
 	/**
 	 * Returns all variables that are part of the problem formulation.
 	 * 
@@ -171,13 +307,37 @@ public class Problem {
 		} else if (objective.getTerms().isEmpty()) {
 			System.out.println("WARNING: The objective function of this problem does not contain any variables.");
 		}
+		assignObjective(objective);
+	}
+
+	/**
+	 * Sets the objective function of a problem derived from another problem, e.g.,
+	 * by the presolve. The objective may not contain any variables then, this is
+	 * not reported.
+	 * 
+	 * @param objective Objective function to be optimized.
+	 * @param type      Objective type of this problem (MIN or MAX).
+	 * @see Presolver
+	 */
+	void setDerivedObjective(final Function objective, final ObjectiveType type) {
+		assignObjective(objective);
+		setType(type);
+	}
+
+	/**
+	 * Registers the variables of the objective function and sets it.
+	 * 
+	 * @param objective Objective function to be optimized.
+	 */
+	private void assignObjective(final Function objective) {
 		for (Term term : objective.getTerms()) {
-			variables.put(term.getVar1().getName(), term.getVar1());
+			registerVariable(term.getVar1());
 			if (term instanceof QuadraticTerm) {
-				variables.put(((QuadraticTerm) term).getVar2().getName(), ((QuadraticTerm) term).getVar2());
+				registerVariable(((QuadraticTerm) term).getVar2());
 			}
 		}
 		this.objective = objective;
+		this.objectiveChanged = true;
 	}
 
 	/**
@@ -202,6 +362,7 @@ public class Problem {
 			System.out.println("WARNING: The objective function of this problem is empty.");
 		}
 		this.objective = new LinearFunction();
+		this.objectiveChanged = true;
 	}
 
 	/**
@@ -259,6 +420,111 @@ public class Problem {
 		return variables.size();
 	}
 
+	/**
+	 * Returns the dense index of the given variable. Every variable gets an index
+	 * when it is added to this problem as part of the objective or a constraint.
+	 * The indices range from 0 to getVariableCount() - 1. The variables of this
+	 * library remember their index, so it is found without a lookup by name.
+	 * 
+	 * @param variable Variable to get the index for.
+	 * @return Index of the variable.
+	 */
+	public int getVariableIndex(final Variable<?> variable) {
+		if (variable instanceof IndexedVariable) {
+			// The variable remembers its index, the name only has to be hashed if it was
+			// added to another problem since
+			final IndexedVariable<?> indexed = (IndexedVariable<?>) variable;
+			final int hint = indexed.getIndexHint();
+			if (hint >= 0 && hint < variableList.size() && variableList.get(hint) == variable) {
+				return hint;
+			}
+			final int index = getVariableIndex(variable.getName());
+			if (variableList.get(index) == variable) {
+				indexed.setIndexHint(index);
+			}
+			return index;
+		}
+		return getVariableIndex(variable.getName());
+	}
+
+	/**
+	 * Returns the dense index of the variable with the given name.
+	 * 
+	 * @param name Name of the variable to get the index for.
+	 * @return Index of the variable.
+	 * @see #getVariableIndex(Variable)
+	 */
+	public int getVariableIndex(final String name) {
+		final Integer index = variableIndices.get(name);
+		if (index == null) {
+			throw new IllegalArgumentException("The variable " + name + " is not part of this problem.");
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the variable with the given index.
+	 * 
+	 * @param index Index of the variable.
+	 * @return Variable with the given index.
+	 * @see #getVariableIndex(Variable)
+	 */
+	public Variable<?> getVariable(final int index) {
+		return variableList.get(index);
+	}
+
+	/**
+	 * Returns all variables that are part of the problem formulation ordered by
+	 * their index.
+	 * 
+	 * @return Unmodifiable list of all variables.
+	 */
+	public List<Variable<?>> getVariableList() {
+		return Collections.unmodifiableList(variableList);
+	}
+
+	/**
+	 * Returns the linear constraints of this problem as a sparse matrix whose
+	 * columns are the variable indices. The matrix is a snapshot, later changes of
+	 * the problem or its constraints are not reflected.
+	 * 
+	 * @return Constraint matrix of all linear constraints.
+	 * @see ConstraintMatrix
+	 */
+	public ConstraintMatrix getConstraintMatrix() {
+		return ConstraintMatrix.build(constraints.values(), this);
+	}
+
+	/**
+	 * Adds the variable to this problem and assigns the next free index to it. If a
+	 * variable with the same name is already part of this problem, it is replaced
+	 * and keeps its index.
+	 * 
+	 * @param variable Variable to be added.
+	 */
+	private void registerVariable(final Variable<?> variable) {
+		final Integer index = variableIndices.putIfAbsent(variable.getName(), variableList.size());
+		if (index == null) {
+			variableList.add(variable);
+		} else {
+			variableList.set(index, variable);
+		}
+		if (variable instanceof IndexedVariable) {
+			((IndexedVariable<?>) variable).setIndexHint(index == null ? variableList.size() - 1 : index);
+		}
+		variables.put(variable.getName(), variable);
+	}
+
+	/**
+	 * Returns the generator for the names of auxiliary variables that are
+	 * introduced by the substitution methods of this problem.
+	 * 
+	 * @return Name generator of this problem.
+	 */
+	public NameGenerator getNameGenerator() {
+		return nameGenerator;
+	}
+
 	/**
 	 * If the given constraint does not have a name, yet, this method sets a generic
 	 * (unique) name.
@@ -282,12 +548,16 @@ public class Problem {
 	public void add(NormalConstraint constraint) {
 		genConstraintNameIfAbsent(constraint);
 		for (Term term : constraint.getLhsTerms()) {
-			variables.put(term.getVar1().getName(), term.getVar1());
+			registerVariable(term.getVar1());
 			if (term instanceof QuadraticTerm) {
-				variables.put(((QuadraticTerm) term).getVar2().getName(), ((QuadraticTerm) term).getVar2());
+				registerVariable(((QuadraticTerm) term).getVar2());
 			}
 		}
-		constraints.put(constraint.getName(), constraint);
+		final NormalConstraint replaced = constraints.put(constraint.getName(), constraint);
+		if (replaced != null) {
+			journalRemove(replaced);
+		}
+		addedConstraints.put(constraint.getName(), constraint);
 	}
 
 	/**
@@ -298,10 +568,11 @@ public class Problem {
 	public void add(GeneralConstraint constraint) {
 		genConstraintNameIfAbsent(constraint);
 		for (Variable<?> var : constraint.getVariables()) {
-			variables.put(var.getName(), var);
+			registerVariable(var);
 		}
-		variables.put(constraint.getResult().getName(), constraint.getResult());
+		registerVariable(constraint.getResult());
 		genConstraints.put(constraint.getName(), constraint);
+		otherChanged = true;
 	}
 
 	/**
@@ -313,9 +584,10 @@ public class Problem {
 	public void add(SOS1Constraint constraint) {
 		genConstraintNameIfAbsent(constraint);
 		for (Variable<?> var : constraint.getVariables()) {
-			variables.put(var.getName(), var);
+			registerVariable(var);
 		}
 		sosConstraints.put(constraint.getName(), constraint);
+		otherChanged = true;
 	}
 
 	/**
@@ -328,10 +600,11 @@ public class Problem {
 		genConstraintNameIfAbsent(constraint);
 		for (LinearConstraint lin : constraint.getConstraints()) {
 			for (Term term : lin.getLhsTerms()) {
-				variables.put(term.getVar1().getName(), term.getVar1());
+				registerVariable(term.getVar1());
 			}
 		}
 		orConstraints.put(constraint.getName(), constraint);
+		otherChanged = true;
 	}
 
 	/**
@@ -343,7 +616,12 @@ public class Problem {
 	 *         problem formulation.
 	 */
 	public boolean remove(NormalConstraint constraint) {
-		return constraints.remove(constraint.getName()) != null;
+		final NormalConstraint removed = constraints.remove(constraint.getName());
+		if (removed == null) {
+			return false;
+		}
+		journalRemove(removed);
+		return true;
 	}
 
 	/**
@@ -355,7 +633,11 @@ public class Problem {
 	 *         problem formulation.
 	 */
 	public boolean remove(GeneralConstraint constraint) {
-		return genConstraints.remove(constraint.getName()) != null;
+		if (genConstraints.remove(constraint.getName()) == null) {
+			return false;
+		}
+		otherChanged = true;
+		return true;
 	}
 
 	/**
@@ -367,7 +649,11 @@ public class Problem {
 	 *         problem formulation.
 	 */
 	public boolean remove(SOS1Constraint constraint) {
-		return sosConstraints.remove(constraint.getName()) != null;
+		if (sosConstraints.remove(constraint.getName()) == null) {
+			return false;
+		}
+		otherChanged = true;
+		return true;
 	}
 
 	/**
@@ -379,7 +665,145 @@ public class Problem {
 	 *         problem formulation.
 	 */
 	public boolean remove(OrConstraint constraint) {
-		return orConstraints.remove(constraint.getName()) != null;
+		if (orConstraints.remove(constraint.getName()) == null) {
+			return false;
+		}
+		otherChanged = true;
+		return true;
+	}
+
+	/**
+	 * Records the removal of a normal constraint in the change journal. A
+	 * constraint that was added since the journal was cleared is just forgotten.
+	 * 
+	 * @param constraint Removed constraint.
+	 */
+	private void journalRemove(final NormalConstraint constraint) {
+		if (addedConstraints.remove(constraint.getName()) == null) {
+			removedConstraints.put(constraint.getName(), constraint);
+		}
+	}
+
+	/**
+	 * Returns the changes of this problem since the change journal was cleared
+	 * last, i.e., since the last build by a solver. A new problem reports all its
+	 * content as added.
+	 * 
+	 * @return Changes since the journal was cleared.
+	 * @see ProblemChanges
+	 */
+	public ProblemChanges getChanges() {
+		final List<Variable<?>> addedVariables = new ArrayList<Variable<?>>();
+		final List<Variable<?>> changedBounds = new ArrayList<Variable<?>>();
+		for (int i = 0; i < variableList.size(); i++) {
+			final Variable<?> var = variableList.get(i);
+			if (i >= journalLowerBounds.length) {
+				addedVariables.add(var);
+			} else if (var.lowerBoundAsDouble() != journalLowerBounds[i]
+					|| var.upperBoundAsDouble() != journalUpperBounds[i]) {
+				changedBounds.add(var);
+			}
+		}
+		return new ProblemChanges(new ArrayList<NormalConstraint>(addedConstraints.values()),
+				new ArrayList<NormalConstraint>(removedConstraints.values()), addedVariables, changedBounds,
+				objectiveChanged, otherChanged);
+	}
+
+	/**
+	 * Returns if the bounds of the given variable were widened since the change
+	 * journal was cleared, i.e., the lower bound decreased or the upper bound
+	 * increased. Variables added since are not widened.
+	 * 
+	 * @param variable Variable to be checked.
+	 * @return True, if the bounds of the variable were widened.
+	 */
+	boolean isBoundWidened(final Variable<?> variable) {
+		final int index = getVariableIndex(variable);
+		return index < journalLowerBounds.length && (variable.lowerBoundAsDouble() < journalLowerBounds[index]
+				|| variable.upperBoundAsDouble() > journalUpperBounds[index]);
+	}
+
+	/**
+	 * Clears the change journal of this problem. The current bounds of the
+	 * variables are remembered to detect bound changes.
+	 */
+	public void clearChanges() {
+		addedConstraints.clear();
+		removedConstraints.clear();
+		objectiveChanged = false;
+		otherChanged = false;
+		journalLowerBounds = new double[variableList.size()];
+		journalUpperBounds = new double[variableList.size()];
+		for (int i = 0; i < variableList.size(); i++) {
+			journalLowerBounds[i] = variableList.get(i).lowerBoundAsDouble();
+			journalUpperBounds[i] = variableList.get(i).upperBoundAsDouble();
+		}
+		builtBy.clear();
+	}
+
+	/**
+	 * Clears the change journal after the given solver built this problem. The
+	 * solver can apply the next changes to its model instead of rebuilding it.
+	 * During a shared build, the journal is kept for the other solvers and
+	 * cleared by endSharedBuild().
+	 * 
+	 * @param solver Solver that built this problem.
+	 */
+	void clearChanges(final Solver solver) {
+		if (sharedBuilders != null) {
+			sharedBuilders.add(solver);
+			return;
+		}
+		clearChanges();
+		builtBy.add(solver);
+	}
+
+	/**
+	 * Removes the given solver from the builders of this problem, e.g., because
+	 * its model was changed directly. The next build by the solver rebuilds the
+	 * model.
+	 * 
+	 * @param solver Solver whose model differs from this problem.
+	 */
+	void removeBuilder(final Solver solver) {
+		builtBy.remove(solver);
+	}
+
+	/**
+	 * Starts a build of this problem by several solvers, e.g., the legs of a
+	 * portfolio. All solvers see the same changes, the journal is not cleared
+	 * until endSharedBuild() is called.
+	 * 
+	 * @see PortfolioSolver
+	 */
+	void beginSharedBuild() {
+		if (sharedBuilders != null) {
+			throw new IllegalStateException("A shared build of the problem is already running.");
+		}
+		sharedBuilders = Collections.newSetFromMap(new IdentityHashMap<Solver, Boolean>());
+	}
+
+	/**
+	 * Ends a shared build and clears the change journal. The next changes are
+	 * relative to the models of all solvers that built this problem since
+	 * beginSharedBuild().
+	 */
+	void endSharedBuild() {
+		final Set<Solver> builders = sharedBuilders;
+		sharedBuilders = null;
+		clearChanges();
+		builtBy.addAll(builders);
+	}
+
+	/**
+	 * Returns if the given solver built this problem last and the change journal
+	 * was not cleared since, i.e., by a build of another solver.
+	 * 
+	 * @param solver Solver to be checked.
+	 * @return True, if the changes are relative to the model of the solver.
+	 */
+	boolean isBuiltBy(final Solver solver) {
+		return builtBy.contains(solver);
 	}
 
 	/**
@@ -397,8 +821,8 @@ public class Problem {
 
 		// Or Constraints
 		// Substitute Or Constraints with Linear Constraints and SOS1 Constraints
-		for (OrConstraint constraint : this.getOrConstraints()) {
-			List<Constraint> converted = constraint.convert();
+		for (OrConstraint constraint : this.orConstraints.values()) {
+			List<Constraint> converted = constraint.convert(nameGenerator);
 			normalConstraints.addAll(converted.stream().filter(NormalConstraint.class::isInstance)
 					.map(LinearConstraint.class::cast).collect(Collectors.toList()));
 			sosConstraints.addAll(converted.stream().filter(SOS1Constraint.class::isInstance)
@@ -430,7 +854,7 @@ public class Problem {
 		List<NormalConstraint> delete = new ArrayList<NormalConstraint>();
 
 		for (NormalConstraint constraint : this.getConstraints()) {
-			List<Constraint> substitution = constraint.convertOperator();
+			List<Constraint> substitution = constraint.convertOperator(nameGenerator);
 			if (substitution.size() > 0) {
 				delete.add(constraint);
 			}
@@ -452,6 +876,38 @@ public class Problem {
 		sosConstraints.forEach(it -> this.add(it));
 	}
 
+	/**
+	 * Replaces all linear constraints with the operator NOT_EQUAL by Or
+	 * constraints: f != k is replaced by Or(f &lt;= k - e, f &gt;= k + e), where e
+	 * is the epsilon of the linear constraint. The Or constraints keep the names of
+	 * the replaced constraints. <br>
+	 * <br>
+	 *
+	 * This is only useful for solvers that support Or constraints natively,
+	 * quadratic constraints are not changed.
+	 *
+	 * @see SolverCapabilities#isNativeOr()
+	 */
+	public void substituteNotEqualWithOr() {
+		List<LinearConstraint> delete = new ArrayList<LinearConstraint>();
+		for (NormalConstraint constraint : this.constraints.values()) {
+			if (constraint instanceof LinearConstraint && constraint.getOp() == Operator.NOT_EQUAL) {
+				delete.add((LinearConstraint) constraint);
+			}
+		}
+
+		for (LinearConstraint constraint : delete) {
+			this.constraints.remove(constraint.getName());
+			OrConstraint or = new OrConstraint(constraint.getEpsilon());
+			or.addConstraint(new LinearConstraint(constraint.getLhsTerms(), Operator.LESS_OR_EQUAL,
+					constraint.getRhs() - constraint.getEpsilon(), constraint.getEpsilon()));
+			or.addConstraint(new LinearConstraint(constraint.getLhsTerms(), Operator.GREATER_OR_EQUAL,
+					constraint.getRhs() + constraint.getEpsilon(), constraint.getEpsilon()));
+			or.setName(constraint.getName());
+			this.add(or);
+		}
+	}
+
 	/**
 	 * Substitutes all SOS1 constraints with the result of their conversion. After
 	 * calling this method, there are no more SOS1 constraints in the problem
@@ -465,8 +921,8 @@ public class Problem {
 	public void substituteSOS1() {
 		// SOS1 Constraints
 		// Substitute SOS1 Constraints
-		for (SOS1Constraint constraint : this.getSOSConstraints()) {
-			List<LinearConstraint> substitution = constraint.convert();
+		for (SOS1Constraint constraint : this.sosConstraints.values()) {
+			List<LinearConstraint> substitution = constraint.convert(nameGenerator);
 			substitution.forEach(it -> this.add(it));
 		}
 
@@ -474,6 +930,51 @@ public class Problem {
 		sosConstraints.clear();
 	}
 
+	/**
+	 * Brings the objective and all normal constraints into a canonical form: Nested
+	 * functions are expanded, terms on the same variable (or pair of variables) are
+	 * merged, terms with a coefficient of 0 are dropped and constants are folded
+	 * into a single constant. <br>
+	 * <br>
+	 *
+	 * Functions and constraints that are not canonical, yet, are replaced by new
+	 * objects, so they can still be shared with other problems.
+	 */
+	public void canonicalize() {
+		final TermCanonicalizer canonicalizer = new TermCanonicalizer(this);
+		if (objective != null && !canonicalizer.isCanonical(objective)) {
+			final Function expanded = objective.expand();
+			for (Term term : expanded.getTerms()) {
+				registerVariable(term.getVar1());
+				if (term instanceof QuadraticTerm) {
+					registerVariable(((QuadraticTerm) term).getVar2());
+				}
+			}
+			objective = canonicalizer.canonicalize(expanded);
+		}
+		constraints.replaceAll((name, constraint) -> canonicalizer.isCanonical(constraint) ? constraint
+				: canonicalizer.canonicalize(constraint));
+	}
+
+	/**
+	 * Returns if the objective and all normal constraints are in canonical form.
+	 *
+	 * @return True, if canonicalize() would not change this problem.
+	 * @see #canonicalize()
+	 */
+	public boolean isCanonical() {
+		final TermCanonicalizer canonicalizer = new TermCanonicalizer(this);
+		if (objective != null && !canonicalizer.isCanonical(objective)) {
+			return false;
+		}
+		for (NormalConstraint constraint : constraints.values()) {
+			if (!canonicalizer.isCanonical(constraint)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Returns the constraint for the given name or throws an error if there is no
 	 * constraint with a matching name.
@@ -0,0 +1,109 @@
+package org.emoflon.ilp;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class represents the changes of a problem since its change journal was
+ * cleared, i.e., since it was built by a solver. <br>
+ * <br>
+ *
+ * Constraints are tracked when they are added to or removed from the problem.
+ * Changes of constraint objects that are already part of the problem are not
+ * tracked, such constraints have to be removed and added again. Bound changes
+ * are detected by comparing the bounds of the variables with the bounds they
+ * had when the journal was cleared.
+ *
+ * @see Problem#getChanges()
+ * @see Problem#clearChanges()
+ */
+public class ProblemChanges {
+
+	private final List<NormalConstraint> addedConstraints;
+	private final List<NormalConstraint> removedConstraints;
+	private final List<Variable<?>> addedVariables;
+	private final List<Variable<?>> changedBounds;
+	private final boolean objectiveChanged;
+	private final boolean otherChanged;
+
+	ProblemChanges(final List<NormalConstraint> addedConstraints, final List<NormalConstraint> removedConstraints,
+			final List<Variable<?>> addedVariables, final List<Variable<?>> changedBounds,
+			final boolean objectiveChanged, final boolean otherChanged) {
+		this.addedConstraints = Collections.unmodifiableList(addedConstraints);
+		this.removedConstraints = Collections.unmodifiableList(removedConstraints);
+		this.addedVariables = Collections.unmodifiableList(addedVariables);
+		this.changedBounds = Collections.unmodifiableList(changedBounds);
+		this.objectiveChanged = objectiveChanged;
+		this.otherChanged = otherChanged;
+	}
+
+	/**
+	 * Returns the normal constraints that were added. A constraint that replaced
+	 * another constraint with the same name is listed here and the replaced
+	 * constraint is listed as removed.
+	 *
+	 * @return Unmodifiable list of added constraints in the order they were added.
+	 */
+	public List<NormalConstraint> getAddedConstraints() {
+		return addedConstraints;
+	}
+
+	/**
+	 * Returns the normal constraints that were removed. Constraints that were
+	 * added and removed again since the journal was cleared are not listed.
+	 *
+	 * @return Unmodifiable list of removed constraints in the order they were
+	 *         removed.
+	 */
+	public List<NormalConstraint> getRemovedConstraints() {
+		return removedConstraints;
+	}
+
+	/**
+	 * Returns the variables that were added to the problem.
+	 *
+	 * @return Unmodifiable list of added variables in index order.
+	 */
+	public List<Variable<?>> getAddedVariables() {
+		return addedVariables;
+	}
+
+	/**
+	 * Returns the variables whose lower or upper bound changed. Added variables
+	 * are not listed.
+	 *
+	 * @return Unmodifiable list of variables with changed bounds in index order.
+	 */
+	public List<Variable<?>> getChangedBounds() {
+		return changedBounds;
+	}
+
+	/**
+	 * Returns if the objective function or the objective type was set.
+	 *
+	 * @return True, if the objective was changed.
+	 */
+	public boolean isObjectiveChanged() {
+		return objectiveChanged;
+	}
+
+	/**
+	 * Returns if general, SOS1 or Or constraints were added or removed.
+	 *
+	 * @return True, if constraints other than normal constraints were changed.
+	 */
+	public boolean isOtherChanged() {
+		return otherChanged;
+	}
+
+	/**
+	 * Returns if there are no changes at all.
+	 *
+	 * @return True, if nothing changed.
+	 */
+	public boolean isEmpty() {
+		return addedConstraints.isEmpty() && removedConstraints.isEmpty() && addedVariables.isEmpty()
+				&& changedBounds.isEmpty() && !objectiveChanged && !otherChanged;
+	}
+
+}
@@ -0,0 +1,220 @@
+package org.emoflon.ilp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class lowers a problem into a form a solver can translate directly. The
+ * transformation runs a sequence of passes on a copy of the problem, the source
+ * problem is never changed. <br>
+ * <br>
+ *
+ * The copy shares the variable objects with the source problem, the variables
+ * keep their indices and auxiliary variables introduced by the passes get the
+ * following indices. Therefore, solution values written to the variables of the
+ * transformed problem are visible in the source problem.
+ *
+ */
+public class ProblemTransformer {
+
+	/**
+	 * A single transformation step that is applied to (a copy of) a problem.
+	 */
+	public interface Pass {
+
+		/**
+		 * Returns if this pass would change the given problem.
+		 *
+		 * @param problem Problem to be checked.
+		 * @return True, if the problem contains anything to be transformed by this
+		 *         pass.
+		 */
+		public abstract boolean isApplicable(Problem problem);
+
+		/**
+		 * Transforms the given problem in place.
+		 *
+		 * @param problem Problem to be transformed.
+		 */
+		public abstract void apply(Problem problem);
+	}
+
+	/**
+	 * Substitutes all Or constraints with linear and SOS1 constraints.
+	 *
+	 * @see Problem#substituteOr()
+	 */
+	public static final Pass SUBSTITUTE_OR = new Pass() {
+		@Override
+		public boolean isApplicable(Problem problem) {
+			return problem.getOrConstraintCount() != 0;
+		}
+
+		@Override
+		public void apply(Problem problem) {
+			problem.substituteOr();
+		}
+	};
+
+	/**
+	 * Replaces all linear constraints with the operator NOT_EQUAL by Or
+	 * constraints, for solvers that translate Or constraints natively.
+	 *
+	 * @see Problem#substituteNotEqualWithOr()
+	 */
+	public static final Pass NOT_EQUAL_TO_OR = new Pass() {
+		@Override
+		public boolean isApplicable(Problem problem) {
+			for (NormalConstraint constraint : problem.getConstraintsView()) {
+				if (constraint instanceof LinearConstraint && constraint.getOp() == Operator.NOT_EQUAL) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public void apply(Problem problem) {
+			problem.substituteNotEqualWithOr();
+		}
+	};
+
+	/**
+	 * Substitutes all normal constraints with the operators LESS, GREATER and
+	 * NOT_EQUAL.
+	 *
+	 * @see Problem#substituteOperators()
+	 */
+	public static final Pass SUBSTITUTE_OPERATORS = new Pass() {
+		@Override
+		public boolean isApplicable(Problem problem) {
+			for (NormalConstraint constraint : problem.getConstraintsView()) {
+				switch (constraint.getOp()) {
+				case LESS:
+				case GREATER:
+				case NOT_EQUAL:
+					return true;
+				default:
+					break;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public void apply(Problem problem) {
+			problem.substituteOperators();
+		}
+	};
+
+	/**
+	 * Substitutes all SOS1 constraints with linear constraints.
+	 *
+	 * @see Problem#substituteSOS1()
+	 */
+	public static final Pass SUBSTITUTE_SOS1 = new Pass() {
+		@Override
+		public boolean isApplicable(Problem problem) {
+			return problem.getSOSConstraintCount() != 0;
+		}
+
+		@Override
+		public void apply(Problem problem) {
+			problem.substituteSOS1();
+		}
+	};
+
+	/**
+	 * Merges duplicate terms, drops zero coefficients and folds constants of the
+	 * objective and all normal constraints.
+	 *
+	 * @see Problem#canonicalize()
+	 */
+	public static final Pass CANONICALIZE = new Pass() {
+		@Override
+		public boolean isApplicable(Problem problem) {
+			return !problem.isCanonical();
+		}
+
+		@Override
+		public void apply(Problem problem) {
+			problem.canonicalize();
+		}
+	};
+
+	private final List<Pass> passes;
+
+	/**
+	 * The constructor for a problem transformer.
+	 *
+	 * @param passes Passes to be applied in the given order.
+	 */
+	public ProblemTransformer(final Pass... passes) {
+		this(Arrays.asList(passes));
+	}
+
+	/**
+	 * The constructor for a problem transformer.
+	 *
+	 * @param passes Passes to be applied in the given order.
+	 */
+	public ProblemTransformer(final List<Pass> passes) {
+		this.passes = Collections.unmodifiableList(new ArrayList<Pass>(passes));
+	}
+
+	/**
+	 * Creates the transformer that lowers everything a solver with the given
+	 * capabilities does not support natively. Natively supported constructs are
+	 * kept, the generic substitutions are the fallback for all others.
+	 *
+	 * @param capabilities Capabilities of the solver.
+	 * @return Problem transformer for the solver.
+	 */
+	public static ProblemTransformer forCapabilities(final SolverCapabilities capabilities) {
+		final List<Pass> passes = new ArrayList<Pass>();
+		if (capabilities.isNativeOr()) {
+			passes.add(NOT_EQUAL_TO_OR);
+		} else {
+			passes.add(SUBSTITUTE_OR);
+		}
+		passes.add(SUBSTITUTE_OPERATORS);
+		if (!capabilities.isNativeSOS1()) {
+			passes.add(SUBSTITUTE_SOS1);
+		}
+		passes.add(CANONICALIZE);
+		return new ProblemTransformer(passes);
+	}
+
+	/**
+	 * Returns the passes of this transformer.
+	 *
+	 * @return Unmodifiable list of passes in the order they are applied.
+	 */
+	public List<Pass> getPasses() {
+		return passes;
+	}
+
+	/**
+	 * Applies all passes to a copy of the given problem. If no pass is applicable,
+	 * the source problem itself is returned.
+	 *
+	 * @param source Problem to be transformed. It is not changed.
+	 * @return Transformed problem.
+	 */
+	public Problem transform(final Problem source) {
+		Problem result = source;
+		for (Pass pass : passes) {
+			if (!pass.isApplicable(result)) {
+				continue;
+			}
+			if (result == source) {
+				result = new Problem(source);
+			}
+			pass.apply(result);
+		}
+		return result;
+	}
+
+}
@@ -174,8 +174,15 @@ public class QuadraticConstraint extends NormalConstraint {
 
 	@Override
 	public List<Constraint> convertOperator() {
+		return convertOperator(NameGenerator.shared());
+	}
+
+	@Override
+	public List<Constraint> convertOperator(final NameGenerator names) {
 		List<Constraint> substitute = new ArrayList<Constraint>();
 		QuadraticConstraint copy = new QuadraticConstraint(this);
+		// < and > are replaced by a single constraint that keeps the name
+		copy.setName(this.getName());
 		switch (this.op) {
 		// a < b => a + e <= b <=> a <= b - e
 		case LESS:
@@ -196,8 +203,8 @@ public class QuadraticConstraint extends NormalConstraint {
 		case NOT_EQUAL:
 			// 1: psi_i + psi'_i >= epsilon
 			LinearConstraint one = new LinearConstraint(Operator.GREATER_OR_EQUAL, this.epsilon);
-			RealVariable psi = new RealVariable("psi_".concat(copy.toString()));
-			RealVariable psiPrime = new RealVariable("psiPrime_".concat(copy.toString()));
+			RealVariable psi = new RealVariable(names.next("psi"));
+			RealVariable psiPrime = new RealVariable(names.next("psiPrime"));
 
 			// 2: psi_i + psi'_i elementof R+
 			psi.setLowerBound(0.0);
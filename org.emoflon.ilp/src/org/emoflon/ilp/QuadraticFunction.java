@@ -65,33 +65,11 @@ public class QuadraticFunction extends Function {
 		if (this.nestedFunctions.isEmpty()) {
 			// end of nesting, deepest level
 			return this;
-		} else {
-			QuadraticFunction expanded = new QuadraticFunction(this.terms, this.constantTerms);
-			for (WeightedFunction nested : this.nestedFunctions) {
-				double nestedWeight = nested.weight();
-				Function func;
-				if (nested.function() instanceof LinearFunction) {
-					func = ((LinearFunction) nested.function()).expand();
-				} else {
-					func = ((QuadraticFunction) nested.function()).expand();
-				}
-
-				// add constants multiplied with weight
-				for (Constant cons : func.constantTerms) {
-					expanded.addConstant(cons.weight() * nestedWeight);
-				}
-				// add terms multiplied with weight
-				for (Term term : func.terms) {
-					if (term instanceof LinearTerm) {
-						expanded.addTerm(term.getVar1(), term.getWeight() * nestedWeight);
-					} else {
-						expanded.addTerm(term.getVar1(), ((QuadraticTerm) term).getVar2(),
-								term.getWeight() * nestedWeight);
-					}
-				}
-			}
-			return expanded;
 		}
+		QuadraticFunction expanded = new QuadraticFunction(new ArrayList<Term>(this.terms),
+				new ArrayList<Constant>(this.constantTerms));
+		FunctionExpander.expandNested(this, expanded);
+		return expanded;
 	}
 
 	public String toString() {
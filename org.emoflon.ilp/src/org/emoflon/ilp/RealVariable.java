@@ -4,7 +4,7 @@ package org.emoflon.ilp;
  * This class represents real variables.
  *
  */
-public class RealVariable implements Variable<Double> {
+public class RealVariable extends IndexedVariable<Double> {
 
 	final private String name;
 	private double value;
@@ -42,6 +42,16 @@ public class RealVariable implements Variable<Double> {
 		this.value = value;
 	}
 
+	@Override
+	public double valueAsDouble() {
+		return value;
+	}
+
+	@Override
+	public void setValueDouble(double value) {
+		this.value = value;
+	}
+
 	@Override
 	public Double getUpperBound() {
 		return upperBound;
@@ -53,6 +63,11 @@ public class RealVariable implements Variable<Double> {
 		this.defaultUpperBound = false;
 	}
 
+	@Override
+	public double upperBoundAsDouble() {
+		return upperBound;
+	}
+
 	/**
 	 * Returns if the upper bound of this variable is the default bound (true) or of
 	 * it got changed (false)
@@ -75,6 +90,11 @@ public class RealVariable implements Variable<Double> {
 		this.defaultLowerBound = false;
 	}
 
+	@Override
+	public double lowerBoundAsDouble() {
+		return lowerBound;
+	}
+
 	/**
 	 * Returns if the lower bound of this variable is the default bound (true) or of
 	 * it got changed (false)
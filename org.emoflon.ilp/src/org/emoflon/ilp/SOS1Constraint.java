@@ -16,7 +16,6 @@ public class SOS1Constraint extends Constraint {
 
 	private List<Variable<?>> variables = new ArrayList<Variable<?>>();
 	private List<Double> weights = new ArrayList<Double>();
-	private List<BinaryVariable> binary = new ArrayList<BinaryVariable>();
 	private int bound = (int) 10E4;
 	private double epsilon = 1.0E-4;
 
@@ -169,7 +168,8 @@ public class SOS1Constraint extends Constraint {
 
 	/**
 	 * Sets the bound used for converting the SOS1 constraint into linear
-	 * constraints. This should be a large number.
+	 * constraints. This should be a large number. Variables with tighter (non
+	 * default) bounds use their own bounds instead.
 	 * 
 	 * @param bound Large integer bound used for conversion.
 	 */
@@ -197,33 +197,56 @@ public class SOS1Constraint extends Constraint {
 	}
 
 	/**
-	 * Converts the SOS1 constraint into multiple linear constraints.
+	 * Converts the SOS1 constraint into multiple linear constraints. The auxiliary
+	 * variables are named by the shared name generator.
 	 * 
 	 * @return List of constraints to substitute this SOS1 constraint.
 	 * @see LinearConstraint
+	 * @see NameGenerator#shared()
 	 */
 	public List<LinearConstraint> convert() {
+		return convert(NameGenerator.shared());
+	}
+
+	/**
+	 * Converts the SOS1 constraint into multiple linear constraints.
+	 * 
+	 * @param names Name generator for the auxiliary variables.
+	 * @return List of constraints to substitute this SOS1 constraint.
+	 * @see LinearConstraint
+	 */
+	public List<LinearConstraint> convert(final NameGenerator names) {
 		List<LinearConstraint> substitution = new ArrayList<LinearConstraint>();
 		List<Term> binaryTerms = new ArrayList<Term>();
 		// for every variable v_i in this sos constraint there is a corresponding binary
 		// variable s_i
 		for (Variable<?> var : this.variables) {
-			BinaryVariable binVar = new BinaryVariable("sos_binary_" + var.getName());
-			this.binary.add(binVar);
+			BinaryVariable binVar = new BinaryVariable(names.next("sos_binary"));
 			binaryTerms.add(new LinearTerm(binVar, 1));
 
+			// the big-M of each side is the bound of this constraint or the (known) bound
+			// of the variable, if that is tighter
+			final double upperM = Math.min(bound, VariableBounds.upper(var));
+			final double lowerM = Math.min(bound, -VariableBounds.lower(var));
+
 			// match variable to take non-zero value
 			// v_i <= c * s_i -> v_i - c * s_i <= 0
-			LinearConstraint linRight = new LinearConstraint(Operator.LESS_OR_EQUAL, 0.0);
-			linRight.addTerm(var, 1.0);
-			linRight.addTerm(binVar, -bound);
-			substitution.add(linRight);
+			// (not needed if v_i <= 0 holds anyway)
+			if (upperM > 0) {
+				LinearConstraint linRight = new LinearConstraint(Operator.LESS_OR_EQUAL, 0.0);
+				linRight.addTerm(var, 1.0);
+				linRight.addTerm(binVar, -upperM);
+				substitution.add(linRight);
+			}
 
 			// v_i >= -c * s_i -> v_i + c * s_i >= 0
-			LinearConstraint linLeft = new LinearConstraint(Operator.GREATER_OR_EQUAL, 0.0);
-			linLeft.addTerm(binVar, bound);
-			linLeft.addTerm(var, 1);
-			substitution.add(linLeft);
+			// (not needed if v_i >= 0 holds anyway)
+			if (lowerM > 0) {
+				LinearConstraint linLeft = new LinearConstraint(Operator.GREATER_OR_EQUAL, 0.0);
+				linLeft.addTerm(binVar, lowerM);
+				linLeft.addTerm(var, 1);
+				substitution.add(linLeft);
+			}
 		}
 		// at most one binary variable s_i is non-zero -> the sum of all binary
 		// variables is <= 1
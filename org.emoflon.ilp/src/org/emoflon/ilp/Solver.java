@@ -1,5 +1,9 @@
 package org.emoflon.ilp;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 /**
  * Interface for all implemented Solvers.
  * 
@@ -11,13 +15,95 @@ public interface Solver {
 
 	/**
 	 * Translates the problem formulation to be comprehensible for the solver
-	 * configured in SolverConfig.
+	 * configured in SolverConfig. If the solver built the problem before, only
+	 * the changes since then are applied, if possible. A model that was changed
+	 * by the incremental methods below is rebuilt.
 	 * 
 	 * @param problem Problem formulation to be optimized.
 	 * @see Problem
 	 */
 	public abstract void buildILPProblem(Problem problem);
 
+	/**
+	 * Returns the constructs this solver translates natively. All other constructs
+	 * are lowered by the generic substitutions in buildILPProblem().
+	 *
+	 * @return Capabilities of this solver.
+	 * @see SolverCapabilities
+	 */
+	public abstract SolverCapabilities getCapabilities();
+
+	/**
+	 * Changes the bounds of a variable in the built model. The change is applied
+	 * to the model of the solver directly, the problem formulation is not changed.
+	 *
+	 * @param var        Variable of the built problem.
+	 * @param lowerBound New lower bound of the variable.
+	 * @param upperBound New upper bound of the variable.
+	 */
+	public abstract void setVariableBounds(Variable<?> var, double lowerBound, double upperBound);
+
+	/**
+	 * Adds a linear constraint to the built model. All variables of the constraint
+	 * have to be part of the built problem. The operator NOT_EQUAL is not
+	 * supported. The problem formulation is not changed.
+	 *
+	 * @param constraint Linear constraint to be added. If it has no name, a name
+	 *                   is generated.
+	 */
+	public abstract void addConstraint(LinearConstraint constraint);
+
+	/**
+	 * Removes a linear constraint from the built model. The constraint is
+	 * identified by its name. The problem formulation is not changed.
+	 *
+	 * @param constraint Linear constraint of the built problem or added by
+	 *                   addConstraint().
+	 * @return True, if the constraint was part of the model and was removed.
+	 */
+	public abstract boolean removeConstraint(LinearConstraint constraint);
+
+	/**
+	 * Sets the linear objective coefficient of a variable in the built model. The
+	 * problem formulation is not changed.
+	 *
+	 * @param var         Variable of the built problem.
+	 * @param coefficient New coefficient of the variable in the objective.
+	 */
+	public abstract void setObjectiveCoefficient(Variable<?> var, double coefficient);
+
+	/**
+	 * Sets the right-hand side of a linear constraint in the built model. The
+	 * constraint is identified by its name, its operator is taken into account.
+	 * The problem formulation is not changed.
+	 *
+	 * @param constraint Linear constraint of the built problem or added by
+	 *                   addConstraint().
+	 * @param rhs        New right-hand side of the constraint.
+	 */
+	public abstract void setRhs(LinearConstraint constraint, double rhs);
+
+	/**
+	 * Sets a start solution (MIP start) for the next call of solve(). The solver
+	 * uses it as initial incumbent, if it is feasible. The start solution is used
+	 * for one solve only and has to be set after building the problem.
+	 *
+	 * @param values Start values, indexed like getSolutionValues(). Double.NaN
+	 *               marks variables without start value.
+	 * @see SolverConfig#isStartFromValuesEnabled()
+	 */
+	public abstract void setStartSolution(double[] values);
+
+	/**
+	 * Sets a start solution (MIP start) for the next call of solve() from the
+	 * values of single variables. Variables that are not contained get no start
+	 * value.
+	 *
+	 * @param values Start values of the variables.
+	 * @see #setStartSolution(double[])
+	 */
+	public abstract void setStartSolution(Map<Variable<?>, ? extends Number> values);
+
 	/**
 	 * Solves the problem.
 	 * 
@@ -26,12 +112,54 @@ public interface Solver {
 	 */
 	public abstract SolverOutput solve();
 
+	/**
+	 * Solves the problem on a thread of a shared default executor.
+	 * 
+	 * @return Future of the solver output.
+	 * @see #solveAsync(Executor)
+	 */
+	public abstract CompletableFuture<SolverOutput> solveAsync();
+
+	/**
+	 * Solves the problem on a thread of the given executor. The solver must not be
+	 * used otherwise until the solve finished. If the future is cancelled or
+	 * completed exceptionally (e.g., by orTimeout()) while the solve is running,
+	 * the solve is terminated with cancel(). To get the best solution found so
+	 * far instead, call cancel() directly, the future then completes with the
+	 * status INTERRUPTED.
+	 * 
+	 * @param executor Executor to run the solve.
+	 * @return Future of the solver output.
+	 */
+	public abstract CompletableFuture<SolverOutput> solveAsync(Executor executor);
+
+	/**
+	 * Terminates the running solve as soon as possible. It returns with the status
+	 * INTERRUPTED. This method can be called from any thread. A solve that was
+	 * submitted with solveAsync() but did not start, yet, is terminated as well.
+	 * It has no effect if no solve is running or submitted.
+	 */
+	public abstract void cancel();
+
 	/**
 	 * Sets the values of the variables to the resulting values after solving the
 	 * problem.
 	 */
 	public abstract void updateValuesFromSolution();
 
+	/**
+	 * Returns the values of all variables after solving the problem. The values
+	 * are fetched from the solver in bulk, the variables of the problem are not
+	 * changed.
+	 * 
+	 * @return Solution values, indexed by the variable index in the problem.
+	 *         Auxiliary variables introduced by substitutions follow after the
+	 *         variables of the problem. Variables removed by the Java presolve
+	 *         get their fixed values.
+	 * @see Problem#getVariableIndex(Variable)
+	 */
+	public abstract double[] getSolutionValues();
+
 	/**
 	 * Terminates the solver after solving the problem.
 	 */
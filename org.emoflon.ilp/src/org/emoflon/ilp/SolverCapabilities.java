@@ -0,0 +1,58 @@
+package org.emoflon.ilp;
+
+/**
+ * This class describes which constructs a solver backend can translate
+ * natively. Constructs that are not supported natively are lowered by the
+ * generic substitutions before the problem is translated.
+ *
+ * @see Solver#getCapabilities()
+ * @see ProblemTransformer#forCapabilities(SolverCapabilities)
+ */
+public class SolverCapabilities {
+
+	private final boolean nativeSOS1;
+	private final boolean nativeOr;
+
+	/**
+	 * The constructor for solver capabilities.
+	 *
+	 * @param nativeSOS1 True, if SOS1 constraints are supported natively.
+	 * @param nativeOr   True, if Or constraints (disjunctions of linear
+	 *                   constraints) are supported natively, e.g., with indicator
+	 *                   constraints.
+	 */
+	public SolverCapabilities(final boolean nativeSOS1, final boolean nativeOr) {
+		this.nativeSOS1 = nativeSOS1;
+		this.nativeOr = nativeOr;
+	}
+
+	/**
+	 * Returns if SOS1 constraints are translated natively. Otherwise, they are
+	 * substituted with linear constraints.
+	 *
+	 * @return True, if SOS1 constraints are supported natively.
+	 * @see Problem#substituteSOS1()
+	 */
+	public boolean isNativeSOS1() {
+		return nativeSOS1;
+	}
+
+	/**
+	 * Returns if Or constraints are translated natively. Then, linear constraints
+	 * with the operator NOT_EQUAL are translated as Or constraints as well.
+	 * Otherwise, both are substituted with linear and SOS1 constraints.
+	 *
+	 * @return True, if Or constraints are supported natively.
+	 * @see Problem#substituteOr()
+	 * @see Problem#substituteNotEqualWithOr()
+	 */
+	public boolean isNativeOr() {
+		return nativeOr;
+	}
+
+	@Override
+	public String toString() {
+		return "SolverCapabilities [nativeSOS1=" + nativeSOS1 + ", nativeOr=" + nativeOr + "]";
+	}
+
+}
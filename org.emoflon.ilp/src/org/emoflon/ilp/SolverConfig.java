@@ -16,6 +16,12 @@ public class SolverConfig {
 	private int lowerBound;
 	private int upperBound;
 	private boolean presolveEnabled;
+	private boolean javaPresolveEnabled = false;
+	private boolean startFromValuesEnabled = false;
+	private int glpkWorkerProcesses = 0;
+	private int threads = 0;
+	private int concurrentMIP = 0;
+	private ParallelMode parallelMode = ParallelMode.DEFAULT;
 	private boolean debugOutputEnabled;
 	private boolean outputEnabled;
 	private String outputPath;
@@ -93,6 +99,15 @@ public class SolverConfig {
 		GUROBI, CPLEX, GLPK
 	}
 
+	/**
+	 * Parallel mode of the solver. DETERMINISTIC solves give the same result for
+	 * the same problem and configuration, OPPORTUNISTIC solves may be faster.
+	 * DEFAULT leaves the choice to the solver.
+	 */
+	public enum ParallelMode {
+		DEFAULT, DETERMINISTIC, OPPORTUNISTIC
+	}
+
 	public SolverType getSolver() {
 		return solver;
 	}
@@ -181,6 +196,124 @@ public class SolverConfig {
 		this.presolveEnabled = presolveEnabled;
 	}
 
+	/**
+	 * Returns if the problem is reduced by the (solver independent) Presolver
+	 * before it is handed to the solver. This is independent of the presolve
+	 * phase of the solver itself.
+	 * 
+	 * @return True, if the Java presolve is enabled.
+	 * @see Presolver
+	 */
+	public boolean isJavaPresolveEnabled() {
+		return javaPresolveEnabled;
+	}
+
+	/**
+	 * Enables or disables the (solver independent) Presolver. It reduces the
+	 * problem after it was lowered for the solver, but only if the lowered problem
+	 * consists of linear constraints with the operators LESS_OR_EQUAL,
+	 * GREATER_OR_EQUAL and EQUAL and a linear objective. Otherwise, the problem is
+	 * handed to the solver unchanged. In particular, there is no Java presolve for
+	 * problems with SOS1, Or or general constraints on solvers that support them
+	 * natively (Gurobi and CPLEX). For GLPK, SOS1 and Or constraints are lowered to
+	 * linear constraints before, so these problems are reduced.
+	 * 
+	 * @param javaPresolveEnabled True, to enable the Java presolve.
+	 * @see Presolver
+	 * @see SolverCapabilities
+	 */
+	public void setJavaPresolveEnabled(final boolean javaPresolveEnabled) {
+		this.javaPresolveEnabled = javaPresolveEnabled;
+	}
+
+	/**
+	 * Returns if the current values of the variables are passed to the solver as
+	 * start solution (MIP start), if no start solution was set explicitly. After
+	 * updateValuesFromSolution(), these are the values of the previous solution.
+	 * 
+	 * @return True, if the start solution is taken from the variable values.
+	 * @see Solver#setStartSolution(double[])
+	 */
+	public boolean isStartFromValuesEnabled() {
+		return startFromValuesEnabled;
+	}
+
+	public void setStartFromValuesEnabled(final boolean startFromValuesEnabled) {
+		this.startFromValuesEnabled = startFromValuesEnabled;
+	}
+
+	/**
+	 * Returns the maximum number of worker processes that solve GLPK models. If it
+	 * is 0 (default), GLPK solves in the JVM. Otherwise, the models are solved in
+	 * separate JVMs, so solves run in parallel and a native fault of GLPK does not
+	 * terminate this JVM. The worker processes are shared by all GLPK solvers, the
+	 * largest configured number applies. Start solutions are not passed to worker
+	 * processes.
+	 * 
+	 * @return Maximum number of GLPK worker processes.
+	 */
+	public int getGlpkWorkerProcesses() {
+		return glpkWorkerProcesses;
+	}
+
+	public void setGlpkWorkerProcesses(final int glpkWorkerProcesses) {
+		if (glpkWorkerProcesses < 0) {
+			throw new IllegalArgumentException("The number of GLPK worker processes must not be negative.");
+		}
+		this.glpkWorkerProcesses = glpkWorkerProcesses;
+	}
+
+	/**
+	 * Returns the number of threads the solver may use. If it is 0 (default), the
+	 * solver decides, Gurobi and CPLEX use all cores then. GLPK always uses a
+	 * single thread. The threads may be limited further by the CoreBudget.
+	 * 
+	 * @return Number of threads or 0.
+	 * @see CoreBudget
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	public void setThreads(final int threads) {
+		if (threads < 0) {
+			throw new IllegalArgumentException("The number of threads must not be negative.");
+		}
+		this.threads = threads;
+	}
+
+	/**
+	 * Returns the number of independent MIP solves that Gurobi runs concurrently
+	 * with different strategies, sharing the threads. If it is 0 (default), the
+	 * solver decides. CPLEX and GLPK do not support concurrent MIP solves.
+	 * 
+	 * @return Number of concurrent MIP solves or 0.
+	 */
+	public int getConcurrentMIP() {
+		return concurrentMIP;
+	}
+
+	public void setConcurrentMIP(final int concurrentMIP) {
+		if (concurrentMIP < 0) {
+			throw new IllegalArgumentException("The number of concurrent MIP solves must not be negative.");
+		}
+		this.concurrentMIP = concurrentMIP;
+	}
+
+	/**
+	 * Returns the parallel mode. It is applied by CPLEX, Gurobi is always
+	 * deterministic and GLPK is single-threaded.
+	 * 
+	 * @return Parallel mode.
+	 */
+	public ParallelMode getParallelMode() {
+		return parallelMode;
+	}
+
+	public void setParallelMode(final ParallelMode parallelMode) {
+		this.parallelMode = parallelMode;
+	}
+
 	public boolean isDebugOutputEnabled() {
 		return debugOutputEnabled;
 	}
@@ -13,8 +13,10 @@ package org.emoflon.ilp;
  * TIME_OUT: Time limit specified in Solver Config was exceeded, optimization
  * was terminated. <br>
  * FEASIBLE: A feasible solution was found. <br>
+ * INTERRUPTED: Optimization was terminated by Solver.cancel(). (There still
+ * might be a feasible solution.) <br>
  *
  */
 public enum SolverStatus {
-	UNBOUNDED, INF_OR_UNBD, INFEASIBLE, OPTIMAL, TIME_OUT, FEASIBLE
+	UNBOUNDED, INF_OR_UNBD, INFEASIBLE, OPTIMAL, TIME_OUT, FEASIBLE, INTERRUPTED
 }
\ No newline at end of file
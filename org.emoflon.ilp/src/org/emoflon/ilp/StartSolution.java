@@ -0,0 +1,93 @@
+package org.emoflon.ilp;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class converts start solutions (MIP starts) into the start values for
+ * the variables of the problem translated by a solver. <br>
+ * <br>
+ *
+ * Start values are indexed like the solution values of the solver, i.e., by
+ * the variable index in the lowered problem. Variables without a start value
+ * are marked with Double.NaN.
+ *
+ * @see Solver#setStartSolution(double[])
+ */
+final class StartSolution {
+
+	private StartSolution() {
+	}
+
+	/**
+	 * Converts start values indexed by the variable index in the lowered problem
+	 * into start values for the reduced problem of the presolve.
+	 *
+	 * @param presolve Presolve result of the built problem.
+	 * @param values   Start values indexed by the variable index in the lowered
+	 *                 problem.
+	 * @return Start values indexed by the variable index in the translated
+	 *         problem.
+	 */
+	static double[] reduce(final PresolveResult presolve, final double[] values) {
+		checkBuilt(presolve);
+		if (values.length != presolve.getOriginal().getVariableCount()) {
+			throw new IllegalArgumentException("The start solution has " + values.length + " values, but the problem has "
+					+ presolve.getOriginal().getVariableCount() + " variables.");
+		}
+		return presolve.reduce(values.clone());
+	}
+
+	/**
+	 * Converts start values of single variables into start values for the reduced
+	 * problem of the presolve.
+	 *
+	 * @param presolve Presolve result of the built problem.
+	 * @param values   Start values of the variables. Variables that are not
+	 *                 contained get no start value.
+	 * @return Start values indexed by the variable index in the translated
+	 *         problem.
+	 */
+	static double[] reduce(final PresolveResult presolve, final Map<Variable<?>, ? extends Number> values) {
+		checkBuilt(presolve);
+		final Problem original = presolve.getOriginal();
+		final double[] start = new double[original.getVariableCount()];
+		Arrays.fill(start, Double.NaN);
+		for (Map.Entry<Variable<?>, ? extends Number> entry : values.entrySet()) {
+			start[original.getVariableIndex(entry.getKey())] = entry.getValue().doubleValue();
+		}
+		return presolve.reduce(start);
+	}
+
+	/**
+	 * Returns the start values to be passed to the solver for the next solve: The
+	 * explicitly set start values or, if enabled in the configuration, the current
+	 * values of the variables.
+	 *
+	 * @param start    Explicitly set start values or null.
+	 * @param presolve Presolve result of the built problem.
+	 * @param config   Solver configuration.
+	 * @return Start values indexed by the variable index in the translated
+	 *         problem or null, if there is no start solution.
+	 * @see SolverConfig#isStartFromValuesEnabled()
+	 */
+	static double[] next(final double[] start, final PresolveResult presolve, final SolverConfig config) {
+		if (start != null || !config.isStartFromValuesEnabled()) {
+			return start;
+		}
+		final List<Variable<?>> vars = presolve.getOriginal().getVariableList();
+		final double[] values = new double[vars.size()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = vars.get(i).valueAsDouble();
+		}
+		return presolve.reduce(values);
+	}
+
+	private static void checkBuilt(final PresolveResult presolve) {
+		if (presolve == null) {
+			throw new IllegalStateException("The problem has to be built before a start solution can be set.");
+		}
+	}
+
+}
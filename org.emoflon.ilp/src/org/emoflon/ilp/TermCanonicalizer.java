@@ -0,0 +1,169 @@
+package org.emoflon.ilp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class brings functions and constraints of a problem into a canonical
+ * form: <br>
+ * - nested functions are expanded, <br>
+ * - all terms on the same variable (or the same pair of variables for quadratic
+ * terms, regardless of their order) are merged into a single term, <br>
+ * - terms with a coefficient of 0 are dropped and <br>
+ * - all constants are folded into a single constant. <br>
+ * <br>
+ *
+ * The terms are identified by the variable indices of the problem. Linear terms
+ * use the index as key, quadratic terms (i, j) with i &lt;= j use ((i + 1)
+ * &lt;&lt; 32) | j. The canonical terms keep the order of their first
+ * occurrence. Functions and constraints are never changed, the canonical form is
+ * always a new object.
+ *
+ * @see Problem#canonicalize()
+ */
+class TermCanonicalizer {
+
+	private final Problem problem;
+	private final LongDoubleHashMap coefficients = new LongDoubleHashMap();
+
+	/**
+	 * The constructor for a canonicalizer.
+	 *
+	 * @param problem Problem that provides the variable indices.
+	 */
+	TermCanonicalizer(final Problem problem) {
+		this.problem = problem;
+	}
+
+	/**
+	 * Returns the canonical form of the given function.
+	 *
+	 * @param function Function to be canonicalized.
+	 * @return Canonical function of the same kind (linear or quadratic).
+	 */
+	Function canonicalize(final Function function) {
+		final Function expanded = function.expand();
+		final List<Term> terms = mergeTerms(expanded.getTerms());
+		final List<Constant> constants = new ArrayList<Constant>(1);
+		double constant = 0.0;
+		for (Constant cons : expanded.getConstants()) {
+			constant += cons.weight();
+		}
+		if (constant != 0.0) {
+			constants.add(new Constant(constant));
+		}
+
+		if (function instanceof LinearFunction) {
+			return new LinearFunction(terms, constants);
+		}
+		return new QuadraticFunction(terms, constants);
+	}
+
+	/**
+	 * Returns the canonical form of the given constraint. The name, operator,
+	 * right-hand side and epsilon are taken over.
+	 *
+	 * @param constraint Constraint to be canonicalized.
+	 * @return Canonical constraint of the same kind (linear or quadratic).
+	 */
+	NormalConstraint canonicalize(final NormalConstraint constraint) {
+		final List<Term> terms = mergeTerms(constraint.getLhsTerms());
+		final NormalConstraint canonical;
+		switch (constraint.getType()) {
+		case LINEAR:
+			canonical = new LinearConstraint(terms, constraint.getOp(), constraint.getRhs(),
+					((LinearConstraint) constraint).getEpsilon());
+			break;
+		case QUADRATIC:
+			canonical = new QuadraticConstraint(terms, constraint.getOp(), constraint.getRhs(),
+					((QuadraticConstraint) constraint).getEpsilon());
+			break;
+		default:
+			throw new UnsupportedOperationException("This constraint type is not known.");
+		}
+		canonical.setName(constraint.getName());
+		return canonical;
+	}
+
+	/**
+	 * Returns if the given function is already in canonical form.
+	 *
+	 * @param function Function to be checked.
+	 * @return True, if canonicalize(function) would not change anything.
+	 */
+	boolean isCanonical(final Function function) {
+		if (!function.getNestedFunctions().isEmpty()) {
+			return false;
+		}
+		if (function.getConstants().size() > 1
+				|| (function.getConstants().size() == 1 && function.getConstants().get(0).weight() == 0.0)) {
+			return false;
+		}
+		return areCanonical(function.getTerms());
+	}
+
+	/**
+	 * Returns if the terms of the given constraint are already in canonical form.
+	 *
+	 * @param constraint Constraint to be checked.
+	 * @return True, if canonicalize(constraint) would not change any term.
+	 */
+	boolean isCanonical(final NormalConstraint constraint) {
+		return areCanonical(constraint.getLhsTerms());
+	}
+
+	private boolean areCanonical(final List<Term> terms) {
+		coefficients.clear();
+		for (Term term : terms) {
+			if (term.getWeight() == 0.0) {
+				return false;
+			}
+			final int size = coefficients.size();
+			if (coefficients.add(key(term), term.getWeight()) != size) {
+				// key was seen before
+				return false;
+			}
+			if (term instanceof QuadraticTerm && problem.getVariableIndex(term.getVar1()) > problem
+					.getVariableIndex(((QuadraticTerm) term).getVar2())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private List<Term> mergeTerms(final List<Term> terms) {
+		coefficients.clear();
+		for (Term term : terms) {
+			coefficients.add(key(term), term.getWeight());
+		}
+
+		final List<Term> merged = new ArrayList<Term>(coefficients.size());
+		for (int pos = 0; pos < coefficients.size(); pos++) {
+			final double weight = coefficients.valueAt(pos);
+			if (weight == 0.0) {
+				continue;
+			}
+			final long key = coefficients.keyAt(pos);
+			final int high = (int) (key >>> 32);
+			final int low = (int) key;
+			if (high == 0) {
+				merged.add(new LinearTerm(problem.getVariable(low), weight));
+			} else {
+				merged.add(new QuadraticTerm(problem.getVariable(high - 1), problem.getVariable(low), weight));
+			}
+		}
+		return merged;
+	}
+
+	private long key(final Term term) {
+		final int i = problem.getVariableIndex(term.getVar1());
+		if (!(term instanceof QuadraticTerm)) {
+			return i;
+		}
+		final int j = problem.getVariableIndex(((QuadraticTerm) term).getVar2());
+		final int min = Math.min(i, j);
+		final int max = Math.max(i, j);
+		return ((long) (min + 1) << 32) | max;
+	}
+
+}
@@ -24,6 +24,41 @@ public interface Variable<T extends Number> {
 	 */
 	public void setValue(final T value);
 
+	/**
+	 * Returns the current value of the variable as a primitive double.
+	 * 
+	 * @return Value of this variable.
+	 * @see #getValue()
+	 */
+	public default double valueAsDouble() {
+		return getValue().doubleValue();
+	}
+
+	/**
+	 * Sets the value of the variable from a primitive double, e.g. a value of the
+	 * solution vector. Binary and integer variables round the value, binary
+	 * variables are set to 1 for values from 0.5.
+	 * 
+	 * @param value New value of this variable.
+	 * @see Solver#getSolutionValues()
+	 */
+	@SuppressWarnings("unchecked")
+	public default void setValueDouble(final double value) {
+		switch (getType()) {
+		case BINARY:
+			((Variable<Integer>) this).setValue(Math.round(value) >= 1 ? 1 : 0);
+			break;
+		case INTEGER:
+			((Variable<Integer>) this).setValue((int) Math.round(value));
+			break;
+		case REAL:
+			((Variable<Double>) this).setValue(value);
+			break;
+		default:
+			throw new UnsupportedOperationException("Unknown variable type.");
+		}
+	}
+
 	/**
 	 * Returns the upper bound of this variable.
 	 * 
@@ -38,6 +73,15 @@ public interface Variable<T extends Number> {
 	 */
 	public void setUpperBound(final T bound);
 
+	/**
+	 * Returns the upper bound of this variable as a primitive double.
+	 * 
+	 * @return Value of the upper bound of this variable.
+	 */
+	public default double upperBoundAsDouble() {
+		return getUpperBound().doubleValue();
+	}
+
 	/**
 	 * Returns the lower bound of this variable.
 	 * 
@@ -52,6 +96,15 @@ public interface Variable<T extends Number> {
 	 */
 	public void setLowerBound(final T bound);
 
+	/**
+	 * Returns the lower bound of this variable as a primitive double.
+	 * 
+	 * @return Value of the lower bound of this variable.
+	 */
+	public default double lowerBoundAsDouble() {
+		return getLowerBound().doubleValue();
+	}
+
 	/**
 	 * Returns the type of this variable (BINARY, INTEGER, REAL).
 	 * 
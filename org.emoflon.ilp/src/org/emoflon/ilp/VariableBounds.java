@@ -0,0 +1,89 @@
+package org.emoflon.ilp;
+
+import java.util.List;
+
+/**
+ * This class provides the bounds of variables and linear expressions that are
+ * known while a problem is lowered. <br>
+ * <br>
+ *
+ * Default bounds of integer and real variables may still be replaced by the
+ * bounds of the solver configuration, they are therefore treated as unknown
+ * (infinite). Binary variables and explicitly set bounds are always known.
+ *
+ * @see SolverConfig#isBoundsEnabled()
+ */
+final class VariableBounds {
+
+	private VariableBounds() {
+	}
+
+	/**
+	 * Returns the known lower bound of the given variable.
+	 *
+	 * @param var Variable to get the lower bound for.
+	 * @return Lower bound or negative infinity, if it is not known.
+	 */
+	static double lower(final Variable<?> var) {
+		if ((var instanceof IntegerVariable && ((IntegerVariable) var).isDefaultLowerBound())
+				|| (var instanceof RealVariable && ((RealVariable) var).isDefaultLowerBound())) {
+			return Double.NEGATIVE_INFINITY;
+		}
+		return var.lowerBoundAsDouble();
+	}
+
+	/**
+	 * Returns the known upper bound of the given variable.
+	 *
+	 * @param var Variable to get the upper bound for.
+	 * @return Upper bound or positive infinity, if it is not known.
+	 */
+	static double upper(final Variable<?> var) {
+		if ((var instanceof IntegerVariable && ((IntegerVariable) var).isDefaultUpperBound())
+				|| (var instanceof RealVariable && ((RealVariable) var).isDefaultUpperBound())) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return var.upperBoundAsDouble();
+	}
+
+	/**
+	 * Returns the minimum activity of the given linear terms.
+	 *
+	 * @param terms Linear terms.
+	 * @return Minimum value of the sum of the terms or negative infinity, if it is
+	 *         not known.
+	 */
+	static double minActivity(final List<Term> terms) {
+		double activity = 0.0;
+		for (Term term : terms) {
+			final double w = term.getWeight();
+			if (w > 0) {
+				activity += w * lower(term.getVar1());
+			} else if (w < 0) {
+				activity += w * upper(term.getVar1());
+			}
+		}
+		return activity;
+	}
+
+	/**
+	 * Returns the maximum activity of the given linear terms.
+	 *
+	 * @param terms Linear terms.
+	 * @return Maximum value of the sum of the terms or positive infinity, if it is
+	 *         not known.
+	 */
+	static double maxActivity(final List<Term> terms) {
+		double activity = 0.0;
+		for (Term term : terms) {
+			final double w = term.getWeight();
+			if (w > 0) {
+				activity += w * upper(term.getVar1());
+			} else if (w < 0) {
+				activity += w * lower(term.getVar1());
+			}
+		}
+		return activity;
+	}
+
+}
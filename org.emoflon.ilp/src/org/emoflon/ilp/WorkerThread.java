@@ -0,0 +1,136 @@
+package org.emoflon.ilp;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class confines calls to a single daemon thread. Calls are queued and
+ * run one after another. The thread is started on the first call and can be
+ * shut down, a later call starts a new thread. <br>
+ * <br>
+ *
+ * Calls from the worker thread itself are run directly, so a call can call
+ * further methods that are confined to the same worker.
+ */
+final class WorkerThread {
+
+	private final String name;
+	private ExecutorService executor;
+	private volatile Thread thread;
+
+	/**
+	 * The constructor for WorkerThread.
+	 *
+	 * @param name Name of the thread.
+	 */
+	WorkerThread(final String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Returns the executor of the worker, a new thread is started if needed.
+	 *
+	 * @return Single thread executor.
+	 */
+	private synchronized ExecutorService executor() {
+		if (executor == null) {
+			executor = Executors.newSingleThreadExecutor(runnable -> {
+				final Thread thread = new Thread(runnable, name);
+				thread.setDaemon(true);
+				this.thread = thread;
+				return thread;
+			});
+		}
+		return executor;
+	}
+
+	/**
+	 * Returns if the current thread is the worker thread.
+	 *
+	 * @return True, if called from the worker thread.
+	 */
+	boolean isCurrent() {
+		return Thread.currentThread() == thread;
+	}
+
+	/**
+	 * Runs the given call on the worker thread and waits for its result. Waiting
+	 * is not interrupted, the interrupt status of the calling thread is restored
+	 * afterwards.
+	 *
+	 * @param <T>  Type of the result.
+	 * @param call Call to be run.
+	 * @return Result of the call.
+	 */
+	<T> T call(final Callable<T> call) {
+		if (isCurrent()) {
+			try {
+				return call.call();
+			} catch (final RuntimeException e) {
+				throw e;
+			} catch (final Exception e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		final Future<T> future = executor().submit(call);
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return future.get();
+				} catch (final InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Runs the given action on the worker thread and waits for it to finish.
+	 *
+	 * @param action Action to be run.
+	 * @see #call(Callable)
+	 */
+	void run(final Runnable action) {
+		call(() -> {
+			action.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Queues the given action on the worker thread without waiting for it.
+	 *
+	 * @param action Action to be run.
+	 */
+	void execute(final Runnable action) {
+		executor().execute(action);
+	}
+
+	/**
+	 * Shuts the worker thread down after the queued calls are done.
+	 */
+	synchronized void shutdown() {
+		if (executor != null) {
+			executor.shutdown();
+			executor = null;
+		}
+	}
+
+}